@@ -0,0 +1,81 @@
+/*
+ * Copyright 2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.smallrye.metrics.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.microprofile.metrics.Counter;
+import org.eclipse.microprofile.metrics.MetricID;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.Tag;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.smallrye.metrics.MetricsRegistryImpl;
+
+/**
+ * Looking up an existing counter by name and tags, which is served from the registry's lookup key cache,
+ * compared to looking it up by a {@link MetricID} built for each call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class RegistryLookupBenchmark {
+
+    // number of other metrics in the registry
+    @Param({ "0", "10000" })
+    int otherMetrics;
+
+    private MetricsRegistryImpl registry;
+
+    private Tag[] tags;
+
+    @Setup
+    public void setUp() {
+        registry = new MetricsRegistryImpl(MetricRegistry.Type.APPLICATION);
+        for (int i = 0; i < otherMetrics; i++) {
+            registry.counter("other", new Tag("index", Integer.toString(i)));
+        }
+        tags = new Tag[] { new Tag("method", "GET"), new Tag("status", "200") };
+        registry.counter("requests", tags);
+    }
+
+    @Benchmark
+    public Counter byNameAndTags() {
+        return registry.counter("requests", tags);
+    }
+
+    @Benchmark
+    public Counter byMetricID() {
+        return registry.counter(new MetricID("requests", tags));
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.smallrye.metrics.benchmarks;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.microprofile.metrics.Snapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.smallrye.metrics.app.ExponentiallyDecayingReservoir;
+import io.smallrye.metrics.app.Reservoir;
+
+/**
+ * Concurrent updates of an {@link ExponentiallyDecayingReservoir}, compared with the
+ * {@link LegacyExponentiallyDecayingReservoir} it replaced, with and without a thread taking snapshots at the same
+ * time. The number of threads is set on the command line, for example {@code -t 1}, {@code -t 8} and {@code -t 64}
+ * for {@code update}, and {@code -tg 8,1} for the {@code updatesWithSnapshots} group. Run with {@code -prof gc} to
+ * see the allocation rate of the update path.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReservoirUpdateBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class SharedReservoir {
+
+        @Param({ "current", "legacy" })
+        public String implementation;
+
+        Reservoir reservoir;
+
+        @Setup
+        public void setUp() {
+            reservoir = newReservoir(implementation);
+        }
+    }
+
+    @State(Scope.Group)
+    public static class GroupReservoir {
+
+        @Param({ "current", "legacy" })
+        public String implementation;
+
+        Reservoir reservoir;
+
+        @Setup
+        public void setUp() {
+            reservoir = newReservoir(implementation);
+        }
+    }
+
+    static Reservoir newReservoir(String implementation) {
+        switch (implementation) {
+            case "current":
+                return new ExponentiallyDecayingReservoir();
+            case "legacy":
+                return new LegacyExponentiallyDecayingReservoir();
+            default:
+                throw new IllegalArgumentException("Unknown implementation: " + implementation);
+        }
+    }
+
+    @Benchmark
+    public void update(SharedReservoir state) {
+        state.reservoir.update(ThreadLocalRandom.current().nextLong(1_000_000));
+    }
+
+    @Benchmark
+    @Group("updatesWithSnapshots")
+    public void updateWhileSnapshotting(GroupReservoir state) {
+        state.reservoir.update(ThreadLocalRandom.current().nextLong(1_000_000));
+    }
+
+    @Benchmark
+    @Group("updatesWithSnapshots")
+    public Snapshot snapshot(GroupReservoir state) {
+        return state.reservoir.getSnapshot();
+    }
+}
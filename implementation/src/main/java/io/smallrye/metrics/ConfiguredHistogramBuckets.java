@@ -0,0 +1,177 @@
+/*
+ * Copyright 2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.smallrye.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.ConfigProvider;
+import org.eclipse.microprofile.metrics.Metadata;
+import org.eclipse.microprofile.metrics.MetricType;
+
+import io.smallrye.metrics.app.ExemplarSampler;
+import io.smallrye.metrics.app.ExemplarSupplier;
+import io.smallrye.metrics.app.HistogramBuckets;
+
+/**
+ * Creates the histogram buckets configured for metric name patterns, for example
+ *
+ * <pre>
+ * smallrye.metrics.histogram.buckets."com.acme.*"=0.005,0.01,0.05,0.1,0.5,1
+ * </pre>
+ *
+ * A pattern is a metric name in which {@code *} matches any sequence of characters. If several patterns match
+ * a name, the longest one is used. The upper bounds of the buckets of timers and simple timers are in seconds, those of
+ * histograms are in the unit of the histogram and are rounded down to whole numbers, as histograms record whole
+ * numbers. Metrics with buckets are exported as OpenMetrics histograms instead of summaries.
+ * <p>
+ * If an {@link ExemplarSupplier} is registered through the {@link ServiceLoader} mechanism, the buckets also keep
+ * exemplars, sampled at most once per bucket and {@value #SMALLRYE_METRICS_EXEMPLARS_SAMPLING_INTERVAL} milliseconds
+ * (1000 by default). Exemplars older than {@value #SMALLRYE_METRICS_EXEMPLARS_MAX_AGE} milliseconds (60000 by default)
+ * are no longer exported.
+ */
+final class ConfiguredHistogramBuckets {
+
+    static final String SMALLRYE_METRICS_HISTOGRAM_BUCKETS = "smallrye.metrics.histogram.buckets.";
+
+    static final String SMALLRYE_METRICS_EXEMPLARS_SAMPLING_INTERVAL = "smallrye.metrics.exemplars.samplingInterval";
+
+    static final String SMALLRYE_METRICS_EXEMPLARS_MAX_AGE = "smallrye.metrics.exemplars.maxAge";
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+    private static final long DEFAULT_SAMPLING_INTERVAL_MILLIS = 1000;
+    private static final long DEFAULT_EXEMPLAR_MAX_AGE_MILLIS = 60_000;
+
+    static final ConfiguredHistogramBuckets NONE = new ConfiguredHistogramBuckets(new HashMap<>());
+
+    // ordered from the most to the least specific pattern
+    private final List<Rule> rules;
+
+    // null if exemplars are not sampled
+    private final ExemplarSampler exemplarSampler;
+
+    /**
+     * @param properties the bucket properties by their full name, other properties are ignored
+     */
+    ConfiguredHistogramBuckets(Map<String, String> properties) {
+        this(properties, null);
+    }
+
+    /**
+     * @param properties the bucket properties by their full name, other properties are ignored
+     * @param exemplarSampler samples the exemplars of the buckets, or {@code null}
+     */
+    ConfiguredHistogramBuckets(Map<String, String> properties, ExemplarSampler exemplarSampler) {
+        this.exemplarSampler = exemplarSampler;
+        this.rules = new ArrayList<>();
+        for (Map.Entry<String, String> property : properties.entrySet()) {
+            String name = property.getKey();
+            if (!name.startsWith(SMALLRYE_METRICS_HISTOGRAM_BUCKETS)) {
+                continue;
+            }
+            String pattern = name.substring(SMALLRYE_METRICS_HISTOGRAM_BUCKETS.length());
+            if (pattern.length() > 1 && pattern.startsWith("\"") && pattern.endsWith("\"")) {
+                pattern = pattern.substring(1, pattern.length() - 1);
+            }
+            rules.add(new Rule(pattern, property.getValue()));
+        }
+        rules.sort(Comparator.comparingInt((Rule rule) -> rule.pattern.length()).reversed());
+    }
+
+    static ConfiguredHistogramBuckets fromConfig() {
+        try {
+            Config config = ConfigProvider.getConfig();
+            Map<String, String> properties = new HashMap<>();
+            for (String name : config.getPropertyNames()) {
+                if (name.startsWith(SMALLRYE_METRICS_HISTOGRAM_BUCKETS)) {
+                    config.getOptionalValue(name, String.class).ifPresent(value -> properties.put(name, value));
+                }
+            }
+            if (properties.isEmpty()) {
+                return NONE;
+            }
+            long samplingInterval = config.getOptionalValue(SMALLRYE_METRICS_EXEMPLARS_SAMPLING_INTERVAL, Long.class)
+                    .orElse(DEFAULT_SAMPLING_INTERVAL_MILLIS);
+            long maxAge = config.getOptionalValue(SMALLRYE_METRICS_EXEMPLARS_MAX_AGE, Long.class)
+                    .orElse(DEFAULT_EXEMPLAR_MAX_AGE_MILLIS);
+            return new ConfiguredHistogramBuckets(properties, loadExemplarSampler(samplingInterval, maxAge));
+        } catch (IllegalStateException | ExceptionInInitializerError | NoClassDefFoundError t) {
+            // MP Config implementation is probably not available
+            return NONE;
+        }
+    }
+
+    private static ExemplarSampler loadExemplarSampler(long samplingIntervalMillis, long maxAgeMillis) {
+        Iterator<ExemplarSupplier> suppliers = ServiceLoader.load(ExemplarSupplier.class).iterator();
+        return suppliers.hasNext()
+                ? new ExemplarSampler(suppliers.next(), samplingIntervalMillis, maxAgeMillis, TimeUnit.MILLISECONDS)
+                : null;
+    }
+
+    /**
+     * @return new buckets for the histogram, timer or simple timer described by the metadata, or {@code null} if no
+     *         buckets are configured for it
+     */
+    HistogramBuckets create(Metadata metadata) {
+        String name = metadata.getName();
+        for (Rule rule : rules) {
+            if (rule.regex.matcher(name).matches()) {
+                return new HistogramBuckets(exemplarSampler, rule.toUpperBounds(metadata.getTypeRaw()));
+            }
+        }
+        return null;
+    }
+
+    private static final class Rule {
+
+        private final String pattern;
+        private final Pattern regex;
+        private final double[] upperBounds;
+
+        Rule(String pattern, String value) {
+            this.pattern = pattern;
+            this.regex = ConfiguredReservoirFactory.toRegex(pattern);
+            String[] parts = value.split(",");
+            this.upperBounds = new double[parts.length];
+            try {
+                for (int i = 0; i < parts.length; i++) {
+                    upperBounds[i] = Double.parseDouble(parts[i].trim());
+                }
+            } catch (NumberFormatException e) {
+                throw SmallRyeMetricsMessages.msg.invalidHistogramBuckets(value, pattern);
+            }
+        }
+
+        long[] toUpperBounds(MetricType type) {
+            long[] out = new long[upperBounds.length];
+            for (int i = 0; i < upperBounds.length; i++) {
+                out[i] = type == MetricType.HISTOGRAM ? (long) Math.floor(upperBounds[i])
+                        : Math.round(upperBounds[i] * NANOS_PER_SECOND);
+            }
+            return out;
+        }
+    }
+
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright 2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.smallrye.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.ConfigProvider;
+import org.eclipse.microprofile.metrics.Metadata;
+
+import io.smallrye.metrics.app.Clock;
+import io.smallrye.metrics.app.DDSketchReservoir;
+import io.smallrye.metrics.app.ExponentiallyDecayingReservoir;
+import io.smallrye.metrics.app.LogLinearReservoir;
+import io.smallrye.metrics.app.Reservoir;
+import io.smallrye.metrics.app.ReservoirFactory;
+import io.smallrye.metrics.app.SlidingTimeWindowReservoir;
+import io.smallrye.metrics.app.UniformReservoir;
+
+/**
+ * Creates the reservoirs configured for metric name patterns, for example
+ *
+ * <pre>
+ * smallrye.metrics.reservoir."com.acme.*".type=sliding-window
+ * smallrye.metrics.reservoir."com.acme.*".window=30
+ * </pre>
+ *
+ * A pattern is a metric name in which {@code *} matches any sequence of characters. If several patterns match
+ * a name, the longest one is used. The supported types and their parameters are
+ * <ul>
+ * <li>{@code edr}: {@link ExponentiallyDecayingReservoir} with {@code size} and {@code alpha}</li>
+ * <li>{@code uniform}: {@link UniformReservoir} with {@code size}</li>
+ * <li>{@code sliding-window}: {@link SlidingTimeWindowReservoir} with {@code window} in seconds, {@code subWindows}
+ * and {@code precision} in significant digits</li>
+ * <li>{@code log-linear}: {@link LogLinearReservoir} with {@code precision} in significant digits</li>
+ * <li>{@code ddsketch}: {@link DDSketchReservoir} with {@code accuracy}, the relative accuracy of the quantiles</li>
+ * </ul>
+ * Parameters that are not set keep the defaults of the reservoir.
+ */
+final class ConfiguredReservoirFactory implements ReservoirFactory {
+
+    static final String SMALLRYE_METRICS_RESERVOIR = "smallrye.metrics.reservoir.";
+
+    static final String TYPE_EDR = "edr";
+    static final String TYPE_UNIFORM = "uniform";
+    static final String TYPE_SLIDING_WINDOW = "sliding-window";
+    static final String TYPE_LOG_LINEAR = "log-linear";
+    static final String TYPE_DDSKETCH = "ddsketch";
+
+    private static final String KNOWN_TYPES = String.join(", ", TYPE_EDR, TYPE_UNIFORM, TYPE_SLIDING_WINDOW,
+            TYPE_LOG_LINEAR, TYPE_DDSKETCH);
+
+    private static final int DEFAULT_SIZE = 1028;
+    private static final double DEFAULT_ALPHA = 0.015;
+    private static final long DEFAULT_WINDOW_SECONDS = 60;
+    private static final int DEFAULT_SUB_WINDOWS = 6;
+    private static final int DEFAULT_PRECISION = 2;
+    private static final double DEFAULT_ACCURACY = 0.01;
+    private static final double MIN_ACCURACY = 0.0001;
+    private static final long HIGHEST_TRACKABLE_VALUE = TimeUnit.HOURS.toNanos(1);
+
+    static final ConfiguredReservoirFactory NONE = new ConfiguredReservoirFactory(new HashMap<>());
+
+    // ordered from the most to the least specific pattern
+    private final List<Rule> rules;
+
+    /**
+     * @param properties the reservoir properties by their full name, other properties are ignored
+     */
+    ConfiguredReservoirFactory(Map<String, String> properties) {
+        Map<String, Map<String, String>> parametersByPattern = new HashMap<>();
+        for (Map.Entry<String, String> property : properties.entrySet()) {
+            String name = property.getKey();
+            if (!name.startsWith(SMALLRYE_METRICS_RESERVOIR)) {
+                continue;
+            }
+            String rest = name.substring(SMALLRYE_METRICS_RESERVOIR.length());
+            String pattern;
+            String parameter;
+            if (rest.startsWith("\"")) {
+                int end = rest.indexOf('"', 1);
+                if (end < 0 || end + 2 > rest.length() || rest.charAt(end + 1) != '.') {
+                    continue;
+                }
+                pattern = rest.substring(1, end);
+                parameter = rest.substring(end + 2);
+            } else {
+                int dot = rest.lastIndexOf('.');
+                if (dot <= 0) {
+                    continue;
+                }
+                pattern = rest.substring(0, dot);
+                parameter = rest.substring(dot + 1);
+            }
+            parametersByPattern.computeIfAbsent(pattern, p -> new HashMap<>()).put(parameter, property.getValue());
+        }
+
+        this.rules = new ArrayList<>(parametersByPattern.size());
+        parametersByPattern.forEach((pattern, parameters) -> rules.add(new Rule(pattern, parameters)));
+        rules.sort(Comparator.comparingInt((Rule rule) -> rule.pattern.length()).reversed());
+    }
+
+    static ConfiguredReservoirFactory fromConfig() {
+        try {
+            Config config = ConfigProvider.getConfig();
+            Map<String, String> properties = new HashMap<>();
+            for (String name : config.getPropertyNames()) {
+                if (name.startsWith(SMALLRYE_METRICS_RESERVOIR)) {
+                    config.getOptionalValue(name, String.class).ifPresent(value -> properties.put(name, value));
+                }
+            }
+            return properties.isEmpty() ? NONE : new ConfiguredReservoirFactory(properties);
+        } catch (IllegalStateException | ExceptionInInitializerError | NoClassDefFoundError t) {
+            // MP Config implementation is probably not available
+            return NONE;
+        }
+    }
+
+    @Override
+    public Reservoir create(Metadata metadata) {
+        String name = metadata.getName();
+        for (Rule rule : rules) {
+            if (rule.regex.matcher(name).matches()) {
+                return rule.create();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Converts a metric name pattern, in which {@code *} matches any sequence of characters, to a regular expression.
+     */
+    static Pattern toRegex(String pattern) {
+        StringBuilder regex = new StringBuilder();
+        int start = 0;
+        int star;
+        while ((star = pattern.indexOf('*', start)) >= 0) {
+            if (star > start) {
+                regex.append(Pattern.quote(pattern.substring(start, star)));
+            }
+            regex.append(".*");
+            start = star + 1;
+        }
+        if (start < pattern.length()) {
+            regex.append(Pattern.quote(pattern.substring(start)));
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    private static final class Rule {
+
+        private final String pattern;
+        private final Pattern regex;
+        private final String type;
+        private final int size;
+        private final double alpha;
+        private final long windowSeconds;
+        private final int subWindows;
+        private final int precision;
+        private final double accuracy;
+
+        Rule(String pattern, Map<String, String> parameters) {
+            this.pattern = pattern;
+            this.regex = toRegex(pattern);
+            this.type = parameters.getOrDefault("type", TYPE_EDR).trim();
+            if (!type.equals(TYPE_EDR) && !type.equals(TYPE_UNIFORM) && !type.equals(TYPE_SLIDING_WINDOW)
+                    && !type.equals(TYPE_LOG_LINEAR) && !type.equals(TYPE_DDSKETCH)) {
+                throw SmallRyeMetricsMessages.msg.unknownReservoirType(type, pattern, KNOWN_TYPES);
+            }
+            this.size = parameters.containsKey("size") ? Integer.parseInt(parameters.get("size").trim()) : DEFAULT_SIZE;
+            this.alpha = parameters.containsKey("alpha") ? Double.parseDouble(parameters.get("alpha").trim())
+                    : DEFAULT_ALPHA;
+            this.windowSeconds = parameters.containsKey("window") ? Long.parseLong(parameters.get("window").trim())
+                    : DEFAULT_WINDOW_SECONDS;
+            this.subWindows = parameters.containsKey("subWindows")
+                    ? Integer.parseInt(parameters.get("subWindows").trim())
+                    : DEFAULT_SUB_WINDOWS;
+            this.precision = parameters.containsKey("precision") ? Integer.parseInt(parameters.get("precision").trim())
+                    : DEFAULT_PRECISION;
+            this.accuracy = parameters.containsKey("accuracy") ? Double.parseDouble(parameters.get("accuracy").trim())
+                    : DEFAULT_ACCURACY;
+            // fail on invalid parameters when the configuration is read rather than when a metric is created
+            validate();
+        }
+
+        /**
+         * Checks the parameters used by the type of this rule against the bounds enforced by the reservoir.
+         */
+        private void validate() {
+            switch (type) {
+                case TYPE_UNIFORM:
+                    check("size", size, size >= 1);
+                    break;
+                case TYPE_SLIDING_WINDOW:
+                    check("window", windowSeconds, windowSeconds >= 1);
+                    check("subWindows", subWindows,
+                            subWindows >= 1 && subWindows <= TimeUnit.SECONDS.toNanos(windowSeconds));
+                    check("precision", precision, precision >= 1 && precision <= 3);
+                    break;
+                case TYPE_LOG_LINEAR:
+                    check("precision", precision, precision >= 1 && precision <= 3);
+                    break;
+                case TYPE_DDSKETCH:
+                    check("accuracy", accuracy, accuracy >= MIN_ACCURACY && accuracy < 1);
+                    break;
+                case TYPE_EDR:
+                default:
+                    check("size", size, size >= 1);
+                    check("alpha", alpha, alpha > 0 && !Double.isInfinite(alpha));
+            }
+        }
+
+        private void check(String parameter, Object value, boolean valid) {
+            if (!valid) {
+                throw SmallRyeMetricsMessages.msg.invalidReservoirParameter(parameter, value, pattern);
+            }
+        }
+
+        Reservoir create() {
+            switch (type) {
+                case TYPE_UNIFORM:
+                    return new UniformReservoir(size);
+                case TYPE_SLIDING_WINDOW:
+                    return new SlidingTimeWindowReservoir(windowSeconds, TimeUnit.SECONDS, subWindows, precision,
+                            HIGHEST_TRACKABLE_VALUE, Clock.defaultClock());
+                case TYPE_LOG_LINEAR:
+                    return new LogLinearReservoir(precision, HIGHEST_TRACKABLE_VALUE);
+                case TYPE_DDSKETCH:
+                    return new DDSketchReservoir(accuracy);
+                case TYPE_EDR:
+                default:
+                    return new ExponentiallyDecayingReservoir(size, alpha);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.smallrye.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.microprofile.metrics.ConcurrentGauge;
+import org.eclipse.microprofile.metrics.Counter;
+import org.eclipse.microprofile.metrics.Counting;
+import org.eclipse.microprofile.metrics.Metric;
+import org.eclipse.microprofile.metrics.MetricID;
+
+import io.smallrye.metrics.app.Clock;
+
+/**
+ * Periodically removes tagged series from a registry that haven't been updated for a configured amount of time,
+ * see {@link SeriesLimits#SMALLRYE_METRICS_SERIES_IDLE_TIMEOUT}.
+ * <p>
+ * Nothing is tracked on the update path. Instead, each sweep reads the count of every candidate series and
+ * remembers since when it has not changed. Only series created programmatically with at least one tag are candidates;
+ * metrics that are declared through annotations or injection points, and gauges, are never removed.
+ * <p>
+ * The registries share one background thread, which is started with the first sweeping and stopped when the last one
+ * is stopped, that is when the last registry that uses it has been dropped.
+ */
+final class IdleSeriesEvictor implements Runnable {
+
+    private static final long NOT_EVICTABLE = Long.MIN_VALUE;
+
+    // guarded by the class
+    private static ScheduledThreadPoolExecutor executor;
+    private static int sweepings;
+
+    private final MetricsRegistryImpl registry;
+    private final long idleTimeoutNanos;
+    private final Clock clock;
+
+    // only accessed by the sweeping thread
+    private Map<MetricID, Activity> activity = new HashMap<>();
+
+    IdleSeriesEvictor(MetricsRegistryImpl registry, long idleTimeoutNanos, Clock clock) {
+        this.registry = registry;
+        this.idleTimeoutNanos = idleTimeoutNanos;
+        this.clock = clock;
+    }
+
+    /**
+     * Starts sweeping the given registry in the background, at half the idle timeout.
+     *
+     * @return the sweeping, to be passed to {@link #stop(ScheduledFuture)} when the registry is dropped
+     */
+    static synchronized ScheduledFuture<?> start(MetricsRegistryImpl registry, long idleTimeoutSeconds) {
+        IdleSeriesEvictor evictor = new IdleSeriesEvictor(registry, TimeUnit.SECONDS.toNanos(idleTimeoutSeconds),
+                Clock.defaultClock());
+        long period = Math.max(1, TimeUnit.SECONDS.toMillis(idleTimeoutSeconds) / 2);
+        if (executor == null) {
+            executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+                Thread thread = new Thread(runnable, "smallrye-metrics-idle-series-evictor");
+                thread.setDaemon(true);
+                return thread;
+            });
+            // so that a stopped sweeping doesn't keep its registry reachable until its next run would have been due
+            executor.setRemoveOnCancelPolicy(true);
+        }
+        sweepings++;
+        return executor.scheduleWithFixedDelay(evictor, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops a sweeping started by {@link #start(MetricsRegistryImpl, long)}, and the background thread if it was the
+     * last one.
+     */
+    static synchronized void stop(ScheduledFuture<?> sweeping) {
+        sweeping.cancel(false);
+        if (--sweepings == 0) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+
+    static synchronized boolean isRunning() {
+        return executor != null;
+    }
+
+    @Override
+    public void run() {
+        try {
+            sweep(registry);
+        } catch (RuntimeException e) {
+            // an exception would suppress all further runs
+            SmallRyeMetricsLogging.log.idleSeriesSweepFailed(e);
+        }
+    }
+
+    void sweep(MetricsRegistryImpl registry) {
+        long now = clock.getTick();
+        RegistrySnapshot snapshot = registry.getSnapshot();
+        Map<MetricID, Activity> stillActive = new HashMap<>();
+        for (int i = 0; i < snapshot.size(); i++) {
+            MetricID metricID = snapshot.getMetricID(i);
+            Metric metric = snapshot.getMetric(i);
+            if (metricID.getTags().isEmpty() || registry.hasOrigin(metricID)) {
+                continue;
+            }
+            long count = activityCount(metric);
+            if (count == NOT_EVICTABLE) {
+                continue;
+            }
+            Activity previous = activity.get(metricID);
+            if (previous == null || previous.metric != metric || previous.count != count) {
+                stillActive.put(metricID, new Activity(metric, count, now));
+            } else if (now - previous.since >= idleTimeoutNanos) {
+                if (registry.removeIdle(metricID, metric)) {
+                    SmallRyeMetricsLogging.log.removingIdleMetric(metricID);
+                }
+            } else {
+                stillActive.put(metricID, previous);
+            }
+        }
+        activity = stillActive;
+    }
+
+    /**
+     * Returns a value that changes whenever the metric is updated, or {@link #NOT_EVICTABLE}.
+     */
+    private long activityCount(Metric metric) {
+        if (metric instanceof ConcurrentGauge) {
+            ConcurrentGauge concurrentGauge = (ConcurrentGauge) metric;
+            // the gauge is in use as long as there is something in progress, or there was in the previous minute
+            if (concurrentGauge.getCount() != 0 || concurrentGauge.getMax() != 0) {
+                return clock.getTick();
+            }
+            return 0;
+        } else if (metric instanceof Counting) {
+            return ((Counting) metric).getCount();
+        } else if (metric instanceof Counter) {
+            return ((Counter) metric).getCount();
+        }
+        return NOT_EVICTABLE;
+    }
+
+    private static final class Activity {
+
+        private final Metric metric;
+        private final long count;
+        // when the count was last seen changing
+        private final long since;
+
+        Activity(Metric metric, long count, long since) {
+            this.metric = metric;
+            this.count = count;
+            this.since = since;
+        }
+    }
+
+}
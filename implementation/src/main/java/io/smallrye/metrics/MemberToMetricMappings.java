@@ -17,15 +17,28 @@
 
 package io.smallrye.metrics;
 
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Member;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
 
+import org.eclipse.microprofile.metrics.ConcurrentGauge;
+import org.eclipse.microprofile.metrics.Counter;
+import org.eclipse.microprofile.metrics.Meter;
+import org.eclipse.microprofile.metrics.Metric;
 import org.eclipse.microprofile.metrics.MetricID;
+import org.eclipse.microprofile.metrics.MetricRegistry;
 import org.eclipse.microprofile.metrics.MetricType;
+import org.eclipse.microprofile.metrics.SimpleTimer;
+import org.eclipse.microprofile.metrics.Timer;
 
 import io.smallrye.metrics.elementdesc.MemberInfo;
+import io.smallrye.metrics.elementdesc.adapter.cdi.CDIMemberInfoAdapter;
 
 /**
  * This class represents mappings between Java methods and the set of metric IDs
@@ -35,23 +48,46 @@ import io.smallrye.metrics.elementdesc.MemberInfo;
  * This class does NOT use thread-safe map implementations, so populating the mappings
  * must only be performed by one thread. Querying the mappings later at runtime can be done
  * concurrently.
+ *
+ * On top of the ID mappings, the interceptors obtain the actual metric instances for a member
+ * through the {@code getResolved*} methods. These resolve the member against the registry on first
+ * invocation and cache the resulting array, so that subsequent invocations don't need to look anything up
+ * in the registry. The cached arrays are discarded whenever a mapping changes or a metric is removed
+ * from (or replaced in) the registry, see {@link #invalidateResolvedMetrics()}.
  */
 public class MemberToMetricMappings {
 
-    MemberToMetricMappings() {
+    MemberToMetricMappings(MetricRegistry registry) {
+        this.registry = registry;
         counters = new HashMap<>();
         concurrentGauges = new HashMap<>();
         meters = new HashMap<>();
         timers = new HashMap<>();
         simpleTimers = new HashMap<>();
+        resolvedCounters = new ConcurrentHashMap<>();
+        resolvedConcurrentGauges = new ConcurrentHashMap<>();
+        resolvedMeters = new ConcurrentHashMap<>();
+        resolvedTimers = new ConcurrentHashMap<>();
+        resolvedSimpleTimers = new ConcurrentHashMap<>();
     }
 
+    private final MetricRegistry registry;
+
     private final Map<MemberInfo, Set<MetricID>> counters;
     private final Map<MemberInfo, Set<MetricID>> concurrentGauges;
     private final Map<MemberInfo, Set<MetricID>> meters;
     private final Map<MemberInfo, Set<MetricID>> timers;
     private final Map<MemberInfo, Set<MetricID>> simpleTimers;
 
+    private final Map<Member, ResolvedMetrics<Counter>> resolvedCounters;
+    private final Map<Member, ResolvedMetrics<ConcurrentGauge>> resolvedConcurrentGauges;
+    private final Map<Member, ResolvedMetrics<Meter>> resolvedMeters;
+    private final Map<Member, ResolvedMetrics<Timer>> resolvedTimers;
+    private final Map<Member, ResolvedMetrics<SimpleTimer>> resolvedSimpleTimers;
+
+    // incremented on every invalidation, cached arrays resolved under an older generation are ignored
+    private final AtomicLong generation = new AtomicLong();
+
     public Set<MetricID> getCounters(MemberInfo member) {
         return counters.get(member);
     }
@@ -72,6 +108,67 @@ public class MemberToMetricMappings {
         return simpleTimers.get(member);
     }
 
+    public <E extends Member & AnnotatedElement> Counter[] getResolvedCounters(E element) {
+        return resolve(element, MetricType.COUNTER, counters, resolvedCounters, Counter[]::new);
+    }
+
+    public <E extends Member & AnnotatedElement> ConcurrentGauge[] getResolvedConcurrentGauges(E element) {
+        return resolve(element, MetricType.CONCURRENT_GAUGE, concurrentGauges, resolvedConcurrentGauges,
+                ConcurrentGauge[]::new);
+    }
+
+    public <E extends Member & AnnotatedElement> Meter[] getResolvedMeters(E element) {
+        return resolve(element, MetricType.METERED, meters, resolvedMeters, Meter[]::new);
+    }
+
+    public <E extends Member & AnnotatedElement> Timer[] getResolvedTimers(E element) {
+        return resolve(element, MetricType.TIMER, timers, resolvedTimers, Timer[]::new);
+    }
+
+    public <E extends Member & AnnotatedElement> SimpleTimer[] getResolvedSimpleTimers(E element) {
+        return resolve(element, MetricType.SIMPLE_TIMER, simpleTimers, resolvedSimpleTimers, SimpleTimer[]::new);
+    }
+
+    /**
+     * Discards all metric instances cached by the {@code getResolved*} methods. Needs to be called whenever
+     * a metric that might be mapped to a member is removed from the registry or replaced by another instance.
+     */
+    public void invalidateResolvedMetrics() {
+        generation.incrementAndGet();
+        resolvedCounters.clear();
+        resolvedConcurrentGauges.clear();
+        resolvedMeters.clear();
+        resolvedTimers.clear();
+        resolvedSimpleTimers.clear();
+    }
+
+    private <E extends Member & AnnotatedElement, T extends Metric> T[] resolve(E element, MetricType metricType,
+            Map<MemberInfo, Set<MetricID>> mappings, Map<Member, ResolvedMetrics<T>> cache, IntFunction<T[]> arrayFactory) {
+        final long currentGeneration = generation.get();
+        ResolvedMetrics<T> resolved = cache.get(element);
+        if (resolved != null && resolved.generation == currentGeneration) {
+            return resolved.metrics;
+        }
+
+        Set<MetricID> ids = mappings.get(new CDIMemberInfoAdapter<>().convert(element));
+        if (ids == null || ids.isEmpty()) {
+            throw SmallRyeMetricsMessages.msg.noMetricMappedForMember(element);
+        }
+        T[] metrics = arrayFactory.apply(ids.size());
+        Class<?> metricClass = metrics.getClass().getComponentType();
+        int i = 0;
+        for (MetricID metricID : ids) {
+            Metric metric = registry.getMetric(metricID);
+            // a metric of a different type registered under the mapped ID is treated like a missing one
+            if (!metricClass.isInstance(metric)) {
+                throw SmallRyeMetricsMessages.msg.noMetricFoundInRegistry(metricType, metricID);
+            }
+            metrics[i++] = (T) metric;
+        }
+        cache.put(element, new ResolvedMetrics<>(currentGeneration, metrics));
+        return metrics;
+    }
+
     public void addMetric(MemberInfo member, MetricID metricID, MetricType metricType) {
         switch (metricType) {
             case COUNTER:
@@ -93,6 +190,7 @@ public class MemberToMetricMappings {
                 throw SmallRyeMetricsMessages.msg.unknownMetricType();
         }
         SmallRyeMetricsLogging.log.matchingMemberToMetric(member, metricID, metricType);
+        invalidateResolvedMetrics();
     }
 
     public void removeMappingsFor(MemberInfo member, MetricID metricID) {
@@ -101,6 +199,7 @@ public class MemberToMetricMappings {
         removeMapping(meters, member, metricID);
         removeMapping(timers, member, metricID);
         removeMapping(simpleTimers, member, metricID);
+        invalidateResolvedMetrics();
     }
 
     private void removeMapping(Map<MemberInfo, Set<MetricID>> map, MemberInfo member, MetricID metricID) {
@@ -108,4 +207,15 @@ public class MemberToMetricMappings {
             map.get(member).remove(metricID);
         }
     }
+
+    private static class ResolvedMetrics<T extends Metric> {
+
+        private final long generation;
+        private final T[] metrics;
+
+        ResolvedMetrics(long generation, T[] metrics) {
+            this.generation = generation;
+            this.metrics = metrics;
+        }
+    }
 }
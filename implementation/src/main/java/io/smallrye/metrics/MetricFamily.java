@@ -0,0 +1,193 @@
+/*
+ * Copyright 2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.smallrye.metrics;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.eclipse.microprofile.metrics.Metric;
+import org.eclipse.microprofile.metrics.MetricID;
+import org.eclipse.microprofile.metrics.Tag;
+
+/**
+ * A group of metrics of the same type that share a name and the names of their tags, and only differ in the tag values.
+ * The metric for a particular combination of tag values is obtained using {@link #labels(String...)}:
+ *
+ * <pre>
+ * MetricFamily&lt;Counter&gt; requests = registry.counterFamily("requests", "method", "status");
+ * requests.labels("GET", "200").inc();
+ * </pre>
+ *
+ * Once a metric has been obtained for some tag values, further calls with the same values are served from a cache
+ * held by the family. The returned metric can also be kept by the caller and updated directly.
+ * It is a regular metric of the registry, so if it is removed from the registry, it stops being exported,
+ * the family drops it from its cache and creates a new one on the next call to {@link #labels(String...)}.
+ *
+ * @param <T> the type of the metrics in this family
+ */
+public final class MetricFamily<T extends Metric> {
+
+    private static final ThreadLocal<TagValues> LOOKUP_PROBE = ThreadLocal.withInitial(TagValues::new);
+
+    private final MetricsRegistryImpl registry;
+    private final String name;
+    private final String[] tagNames;
+    private final Function<Tag[], T> factory;
+    private final Map<TagValues, T> children = new ConcurrentHashMap<>();
+
+    MetricFamily(MetricsRegistryImpl registry, String name, String[] tagNames, Function<Tag[], T> factory) {
+        if (name == null || name.isEmpty()) {
+            throw SmallRyeMetricsMessages.msg.metricNameMustNotBeNullOrEmpty();
+        }
+        this.registry = registry;
+        this.name = name;
+        this.tagNames = tagNames.clone();
+        this.factory = factory;
+        registry.addFamily(this);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<String> getTagNames() {
+        return Collections.unmodifiableList(Arrays.asList(tagNames));
+    }
+
+    /**
+     * Returns the metric of this family with the given tag values, registering it if needed.
+     *
+     * @param tagValues values of the tags, in the same order as the tag names of this family
+     * @throws IllegalArgumentException if the number of values doesn't match the number of tag names
+     */
+    public T labels(String... tagValues) {
+        checkTagValues(tagValues);
+        TagValues probe = LOOKUP_PROBE.get().probe(tagValues);
+        T child = children.get(probe);
+        probe.clear();
+        if (child != null) {
+            return child;
+        }
+
+        Tag[] tags = toTags(tagValues);
+        T metric = factory.apply(tags);
+        TagValues key = TagValues.of(tagValues);
+        children.put(key, metric);
+        // checked after caching, a removal that happens in between either sees the child or is seen here
+        if (registry.getMetric(new MetricID(name, tags)) != metric) {
+            // removed in the meantime, or folded into an overflow series or not registered because of the series
+            // limits, caching it would let the children grow without bounds
+            children.remove(key, metric);
+        }
+        return metric;
+    }
+
+    /**
+     * Removes the metric with the given tag values from the registry.
+     *
+     * @return true if the metric existed
+     */
+    public boolean remove(String... tagValues) {
+        checkTagValues(tagValues);
+        children.remove(TagValues.of(tagValues));
+        return registry.remove(new MetricID(name, toTags(tagValues)));
+    }
+
+    /**
+     * Called by the registry when a metric with the name of this family has been removed, so that the family doesn't
+     * keep the removed instance reachable.
+     */
+    void metricRemoved(MetricID metricID, Metric metric) {
+        // the ID may have more tags than the family, such as the global tags, the instance tells if it's a child
+        Map<String, String> tags = metricID.getTags();
+        String[] tagValues = new String[tagNames.length];
+        for (int i = 0; i < tagNames.length; i++) {
+            tagValues[i] = tags.get(tagNames[i]);
+            if (tagValues[i] == null) {
+                return;
+            }
+        }
+        children.remove(TagValues.of(tagValues), metric);
+    }
+
+    /**
+     * Returns the metric cached by this family for the given tag values, or null if there is none.
+     */
+    T getCachedChild(String... tagValues) {
+        return children.get(TagValues.of(tagValues));
+    }
+
+    private void checkTagValues(String[] tagValues) {
+        if (tagValues.length != tagNames.length) {
+            throw SmallRyeMetricsMessages.msg.tagValueCountMismatch(name, tagNames.length, tagValues.length);
+        }
+    }
+
+    private Tag[] toTags(String[] tagValues) {
+        Tag[] tags = new Tag[tagNames.length];
+        for (int i = 0; i < tags.length; i++) {
+            tags[i] = new Tag(tagNames[i], tagValues[i]);
+        }
+        return tags;
+    }
+
+    /**
+     * Tag values as a map key. A mutable instance is used for probing the map without copying the values.
+     */
+    private static final class TagValues {
+
+        private String[] values;
+        private int hash;
+
+        static TagValues of(String[] values) {
+            return new TagValues().probe(values.clone());
+        }
+
+        TagValues probe(String[] values) {
+            this.values = values;
+            this.hash = Arrays.hashCode(values);
+            return this;
+        }
+
+        void clear() {
+            values = null;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TagValues)) {
+                return false;
+            }
+            TagValues other = (TagValues) o;
+            return hash == other.hash && Arrays.equals(values, other.values);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+}
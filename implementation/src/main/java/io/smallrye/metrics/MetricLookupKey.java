@@ -0,0 +1,108 @@
+/*
+ * Copyright 2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.smallrye.metrics;
+
+import java.util.Objects;
+
+import org.eclipse.microprofile.metrics.Tag;
+
+/**
+ * Key identifying a metric by its name and its tags exactly as they were passed by the caller, unlike
+ * {@link org.eclipse.microprofile.metrics.MetricID} which has to sort the tags into a map first.
+ * The same metric can therefore be reachable by multiple keys, if it's looked up with the tags in a different order.
+ * <p>
+ * Instances stored in a map are immutable. A mutable instance can be used to probe a map
+ * without allocating anything, see {@link #probe(String, Tag[])}.
+ */
+final class MetricLookupKey {
+
+    private static final Tag[] NO_TAGS = new Tag[0];
+
+    private String name;
+    private Tag[] tags;
+    private int hash;
+
+    private MetricLookupKey() {
+    }
+
+    /**
+     * Creates an immutable key, copying the tag array.
+     */
+    static MetricLookupKey of(String name, Tag[] tags) {
+        MetricLookupKey key = new MetricLookupKey();
+        key.set(name, tags == null || tags.length == 0 ? NO_TAGS : tags.clone());
+        return key;
+    }
+
+    /**
+     * Creates an empty key that is meant to be reused for lookups via {@link #probe(String, Tag[])}.
+     */
+    static MetricLookupKey newProbe() {
+        return new MetricLookupKey();
+    }
+
+    /**
+     * Points this key to the given name and tags without copying them. Only use on keys that are
+     * never stored in a map, and call {@link #clear()} after the lookup.
+     */
+    MetricLookupKey probe(String name, Tag[] tags) {
+        set(name, tags == null ? NO_TAGS : tags);
+        return this;
+    }
+
+    void clear() {
+        name = null;
+        tags = null;
+    }
+
+    private void set(String name, Tag[] tags) {
+        this.name = name;
+        this.tags = tags;
+        int h = name.hashCode();
+        for (Tag tag : tags) {
+            h = 31 * h + Objects.hashCode(tag);
+        }
+        this.hash = h;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof MetricLookupKey)) {
+            return false;
+        }
+        MetricLookupKey other = (MetricLookupKey) o;
+        if (hash != other.hash || !name.equals(other.name) || tags.length != other.tags.length) {
+            return false;
+        }
+        for (int i = 0; i < tags.length; i++) {
+            if (!Objects.equals(tags[i], other.tags[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+}
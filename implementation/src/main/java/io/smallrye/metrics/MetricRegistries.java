@@ -27,6 +27,8 @@ import jakarta.enterprise.inject.Produces;
 import org.eclipse.microprofile.metrics.MetricRegistry;
 import org.eclipse.microprofile.metrics.annotation.RegistryType;
 
+import io.smallrye.metrics.app.MeterTicker;
+
 /**
  * @author hrupp
  */
@@ -56,12 +58,19 @@ public class MetricRegistries {
     }
 
     public static MetricRegistry get(MetricRegistry.Type type) {
-        return registries.computeIfAbsent(type, t -> new MetricsRegistryImpl(type));
+        return registries.computeIfAbsent(type, MetricRegistries::create);
+    }
+
+    private static MetricsRegistryImpl create(MetricRegistry.Type type) {
+        MetricsRegistryImpl registry = new MetricsRegistryImpl(type);
+        // only started once the registry is fully constructed, as it's accessed from another thread
+        registry.startIdleSeriesEviction();
+        return registry;
     }
 
     @PreDestroy
     public void cleanUp() {
-        registries.remove(MetricRegistry.Type.APPLICATION);
+        drop(MetricRegistry.Type.APPLICATION);
     }
 
     /**
@@ -71,7 +80,13 @@ public class MetricRegistries {
      * @param type Type of registry that should be dropped.
      */
     public static void drop(MetricRegistry.Type type) {
-        registries.remove(type);
+        MetricsRegistryImpl registry = registries.remove(type);
+        if (registry != null) {
+            registry.stopIdleSeriesEviction();
+        }
+        if (registries.isEmpty()) {
+            MeterTicker.shutdown();
+        }
     }
 
     /**
@@ -79,11 +94,11 @@ public class MetricRegistries {
      * is requested later, a new empty registry will be created for that purpose.
      */
     public static void dropAll() {
-        registries.remove(MetricRegistry.Type.APPLICATION);
-        registries.remove(MetricRegistry.Type.BASE);
-        registries.remove(MetricRegistry.Type.VENDOR);
+        drop(MetricRegistry.Type.APPLICATION);
+        drop(MetricRegistry.Type.BASE);
+        drop(MetricRegistry.Type.VENDOR);
     }
 
-    private static final Map<MetricRegistry.Type, MetricRegistry> registries = new ConcurrentHashMap<>();
+    private static final Map<MetricRegistry.Type, MetricsRegistryImpl> registries = new ConcurrentHashMap<>();
 
 }
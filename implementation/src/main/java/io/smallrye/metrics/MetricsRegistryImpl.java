@@ -17,21 +17,30 @@
 package io.smallrye.metrics;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.ServiceLoader;
+import java.util.Set;
 import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.WeakHashMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
 
 import jakarta.enterprise.inject.Vetoed;
 import jakarta.enterprise.inject.spi.InjectionPoint;
 
+import org.eclipse.microprofile.config.ConfigProvider;
 import org.eclipse.microprofile.metrics.ConcurrentGauge;
 import org.eclipse.microprofile.metrics.Counter;
 import org.eclipse.microprofile.metrics.Gauge;
@@ -47,13 +56,17 @@ import org.eclipse.microprofile.metrics.SimpleTimer;
 import org.eclipse.microprofile.metrics.Tag;
 import org.eclipse.microprofile.metrics.Timer;
 
+import io.smallrye.metrics.app.Clock;
 import io.smallrye.metrics.app.ConcurrentGaugeImpl;
 import io.smallrye.metrics.app.CounterImpl;
+import io.smallrye.metrics.app.DoubleGauge;
 import io.smallrye.metrics.app.ExponentiallyDecayingReservoir;
-import io.smallrye.metrics.app.HistogramImpl;
-import io.smallrye.metrics.app.MeterImpl;
-import io.smallrye.metrics.app.SimpleTimerImpl;
-import io.smallrye.metrics.app.TimerImpl;
+import io.smallrye.metrics.app.LongGauge;
+import io.smallrye.metrics.app.MetricSettings;
+import io.smallrye.metrics.app.Reservoir;
+import io.smallrye.metrics.app.ReservoirFactory;
+import io.smallrye.metrics.app.SettableDoubleGauge;
+import io.smallrye.metrics.app.SettableLongGauge;
 
 /**
  * @author hrupp
@@ -61,29 +74,185 @@ import io.smallrye.metrics.app.TimerImpl;
 @Vetoed
 public class MetricsRegistryImpl implements MetricRegistry {
 
+    private static final MetricType[] PARTITIONED_TYPES = {
+            MetricType.COUNTER,
+            MetricType.CONCURRENT_GAUGE,
+            MetricType.GAUGE,
+            MetricType.METERED,
+            MetricType.HISTOGRAM,
+            MetricType.TIMER,
+            MetricType.SIMPLE_TIMER
+    };
+
+    /*
+     * if true, timers and meters declared by annotations or injection points are registered as placeholders
+     * that allocate the actual metric on first update
+     */
+    public static final String SMALLRYE_METRICS_LAZY_MATERIALIZATION = "smallrye.metrics.lazyMaterialization";
+
+    static final String OVERFLOW_TAG_VALUE = "__overflow__";
+
+    static final String DROPPED_SERIES_METRIC_NAME = "metrics.series.dropped";
+
+    private static final Metadata DROPPED_SERIES_METADATA = Metadata.builder()
+            .withName(DROPPED_SERIES_METRIC_NAME)
+            .withType(MetricType.COUNTER)
+            .withDescription("Number of new metrics that were not registered, or were folded into an overflow series, "
+                    + "because the maximum number of series was reached")
+            .build();
+
+    // upper bound on the number of entries in foldedSeries
+    private static final int MAX_FOLDED_SERIES = 10_000;
+
+    private static final ThreadLocal<MetricLookupKey> LOOKUP_PROBE = ThreadLocal.withInitial(MetricLookupKey::newProbe);
+
     private Map<String, Metadata> metadataMap = new ConcurrentHashMap<>();
 
     private Map<MetricID, Metric> metricMap = new ConcurrentHashMap<>();
 
+    /*
+     * secondary index of metricMap by metric name, so that operations on all metrics with a given name
+     * don't need to scan the whole registry. Only modified while holding the lock on the registry.
+     */
+    private Map<String, Set<MetricID>> metricIDsByName = new ConcurrentHashMap<>();
+
+    /*
+     * metricMap partitioned by metric type, so that the typed getters (getTimers() etc.) only need to go through
+     * metrics of the requested type. A metric is present in the partition of each type whose interface it implements.
+     * Only modified while holding the lock on the registry.
+     */
+    private Map<MetricType, Map<MetricID, Metric>> metricsByType = new EnumMap<>(MetricType.class);
+
+    /*
+     * metrics that have already been obtained by their name and tags, keyed by the tags exactly as they were passed,
+     * so that looking up an existing metric again doesn't need to build a MetricID. Cleared whenever a metric is removed
+     * or replaced, which is rare compared to lookups.
+     */
+    private Map<MetricLookupKey, Metric> metricsByLookupKey = new ConcurrentHashMap<>();
+
+    /*
+     * series that could not be registered because a series limit was reached, mapped to the overflow series they were
+     * folded into, or to themselves if they were dropped. Remembering them means that they are only counted and logged
+     * once, and that looking them up again doesn't need the lock. Cleared when a metric is removed, and when it grows
+     * over MAX_FOLDED_SERIES, so a series might occasionally be counted again.
+     * Only modified while holding the lock on the registry.
+     */
+    private Map<MetricID, MetricID> foldedSeries = new ConcurrentHashMap<>();
+
     /*
      * this is for storing origins. until 2.0, origins were stored using OriginTrackedMetadata instead of regular metadata, but
      * since 2.0 we have to keep track of the origin per each MetricID separately, while Metadata itself
      * is only tracked per Metric Name, that's why we need two maps for that now.
      */
-    private Map<MetricID, Object> originMap = new HashMap<>();
+    private Map<MetricID, Object> originMap = new ConcurrentHashMap<>();
+
+    /*
+     * families created for this registry, which are told about removed metrics so that they don't keep them reachable.
+     * Weakly referenced, a family that is no longer used by the application doesn't need to be told anything.
+     * Only accessed while holding the lock on the registry.
+     */
+    private Set<MetricFamily<?>> families = Collections.newSetFromMap(new WeakHashMap<>());
+
+    /*
+     * Metadata that has already been successfully verified against the metadata registered under the same name.
+     * Maps the verified metadata to the registered instance it was compared with, so that repeated lookups passing
+     * the same (or an equal) metadata object don't need to compare all of its fields again.
+     */
+    private Map<Metadata, Metadata> verifiedMetadata = new ConcurrentHashMap<>();
+
+    /*
+     * incremented whenever a metric is added, replaced or removed. Only modified while holding the lock on the registry.
+     */
+    private volatile long version;
+
+    /*
+     * sorted snapshot for the exporters, rebuilt lazily when it's requested after the version has changed
+     */
+    private volatile RegistrySnapshot snapshot = RegistrySnapshot.EMPTY;
 
     private Type registryType;
 
     private MemberToMetricMappings memberToMetricMappings;
 
+    private final SeriesLimits seriesLimits;
+
+    // whether metrics declared by annotations or injection points are only allocated when first updated
+    private final boolean lazyMaterialization;
+
+    // consulted in order to choose the reservoirs of new histograms and timers
+    private final List<ReservoirFactory> reservoirFactories;
+
+    // the buckets of new histograms, timers and simple timers that are exported as OpenMetrics histograms
+    private final ConfiguredHistogramBuckets histogramBuckets;
+
+    // settings of new metrics
+    private final MetricSettings metricSettings;
+
+    // counts registrations that were dropped or folded into an overflow series because of the series limits
+    private Counter droppedSeries;
+
+    // the background removal of idle series, if it has been started
+    private ScheduledFuture<?> idleSeriesEviction;
+
     public MetricsRegistryImpl() {
         this(null);
     }
 
     public MetricsRegistryImpl(Type registryType) {
+        this(registryType, SeriesLimits.fromConfig(), isLazyMaterializationEnabled(), loadReservoirFactories(),
+                ConfiguredHistogramBuckets.fromConfig(), MetricSettings.fromConfig());
+    }
+
+    MetricsRegistryImpl(Type registryType, SeriesLimits seriesLimits) {
+        this(registryType, seriesLimits, false);
+    }
+
+    MetricsRegistryImpl(Type registryType, SeriesLimits seriesLimits, boolean lazyMaterialization) {
+        this(registryType, seriesLimits, lazyMaterialization, Collections.emptyList());
+    }
+
+    MetricsRegistryImpl(Type registryType, SeriesLimits seriesLimits, boolean lazyMaterialization,
+            List<ReservoirFactory> reservoirFactories) {
+        this(registryType, seriesLimits, lazyMaterialization, reservoirFactories, ConfiguredHistogramBuckets.NONE);
+    }
+
+    MetricsRegistryImpl(Type registryType, SeriesLimits seriesLimits, boolean lazyMaterialization,
+            List<ReservoirFactory> reservoirFactories, ConfiguredHistogramBuckets histogramBuckets) {
+        this(registryType, seriesLimits, lazyMaterialization, reservoirFactories, histogramBuckets,
+                MetricSettings.DEFAULTS);
+    }
+
+    MetricsRegistryImpl(Type registryType, SeriesLimits seriesLimits, boolean lazyMaterialization,
+            List<ReservoirFactory> reservoirFactories, ConfiguredHistogramBuckets histogramBuckets,
+            MetricSettings metricSettings) {
         this.registryType = registryType;
+        this.seriesLimits = seriesLimits;
+        this.lazyMaterialization = lazyMaterialization;
+        this.reservoirFactories = reservoirFactories;
+        this.histogramBuckets = histogramBuckets;
+        this.metricSettings = metricSettings;
+        for (MetricType type : PARTITIONED_TYPES) {
+            metricsByType.put(type, new ConcurrentHashMap<>());
+        }
         if (registryType == Type.APPLICATION) {
-            memberToMetricMappings = new MemberToMetricMappings();
+            memberToMetricMappings = new MemberToMetricMappings(this);
+        }
+    }
+
+    /**
+     * Starts removing idle series in the background if an idle timeout is configured. Called once the registry is
+     * fully constructed, and stopped by {@link #stopIdleSeriesEviction()} when the registry is dropped.
+     */
+    synchronized void startIdleSeriesEviction() {
+        if (idleSeriesEviction == null && seriesLimits.getIdleTimeoutSeconds() > 0) {
+            idleSeriesEviction = IdleSeriesEvictor.start(this, seriesLimits.getIdleTimeoutSeconds());
+        }
+    }
+
+    synchronized void stopIdleSeriesEviction() {
+        if (idleSeriesEviction != null) {
+            IdleSeriesEvictor.stop(idleSeriesEviction);
+            idleSeriesEviction = null;
         }
     }
 
@@ -94,6 +263,10 @@ public class MetricsRegistryImpl implements MetricRegistry {
         if (metricMap.keySet().contains(metricID)) {
             throw SmallRyeMetricsMessages.msg.metricWithNameAlreadyExists(name);
         }
+        if (isSeriesLimitReached(metricID)) {
+            seriesDropped(metricID, metricID);
+            return metric;
+        }
 
         MetricType type = inferMetricType(metric.getClass());
         if (type == null || type.equals(MetricType.INVALID)) {
@@ -101,7 +274,7 @@ public class MetricsRegistryImpl implements MetricRegistry {
         }
 
         Metadata m = Metadata.builder().withName(name).withType(type).build();
-        metricMap.put(metricID, metric);
+        putMetric(metricID, metric);
         metadataMap.put(name, m);
         return metric;
     }
@@ -123,6 +296,11 @@ public class MetricsRegistryImpl implements MetricRegistry {
         if (metricMap.containsKey(metricID) && metadata.getTypeRaw().equals(MetricType.GAUGE)) {
             throw SmallRyeMetricsMessages.msg.gaugeWithIdAlreadyExists(metricID);
         }
+        if (!metricMap.containsKey(metricID) && !(metadata instanceof OriginAndMetadata)
+                && isSeriesLimitReached(metricID)) {
+            seriesDropped(metricID, metricID);
+            return metric;
+        }
 
         /*
          * if metadata for this name already exists:
@@ -133,37 +311,49 @@ public class MetricsRegistryImpl implements MetricRegistry {
          * - if no metadata was specified for this registration, create a reasonable default
          * - if metadata was specified for this registration, use it
          */
+        Metric previous;
         if (existingMetadata != null) {
             if (metadata instanceof UnspecifiedMetadata) {
                 if (!metadata.getType().equals(existingMetadata.getType())) {
                     throw SmallRyeMetricsMessages.msg.metricExistsUnderDifferentType(name, existingMetadata.getType());
                 }
-                metricMap.put(metricID, metric);
+                previous = putMetric(metricID, metric);
             } else {
                 verifyMetadataEquality(metadata, existingMetadata);
-                metricMap.put(metricID, metric);
+                previous = putMetric(metricID, metric);
                 if (metadata instanceof OriginAndMetadata) {
-                    originMap.put(metricID, ((OriginAndMetadata) metadata).getOrigin());
+                    putOrigin(metricID, (OriginAndMetadata) metadata);
                 }
             }
         } else {
             if (metadata instanceof UnspecifiedMetadata) {
                 Metadata realMetadata = ((UnspecifiedMetadata) metadata).convertToRealMetadata();
                 metadataMap.put(name, realMetadata);
-                metricMap.put(metricID, metric);
+                previous = putMetric(metricID, metric);
             } else {
                 if (metadata instanceof OriginAndMetadata) {
-                    originMap.put(metricID, ((OriginAndMetadata) metadata).getOrigin());
+                    putOrigin(metricID, (OriginAndMetadata) metadata);
                     metadataMap.put(name, ((OriginAndMetadata) metadata).getMetadata());
                 } else {
                     metadataMap.put(name, sanitizeMetadata(metadata, metric.getClass()));
                 }
-                metricMap.put(metricID, metric);
+                previous = putMetric(metricID, metric);
             }
         }
+        if (previous != null && previous != metric) {
+            // an interceptor might still hold on to the instance that has just been replaced
+            invalidateResolvedMetrics();
+        }
         return metric;
     }
 
+    private void putOrigin(MetricID metricID, OriginAndMetadata metadata) {
+        Object origin = metadata.getOrigin();
+        if (origin != null) {
+            originMap.put(metricID, origin);
+        }
+    }
+
     private void verifyMetadataEquality(Metadata newMetadata, Metadata existingMetadata) {
         /*
          * we could use simply an equals() call but inspecting the objects in detail allows us to
@@ -196,14 +386,12 @@ public class MetricsRegistryImpl implements MetricRegistry {
 
     @Override
     public Counter counter(String name) {
-        return get(new MetricID(name),
-                new UnspecifiedMetadata(name, MetricType.COUNTER));
+        return getByNameAndTags(name, null, MetricType.COUNTER);
     }
 
     @Override
     public Counter counter(String name, Tag... tags) {
-        return get(new MetricID(name, tags),
-                new UnspecifiedMetadata(name, MetricType.COUNTER));
+        return getByNameAndTags(name, tags, MetricType.COUNTER);
     }
 
     @Override
@@ -223,8 +411,7 @@ public class MetricsRegistryImpl implements MetricRegistry {
 
     @Override
     public ConcurrentGauge concurrentGauge(String name) {
-        return get(new MetricID(name),
-                new UnspecifiedMetadata(name, MetricType.CONCURRENT_GAUGE));
+        return getByNameAndTags(name, null, MetricType.CONCURRENT_GAUGE);
     }
 
     @Override
@@ -239,8 +426,7 @@ public class MetricsRegistryImpl implements MetricRegistry {
 
     @Override
     public ConcurrentGauge concurrentGauge(String name, Tag... tags) {
-        return get(new MetricID(name, tags),
-                new UnspecifiedMetadata(name, MetricType.CONCURRENT_GAUGE));
+        return getByNameAndTags(name, tags, MetricType.CONCURRENT_GAUGE);
     }
 
     @Override
@@ -290,10 +476,107 @@ public class MetricsRegistryImpl implements MetricRegistry {
         return get(new MetricID(metadata.getName(), tags), sanitizeMetadata(metadata, MetricType.GAUGE), gauge);
     }
 
+    /**
+     * Gets or creates a gauge with a primitive {@code long} value computed by the given function, exporters read
+     * the value without boxing it.
+     *
+     * @throws IllegalStateException if a gauge with the same name and tags exists that is not a {@link LongGauge}
+     */
+    public <T> LongGauge longGauge(String name, T stateObject, ToLongFunction<T> function, Tag... tags) {
+        Objects.requireNonNull(stateObject);
+        LongGauge gauge = () -> function.applyAsLong(stateObject);
+        return gauge(new MetricID(name, tags), new UnspecifiedMetadata(name, MetricType.GAUGE), gauge, LongGauge.class);
+    }
+
+    /**
+     * Gets or creates a gauge with a primitive {@code long} value computed by the given function, exporters read
+     * the value without boxing it.
+     *
+     * @throws IllegalStateException if a gauge with the same name and tags exists that is not a {@link LongGauge}
+     */
+    public <T> LongGauge longGauge(Metadata metadata, T stateObject, ToLongFunction<T> function, Tag... tags) {
+        Objects.requireNonNull(stateObject);
+        LongGauge gauge = () -> function.applyAsLong(stateObject);
+        return gauge(new MetricID(metadata.getName(), tags), sanitizeMetadata(metadata, MetricType.GAUGE), gauge,
+                LongGauge.class);
+    }
+
+    /**
+     * Gets or creates a gauge with a primitive {@code double} value computed by the given function, exporters read
+     * the value without boxing it.
+     *
+     * @throws IllegalStateException if a gauge with the same name and tags exists that is not a {@link DoubleGauge}
+     */
+    public <T> DoubleGauge doubleGauge(String name, T stateObject, ToDoubleFunction<T> function, Tag... tags) {
+        Objects.requireNonNull(stateObject);
+        DoubleGauge gauge = () -> function.applyAsDouble(stateObject);
+        return gauge(new MetricID(name, tags), new UnspecifiedMetadata(name, MetricType.GAUGE), gauge, DoubleGauge.class);
+    }
+
+    /**
+     * Gets or creates a gauge with a primitive {@code double} value computed by the given function, exporters read
+     * the value without boxing it.
+     *
+     * @throws IllegalStateException if a gauge with the same name and tags exists that is not a {@link DoubleGauge}
+     */
+    public <T> DoubleGauge doubleGauge(Metadata metadata, T stateObject, ToDoubleFunction<T> function, Tag... tags) {
+        Objects.requireNonNull(stateObject);
+        DoubleGauge gauge = () -> function.applyAsDouble(stateObject);
+        return gauge(new MetricID(metadata.getName(), tags), sanitizeMetadata(metadata, MetricType.GAUGE), gauge,
+                DoubleGauge.class);
+    }
+
+    /**
+     * Gets or creates a gauge whose {@code long} value is set by the application.
+     *
+     * @throws IllegalStateException if a gauge with the same name and tags exists that is not a {@link SettableLongGauge}
+     */
+    public SettableLongGauge settableLongGauge(String name, Tag... tags) {
+        return gauge(new MetricID(name, tags), new UnspecifiedMetadata(name, MetricType.GAUGE), new SettableLongGauge(),
+                SettableLongGauge.class);
+    }
+
+    /**
+     * Gets or creates a gauge whose {@code long} value is set by the application.
+     *
+     * @throws IllegalStateException if a gauge with the same name and tags exists that is not a {@link SettableLongGauge}
+     */
+    public SettableLongGauge settableLongGauge(Metadata metadata, Tag... tags) {
+        return gauge(new MetricID(metadata.getName(), tags), sanitizeMetadata(metadata, MetricType.GAUGE),
+                new SettableLongGauge(), SettableLongGauge.class);
+    }
+
+    /**
+     * Gets or creates a gauge whose {@code double} value is set by the application.
+     *
+     * @throws IllegalStateException if a gauge with the same name and tags exists that is not a {@link SettableDoubleGauge}
+     */
+    public SettableDoubleGauge settableDoubleGauge(String name, Tag... tags) {
+        return gauge(new MetricID(name, tags), new UnspecifiedMetadata(name, MetricType.GAUGE), new SettableDoubleGauge(),
+                SettableDoubleGauge.class);
+    }
+
+    /**
+     * Gets or creates a gauge whose {@code double} value is set by the application.
+     *
+     * @throws IllegalStateException if a gauge with the same name and tags exists that is not a {@link SettableDoubleGauge}
+     */
+    public SettableDoubleGauge settableDoubleGauge(Metadata metadata, Tag... tags) {
+        return gauge(new MetricID(metadata.getName(), tags), sanitizeMetadata(metadata, MetricType.GAUGE),
+                new SettableDoubleGauge(), SettableDoubleGauge.class);
+    }
+
+    private <G extends Gauge<?>> G gauge(MetricID metricID, Metadata metadata, G implementor, Class<G> gaugeType) {
+        Metric gauge = get(metricID, metadata, implementor);
+        if (!gaugeType.isInstance(gauge)) {
+            throw SmallRyeMetricsMessages.msg.gaugeOfDifferentKindExists(metricID, gaugeType.getSimpleName());
+        }
+        return gaugeType.cast(gauge);
+    }
+
     @Override
     public Histogram histogram(String name) {
-        return get(new MetricID(name),
-                new UnspecifiedMetadata(name, MetricType.HISTOGRAM));
+        return getByNameAndTags(name, null, MetricType.HISTOGRAM);
     }
 
     @Override
@@ -308,8 +591,7 @@ public class MetricsRegistryImpl implements MetricRegistry {
 
     @Override
     public Histogram histogram(String name, Tag... tags) {
-        return get(new MetricID(name, tags),
-                new UnspecifiedMetadata(name, MetricType.HISTOGRAM));
+        return getByNameAndTags(name, tags, MetricType.HISTOGRAM);
     }
 
     @Override
@@ -319,8 +601,7 @@ public class MetricsRegistryImpl implements MetricRegistry {
 
     @Override
     public Meter meter(String name) {
-        return get(new MetricID(name),
-                new UnspecifiedMetadata(name, MetricType.METERED));
+        return getByNameAndTags(name, null, MetricType.METERED);
     }
 
     @Override
@@ -335,8 +616,7 @@ public class MetricsRegistryImpl implements MetricRegistry {
 
     @Override
     public Meter meter(String name, Tag... tags) {
-        return get(new MetricID(name, tags),
-                new UnspecifiedMetadata(name, MetricType.METERED));
+        return getByNameAndTags(name, tags, MetricType.METERED);
     }
 
     @Override
@@ -346,8 +626,7 @@ public class MetricsRegistryImpl implements MetricRegistry {
 
     @Override
     public Timer timer(String name) {
-        return get(new MetricID(name),
-                new UnspecifiedMetadata(name, MetricType.TIMER));
+        return getByNameAndTags(name, null, MetricType.TIMER);
     }
 
     @Override
@@ -362,8 +641,7 @@ public class MetricsRegistryImpl implements MetricRegistry {
 
     @Override
     public Timer timer(String name, Tag... tags) {
-        return get(new MetricID(name, tags),
-                new UnspecifiedMetadata(name, MetricType.TIMER));
+        return getByNameAndTags(name, tags, MetricType.TIMER);
     }
 
     @Override
@@ -373,14 +651,12 @@ public class MetricsRegistryImpl implements MetricRegistry {
 
     @Override
     public SimpleTimer simpleTimer(String name) {
-        return get(new MetricID(name),
-                new UnspecifiedMetadata(name, MetricType.SIMPLE_TIMER));
+        return getByNameAndTags(name, null, MetricType.SIMPLE_TIMER);
     }
 
     @Override
     public SimpleTimer simpleTimer(String name, Tag... tags) {
-        return get(new MetricID(name, tags),
-                new UnspecifiedMetadata(name, MetricType.SIMPLE_TIMER));
+        return getByNameAndTags(name, tags, MetricType.SIMPLE_TIMER);
     }
 
     @Override
@@ -398,49 +674,135 @@ public class MetricsRegistryImpl implements MetricRegistry {
         return get(metricID, new UnspecifiedMetadata(metricID.getName(), MetricType.SIMPLE_TIMER));
     }
 
+    /**
+     * Declares a family of counters with the given name, distinguished by the values of the given tags.
+     */
+    public MetricFamily<Counter> counterFamily(String name, String... tagNames) {
+        return new MetricFamily<>(this, name, tagNames, tags -> counter(name, tags));
+    }
+
+    public MetricFamily<Counter> counterFamily(Metadata metadata, String... tagNames) {
+        return new MetricFamily<>(this, metadata.getName(), tagNames, tags -> counter(metadata, tags));
+    }
+
+    /**
+     * Declares a family of timers with the given name, distinguished by the values of the given tags.
+     */
+    public MetricFamily<Timer> timerFamily(String name, String... tagNames) {
+        return new MetricFamily<>(this, name, tagNames, tags -> timer(name, tags));
+    }
+
+    public MetricFamily<Timer> timerFamily(Metadata metadata, String... tagNames) {
+        return new MetricFamily<>(this, metadata.getName(), tagNames, tags -> timer(metadata, tags));
+    }
+
+    /**
+     * Declares a family of histograms with the given name, distinguished by the values of the given tags.
+     */
+    public MetricFamily<Histogram> histogramFamily(String name, String... tagNames) {
+        return new MetricFamily<>(this, name, tagNames, tags -> histogram(name, tags));
+    }
+
+    public MetricFamily<Histogram> histogramFamily(Metadata metadata, String... tagNames) {
+        return new MetricFamily<>(this, metadata.getName(), tagNames, tags -> histogram(metadata, tags));
+    }
+
+    /**
+     * Obtains a metric by name and tags without any specific metadata. If the metric has been obtained with the same
+     * name and tags before, this is served from {@link #metricsByLookupKey} without allocating anything.
+     */
+    private <T extends Metric> T getByNameAndTags(String name, Tag[] tags, MetricType type) {
+        if (name != null) {
+            MetricLookupKey probe = LOOKUP_PROBE.get().probe(name, tags);
+            Metric existingMetric = metricsByLookupKey.get(probe);
+            probe.clear();
+            if (existingMetric != null) {
+                Metadata registeredMetadata = metadataMap.get(name);
+                if (registeredMetadata != null && registeredMetadata.getTypeRaw() == type) {
+                    return (T) existingMetric;
+                }
+            }
+        }
+
+        MetricID metricID = new MetricID(name, tags);
+        T metric = get(metricID, new UnspecifiedMetadata(name, type));
+        synchronized (this) {
+            // the metric could have been removed or replaced in the meantime, don't cache it in that case
+            if (metricMap.get(metricID) == metric) {
+                metricsByLookupKey.put(MetricLookupKey.of(name, tags), metric);
+            }
+        }
+        return metric;
+    }
+
     private <T extends Metric> T get(MetricID metricID, Metadata metadata) {
         return get(metricID, metadata, null);
     }
 
-    private synchronized <T extends Metric> T get(MetricID metricID, Metadata metadata, T implementor) {
+    private <T extends Metric> T get(MetricID metricID, Metadata metadata, T implementor) {
         String name = metadata.getName();
-        MetricType type = metadata.getTypeRaw();
         if (name == null || name.isEmpty()) {
             throw SmallRyeMetricsMessages.msg.metricNameMustNotBeNullOrEmpty();
         }
 
+        // optimistic lock-free path for the common case of obtaining a metric that already exists
+        Metric existingMetric = metricMap.get(metricID);
+        if (existingMetric == null) {
+            MetricID overflowMetricID = foldedSeries.get(metricID);
+            if (overflowMetricID != null) {
+                existingMetric = metricMap.get(overflowMetricID);
+            }
+        }
+        if (existingMetric != null && isKnownToMatchRegisteredMetadata(metadata)) {
+            return (T) existingMetric;
+        }
+
+        synchronized (this) {
+            return getOrCreate(metricID, metadata, implementor);
+        }
+    }
+
+    /**
+     * Checks whether the metadata passed to a lookup is compatible with the metadata registered under the same name,
+     * without doing any expensive comparisons. If this returns false, the caller has to take the slow path
+     * which performs (and possibly caches) the full verification.
+     */
+    private boolean isKnownToMatchRegisteredMetadata(Metadata metadata) {
+        Metadata registeredMetadata = metadataMap.get(metadata.getName());
+        if (registeredMetadata == null) {
+            return false;
+        }
+        if (metadata instanceof UnspecifiedMetadata) {
+            // only the type is checked for unspecified metadata
+            return registeredMetadata.getTypeRaw() == metadata.getTypeRaw();
+        }
+        return verifiedMetadata.get(metadata) == registeredMetadata;
+    }
+
+    private <T extends Metric> T getOrCreate(MetricID metricID, Metadata metadata, T implementor) {
+        String name = metadata.getName();
+        MetricType type = metadata.getTypeRaw();
+
         Metadata previousMetadata = metadataMap.get(name);
         Metric previousMetric = metricMap.get(metricID);
 
-        if (previousMetric == null) {
-            Metric m;
-            switch (type) {
-
-                case COUNTER:
-                    m = new CounterImpl();
-                    break;
-                case GAUGE:
-                    m = implementor;
-                    break;
-                case METERED:
-                    m = new MeterImpl();
-                    break;
-                case HISTOGRAM:
-                    m = new HistogramImpl(new ExponentiallyDecayingReservoir());
-                    break;
-                case TIMER:
-                    m = new TimerImpl(new ExponentiallyDecayingReservoir());
-                    break;
-                case CONCURRENT_GAUGE:
-                    m = new ConcurrentGaugeImpl();
-                    break;
-                case SIMPLE_TIMER:
-                    m = new SimpleTimerImpl();
-                    break;
-                case INVALID:
-                default:
-                    throw new IllegalStateException("Must not happen");
+        // metrics declared by annotations or injection points are exempt from the limits, the interceptors
+        // and producers look them up by their original ID
+        if (previousMetric == null && !(metadata instanceof OriginAndMetadata) && isSeriesLimitReached(metricID)) {
+            if (metricID.getTags().isEmpty()) {
+                seriesDropped(metricID, metricID);
+                // there is no overflow series to fold this one into, so hand out a metric that is not registered
+                return (T) newMetric(metadata, implementor, false);
             }
+            MetricID overflowMetricID = overflowMetricID(metricID);
+            seriesDropped(metricID, overflowMetricID);
+            metricID = overflowMetricID;
+            previousMetric = metricMap.get(metricID);
+        }
+
+        if (previousMetric == null) {
+            // metrics declared by annotations or injection points are often never used, so they can be materialized lazily
+            Metric m = newMetric(metadata, implementor, lazyMaterialization && metadata instanceof OriginAndMetadata);
             if (metadata instanceof OriginAndMetadata) {
                 SmallRyeMetricsLogging.log.registerMetric(metricID, type,
                         ((OriginAndMetadata) metadata).getOrigin());
@@ -457,11 +819,138 @@ public class MetricsRegistryImpl implements MetricRegistry {
             // stop caring, same thing.
         } else {
             verifyMetadataEquality(metadata, previousMetadata);
+            // only cache metadata equal to the registered instance, this keeps at most one entry per metric name
+            if (!(metadata instanceof UnspecifiedMetadata) && metadata.equals(previousMetadata)) {
+                verifiedMetadata.put(metadata, previousMetadata);
+            }
         }
 
         return (T) metricMap.get(metricID);
     }
 
+    private Metric newMetric(Metadata metadata, Metric implementor, boolean lazy) {
+        switch (metadata.getTypeRaw()) {
+            case COUNTER:
+                return new CounterImpl();
+            case GAUGE:
+                return implementor;
+            case METERED:
+                return lazy ? metricSettings.newLazyMeter() : metricSettings.newMeter(Clock.defaultClock());
+            case HISTOGRAM:
+                return metricSettings.newHistogram(newReservoir(metadata), Clock.defaultClock(),
+                        histogramBuckets.create(metadata));
+            case TIMER:
+                return lazy ? metricSettings.newLazyTimer(() -> newReservoir(metadata), histogramBuckets.create(metadata))
+                        : metricSettings.newTimer(newReservoir(metadata), Clock.defaultClock(),
+                                histogramBuckets.create(metadata));
+            case CONCURRENT_GAUGE:
+                return new ConcurrentGaugeImpl();
+            case SIMPLE_TIMER:
+                return metricSettings.newSimpleTimer(Clock.defaultClock(), histogramBuckets.create(metadata));
+            case INVALID:
+            default:
+                throw new IllegalStateException("Must not happen");
+        }
+    }
+
+    private Reservoir newReservoir(Metadata metadata) {
+        for (ReservoirFactory factory : reservoirFactories) {
+            Reservoir reservoir = factory.create(metadata);
+            if (reservoir != null) {
+                return reservoir;
+            }
+        }
+        return new ExponentiallyDecayingReservoir();
+    }
+
+    /**
+     * Checks whether registering a new series with the given ID would exceed the configured series limits.
+     * Overflow series are exempt from the limits, there is at most one of them for each metric name and set of tag names.
+     */
+    private boolean isSeriesLimitReached(MetricID metricID) {
+        if (seriesLimits.isUnlimited() || isOverflowSeries(metricID)
+                || metricID.getName().equals(DROPPED_SERIES_METRIC_NAME)) {
+            return false;
+        }
+        Set<MetricID> seriesWithName = metricIDsByName.get(metricID.getName());
+        return seriesLimits.isReached(seriesWithName != null ? seriesWithName.size() : 0, metricMap.size());
+    }
+
+    private static boolean isOverflowSeries(MetricID metricID) {
+        Map<String, String> tags = metricID.getTags();
+        if (tags.isEmpty()) {
+            return false;
+        }
+        for (String value : tags.values()) {
+            if (!OVERFLOW_TAG_VALUE.equals(value)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The series that collects all new tag combinations of a metric once a series limit has been reached.
+     * It has the same name and tag names as the original series, with all tag values replaced by
+     * {@value #OVERFLOW_TAG_VALUE}.
+     */
+    private static MetricID overflowMetricID(MetricID metricID) {
+        Tag[] tags = new Tag[metricID.getTags().size()];
+        int i = 0;
+        for (String tagName : metricID.getTags().keySet()) {
+            tags[i++] = new Tag(tagName, OVERFLOW_TAG_VALUE);
+        }
+        return new MetricID(metricID.getName(), tags);
+    }
+
+    /**
+     * Records that the given series was folded into the given overflow series, or dropped if both are the same.
+     * This is only counted and logged the first time it happens for a series.
+     */
+    private void seriesDropped(MetricID metricID, MetricID overflowMetricID) {
+        if (foldedSeries.containsKey(metricID)) {
+            return;
+        }
+        if (foldedSeries.size() >= MAX_FOLDED_SERIES) {
+            foldedSeries.clear();
+        }
+        foldedSeries.put(metricID, overflowMetricID);
+        SmallRyeMetricsLogging.log.seriesLimitReached(metricID);
+        if (droppedSeries == null) {
+            if (registryType != null) {
+                droppedSeries = MetricRegistries.get(Type.VENDOR).counter(DROPPED_SERIES_METADATA,
+                        new Tag("registry", registryType.getName()));
+            } else {
+                droppedSeries = new CounterImpl();
+            }
+        }
+        droppedSeries.inc();
+    }
+
+    /**
+     * The reservoirs configured for metric name patterns take precedence over those chosen by the
+     * {@link ReservoirFactory} implementations found by the {@link ServiceLoader}.
+     */
+    private static List<ReservoirFactory> loadReservoirFactories() {
+        List<ReservoirFactory> factories = new ArrayList<>();
+        factories.add(ConfiguredReservoirFactory.fromConfig());
+        for (ReservoirFactory factory : ServiceLoader.load(ReservoirFactory.class)) {
+            factories.add(factory);
+        }
+        return factories;
+    }
+
+    private static boolean isLazyMaterializationEnabled() {
+        try {
+            return ConfigProvider.getConfig()
+                    .getOptionalValue(SMALLRYE_METRICS_LAZY_MATERIALIZATION, Boolean.class)
+                    .orElse(false);
+        } catch (IllegalStateException | ExceptionInInitializerError | NoClassDefFoundError t) {
+            // MP Config implementation is probably not available
+            return false;
+        }
+    }
+
     private boolean areCompatibleOrigins(Object left, Object right) {
         if (left.equals(right)) {
             return true;
@@ -475,34 +964,126 @@ public class MetricsRegistryImpl implements MetricRegistry {
     }
 
     @Override
-    public boolean remove(String metricName) {
+    public synchronized boolean remove(String metricName) {
         SmallRyeMetricsLogging.log.removeMetricsByName(metricName);
-        // iterate over all metricID's in the map and remove the ones with this name
-        for (MetricID metricID : metricMap.keySet()) {
-            if (metricID.getName().equals(metricName)) {
-                metricMap.remove(metricID);
+        Set<MetricID> metricIDs = metricIDsByName.remove(metricName);
+        boolean removedAny = false;
+        if (metricIDs != null) {
+            for (MetricID metricID : metricIDs) {
+                Metric removed = metricMap.remove(metricID);
+                removeFromTypePartitions(metricID);
+                originMap.remove(metricID);
+                if (removed != null) {
+                    notifyFamilies(metricID, removed);
+                    removedAny = true;
+                }
             }
         }
+        // nothing needs to be invalidated if there was no metric with this name
+        if (removedAny) {
+            metricsRemovedOrReplaced();
+            version++;
+            invalidateResolvedMetrics();
+        }
         // dispose of the metadata as well
-        return metadataMap.remove(metricName) != null;
+        return removeMetadata(metricName);
     }
 
     @Override
     public synchronized boolean remove(MetricID metricID) {
         if (metricMap.containsKey(metricID)) {
             SmallRyeMetricsLogging.log.removeMetricsById(metricID);
-            metricMap.remove(metricID);
+            removeMetric(metricID);
+            originMap.remove(metricID);
             // remove the metadata as well if this is the last metric of this name to be removed
             String name = metricID.getName();
-            if (metricMap.keySet().stream().noneMatch(id -> id.getName().equals(name))) {
+            if (!metricIDsByName.containsKey(name)) {
                 SmallRyeMetricsLogging.log.removeMetadata(name);
-                metadataMap.remove(name);
+                removeMetadata(name);
             }
+            invalidateResolvedMetrics();
             return true;
         }
         return false;
     }
 
+    /**
+     * Removes the metric with the given ID, but only if it's still the given instance.
+     */
+    synchronized boolean removeIdle(MetricID metricID, Metric metric) {
+        if (metricMap.get(metricID) != metric) {
+            return false;
+        }
+        return remove(metricID);
+    }
+
+    boolean hasOrigin(MetricID metricID) {
+        return originMap.containsKey(metricID);
+    }
+
+    private boolean removeMetadata(String name) {
+        verifiedMetadata.keySet().removeIf(metadata -> name.equals(metadata.getName()));
+        return metadataMap.remove(name) != null;
+    }
+
+    private Metric putMetric(MetricID metricID, Metric metric) {
+        Metric previous = metricMap.put(metricID, metric);
+        if (previous != null && previous != metric) {
+            metricsRemovedOrReplaced();
+            notifyFamilies(metricID, previous);
+        }
+        version++;
+        metricIDsByName.computeIfAbsent(metricID.getName(), name -> ConcurrentHashMap.newKeySet()).add(metricID);
+        for (MetricType type : PARTITIONED_TYPES) {
+            if (isSameType(metric, type)) {
+                metricsByType.get(type).put(metricID, metric);
+            } else if (previous != null) {
+                // the replaced instance might have been of a different type
+                metricsByType.get(type).remove(metricID);
+            }
+        }
+        return previous;
+    }
+
+    synchronized void addFamily(MetricFamily<?> family) {
+        families.add(family);
+    }
+
+    private void notifyFamilies(MetricID metricID, Metric removed) {
+        for (MetricFamily<?> family : families) {
+            if (family.getName().equals(metricID.getName())) {
+                family.metricRemoved(metricID, removed);
+            }
+        }
+    }
+
+    private void metricsRemovedOrReplaced() {
+        metricsByLookupKey.clear();
+        // a removal might have made room for the series that were folded or dropped so far
+        foldedSeries.clear();
+    }
+
+    private void removeFromTypePartitions(MetricID metricID) {
+        for (MetricType type : PARTITIONED_TYPES) {
+            metricsByType.get(type).remove(metricID);
+        }
+    }
+
+    private void removeMetric(MetricID metricID) {
+        Metric removed = metricMap.remove(metricID);
+        notifyFamilies(metricID, removed);
+        metricsRemovedOrReplaced();
+        version++;
+        removeFromTypePartitions(metricID);
+        Set<MetricID> metricIDs = metricIDsByName.get(metricID.getName());
+        if (metricIDs != null) {
+            metricIDs.remove(metricID);
+            if (metricIDs.isEmpty()) {
+                metricIDsByName.remove(metricID.getName());
+            }
+        }
+    }
+
     @Override
     public void removeMatching(MetricFilter metricFilter) {
         List<MetricID> toRemove = new ArrayList<>();
@@ -516,11 +1097,19 @@ public class MetricsRegistryImpl implements MetricRegistry {
 
     @Override
     public java.util.SortedSet<String> getNames() {
-        SortedSet<String> out = new TreeSet<>();
-        for (MetricID id : metricMap.keySet()) {
-            out.add(id.getName());
-        }
-        return out;
+        return new TreeSet<>(metricIDsByName.keySet());
+    }
+
+    /**
+     * Returns the IDs of all metrics registered under the given name. This is backed by an index maintained
+     * by the registry, so it doesn't need to look at metrics with other names.
+     *
+     * @param name the metric name
+     * @return an unmodifiable view of the metric IDs, empty if there is no metric with this name
+     */
+    public Set<MetricID> getMetricIDsByName(String name) {
+        Set<MetricID> metricIDs = metricIDsByName.get(name);
+        return metricIDs != null ? Collections.unmodifiableSet(metricIDs) : Collections.emptySet();
     }
 
     @Override
@@ -604,6 +1193,42 @@ public class MetricsRegistryImpl implements MetricRegistry {
         return new HashMap<>(metricMap);
     }
 
+    /**
+     * Returns all metrics of this registry together with their metadata, sorted by {@link MetricID}.
+     * The same snapshot instance is returned until a metric is registered or removed, so this is cheap to call
+     * repeatedly, for example on every scrape.
+     */
+    public RegistrySnapshot getSnapshot() {
+        RegistrySnapshot current = snapshot;
+        if (current.getVersion() == version) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            if (current.getVersion() != version) {
+                current = createSnapshot();
+                snapshot = current;
+            }
+            return current;
+        }
+    }
+
+    private RegistrySnapshot createSnapshot() {
+        SortedMap<MetricID, Metric> sorted = new TreeMap<>(metricMap);
+        int size = sorted.size();
+        MetricID[] metricIDs = new MetricID[size];
+        Metric[] metrics = new Metric[size];
+        Metadata[] metadata = new Metadata[size];
+        int i = 0;
+        for (Map.Entry<MetricID, Metric> entry : sorted.entrySet()) {
+            metricIDs[i] = entry.getKey();
+            metrics[i] = entry.getValue();
+            metadata[i] = metadataMap.get(entry.getKey().getName());
+            i++;
+        }
+        return new RegistrySnapshot(version, metricIDs, metrics, metadata);
+    }
+
     @Override
     public Metric getMetric(MetricID metricID) {
         return metricMap.get(metricID);
@@ -611,46 +1236,58 @@ public class MetricsRegistryImpl implements MetricRegistry {
 
     @Override
     public <T extends Metric> T getMetric(MetricID metricID, Class<T> asType) {
-        try {
-            return asType.cast(getMetric(metricID));
-        } catch (ClassCastException e) {
-            throw new IllegalArgumentException(metricID + " was not of expected type " + asType, e);
+        Metric metric = getMetric(metricID);
+        if (metric == null || asType.isInstance(metric)) {
+            return (T) metric;
         }
+        throw new IllegalArgumentException(metricID + " was not of expected type " + asType);
     }
 
     @Override
     public Counter getCounter(MetricID metricID) {
-        return getMetric(metricID, Counter.class);
+        return getMetric(metricID, MetricType.COUNTER, Counter.class);
     }
 
     @Override
     public ConcurrentGauge getConcurrentGauge(MetricID metricID) {
-        return getMetric(metricID, ConcurrentGauge.class);
+        return getMetric(metricID, MetricType.CONCURRENT_GAUGE, ConcurrentGauge.class);
     }
 
     @Override
     public Gauge<?> getGauge(MetricID metricID) {
-        return getMetric(metricID, Gauge.class);
+        return getMetric(metricID, MetricType.GAUGE, Gauge.class);
     }
 
     @Override
     public Histogram getHistogram(MetricID metricID) {
-        return getMetric(metricID, Histogram.class);
+        return getMetric(metricID, MetricType.HISTOGRAM, Histogram.class);
     }
 
     @Override
     public Meter getMeter(MetricID metricID) {
-        return getMetric(metricID, Meter.class);
+        return getMetric(metricID, MetricType.METERED, Meter.class);
     }
 
     @Override
     public Timer getTimer(MetricID metricID) {
-        return getMetric(metricID, Timer.class);
+        return getMetric(metricID, MetricType.TIMER, Timer.class);
     }
 
     @Override
     public SimpleTimer getSimpleTimer(MetricID metricID) {
-        return getMetric(metricID, SimpleTimer.class);
+        return getMetric(metricID, MetricType.SIMPLE_TIMER, SimpleTimer.class);
+    }
+
+    private <T extends Metric> T getMetric(MetricID metricID, MetricType type, Class<T> asType) {
+        Metric metric = metricsByType.get(type).get(metricID);
+        if (metric == null) {
+            // the metric might be in metricMap but not yet in its type partition, so check the instance itself
+            metric = metricMap.get(metricID);
+            if (metric != null && !asType.isInstance(metric)) {
+                throw new IllegalArgumentException(metricID + " was not of expected type " + asType);
+            }
+        }
+        return (T) metric;
     }
 
     @Override
@@ -666,6 +1303,10 @@ public class MetricsRegistryImpl implements MetricRegistry {
 
     @Override
     public <T extends Metric> SortedMap<MetricID, T> getMetrics(Class<T> ofType, MetricFilter filter) {
+        MetricType type = metricTypeFromClass(ofType);
+        if (type != null) {
+            return getMetrics(type, filter);
+        }
         return (SortedMap<MetricID, T>) getMetrics(
                 (metricID, metric) -> filter.matches(metricID, metric)
                         && ofType.isAssignableFrom(metric.getClass()));
@@ -698,11 +1339,9 @@ public class MetricsRegistryImpl implements MetricRegistry {
     private <T extends Metric> SortedMap<MetricID, T> getMetrics(MetricType type, MetricFilter filter) {
         SortedMap<MetricID, T> out = new TreeMap<>();
 
-        for (Map.Entry<MetricID, Metric> entry : metricMap.entrySet()) {
-            if (isSameType(entry.getValue(), type)) {
-                if (filter.matches(entry.getKey(), entry.getValue())) {
-                    out.put(entry.getKey(), (T) entry.getValue());
-                }
+        for (Map.Entry<MetricID, Metric> entry : metricsByType.get(type).entrySet()) {
+            if (filter.matches(entry.getKey(), entry.getValue())) {
+                out.put(entry.getKey(), (T) entry.getValue());
             }
         }
         return out;
@@ -748,6 +1387,12 @@ public class MetricsRegistryImpl implements MetricRegistry {
         return memberToMetricMappings;
     }
 
+    private void invalidateResolvedMetrics() {
+        if (memberToMetricMappings != null) {
+            memberToMetricMappings.invalidateResolvedMetrics();
+        }
+    }
+
     /**
      * Guess the metric type from a class object. Recursively scans its
      * superclasses and implemented interfaces.
@@ -27,8 +27,6 @@ import java.util.stream.Stream;
 
 import jakarta.enterprise.context.ApplicationScoped;
 
-import org.eclipse.microprofile.metrics.Metric;
-import org.eclipse.microprofile.metrics.MetricID;
 import org.eclipse.microprofile.metrics.MetricRegistry;
 
 import io.smallrye.metrics.exporters.Exporter;
@@ -47,6 +45,7 @@ public class MetricsRequestHandler {
     private static final Map<String, String> corsHeaders;
     private static final String TEXT_PLAIN = "text/plain";
     private static final String APPLICATION_JSON = "application/json";
+    private static final String APPLICATION_OPENMETRICS = "application/openmetrics-text";
     private static final String STAR_STAR = "*/*";
     private boolean appendCorsHeaders = true;
 
@@ -133,10 +132,9 @@ public class MetricsRequestHandler {
                 return;
             }
 
-            MetricRegistry registry = MetricRegistries.get(scope);
-            Map<MetricID, Metric> metricValuesMap = registry.getMetrics();
+            MetricsRegistryImpl registry = (MetricsRegistryImpl) MetricRegistries.get(scope);
 
-            if (metricValuesMap.keySet().stream().anyMatch(id -> id.getName().equals(metricName))) {
+            if (!registry.getMetricIDsByName(metricName).isEmpty()) {
                 sb = exporter.exportMetricsByName(scope, metricName);
             } else {
                 responder.respondWith(404, "Metric " + scopePath + " not found", Collections.emptyMap());
@@ -215,6 +213,9 @@ public class MetricsRequestHandler {
                     } else {
                         return new JsonMetadataExporter();
                     }
+                } else if (mediaType.equals(APPLICATION_OPENMETRICS) && method.equals("GET")) {
+                    // only clients that ask for the OpenMetrics format itself get exemplars and the # EOF marker
+                    return new OpenMetricsExporter(true);
                 } else {
                     // This is the fallback, but only for GET, as OpenMetrics does not support OPTIONS
                     if (method.equals("GET")) {
@@ -259,7 +260,7 @@ public class MetricsRequestHandler {
                         }
                     }
                 }
-                WTTuple t = new WTTuple(prio, parts[0]);
+                WTTuple t = new WTTuple(prio, parts[0].trim());
                 tupleList.add(t);
             }
         });
@@ -294,7 +295,8 @@ public class MetricsRequestHandler {
     }
 
     private boolean isKnownMediaType(WTTuple tuple) {
-        return tuple.type.equals(TEXT_PLAIN) || tuple.type.equals(APPLICATION_JSON) || tuple.type.equals(STAR_STAR);
+        return tuple.type.equals(TEXT_PLAIN) || tuple.type.equals(APPLICATION_JSON)
+                || tuple.type.equals(APPLICATION_OPENMETRICS) || tuple.type.equals(STAR_STAR);
     }
 
     /**
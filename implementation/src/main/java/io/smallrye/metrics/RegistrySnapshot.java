@@ -0,0 +1,71 @@
+/*
+ * Copyright 2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.smallrye.metrics;
+
+import org.eclipse.microprofile.metrics.Metadata;
+import org.eclipse.microprofile.metrics.Metric;
+import org.eclipse.microprofile.metrics.MetricID;
+
+/**
+ * Immutable view of the contents of a {@link MetricsRegistryImpl} at one point in time, sorted by {@link MetricID}.
+ * Metrics with the same name are therefore always next to each other.
+ * <p>
+ * The snapshot holds references to the live metric instances, so the values read from them are always current;
+ * only the set of registered metrics is frozen. Snapshots are shared between callers and must not be modified.
+ */
+public final class RegistrySnapshot {
+
+    static final RegistrySnapshot EMPTY = new RegistrySnapshot(-1, new MetricID[0], new Metric[0], new Metadata[0]);
+
+    private final long version;
+    private final MetricID[] metricIDs;
+    private final Metric[] metrics;
+    private final Metadata[] metadata;
+
+    RegistrySnapshot(long version, MetricID[] metricIDs, Metric[] metrics, Metadata[] metadata) {
+        this.version = version;
+        this.metricIDs = metricIDs;
+        this.metrics = metrics;
+        this.metadata = metadata;
+    }
+
+    long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return metricIDs.length;
+    }
+
+    public boolean isEmpty() {
+        return metricIDs.length == 0;
+    }
+
+    public MetricID getMetricID(int index) {
+        return metricIDs[index];
+    }
+
+    public Metric getMetric(int index) {
+        return metrics[index];
+    }
+
+    public Metadata getMetadata(int index) {
+        return metadata[index];
+    }
+
+}
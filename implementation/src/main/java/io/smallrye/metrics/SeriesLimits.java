@@ -0,0 +1,83 @@
+/*
+ * Copyright 2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.smallrye.metrics;
+
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.ConfigProvider;
+
+/**
+ * Upper bounds on the number of series (distinct MetricIDs) a registry will hold, and on how long
+ * idle series are kept. A limit of zero or less means no limit.
+ */
+final class SeriesLimits {
+
+    // maximum number of series with the same metric name
+    static final String SMALLRYE_METRICS_MAX_SERIES_PER_NAME = "smallrye.metrics.maxSeriesPerName";
+    // maximum number of series in one registry
+    static final String SMALLRYE_METRICS_MAX_SERIES = "smallrye.metrics.maxSeries";
+    // number of seconds after which tagged series that haven't been updated are removed
+    static final String SMALLRYE_METRICS_SERIES_IDLE_TIMEOUT = "smallrye.metrics.seriesIdleTimeout";
+
+    static final SeriesLimits UNLIMITED = new SeriesLimits(0, 0);
+
+    private final int maxSeriesPerName;
+    private final int maxSeries;
+    private final long idleTimeoutSeconds;
+
+    SeriesLimits(int maxSeriesPerName, int maxSeries) {
+        this(maxSeriesPerName, maxSeries, 0);
+    }
+
+    SeriesLimits(int maxSeriesPerName, int maxSeries, long idleTimeoutSeconds) {
+        this.maxSeriesPerName = maxSeriesPerName;
+        this.maxSeries = maxSeries;
+        this.idleTimeoutSeconds = idleTimeoutSeconds;
+    }
+
+    static SeriesLimits fromConfig() {
+        try {
+            Config config = ConfigProvider.getConfig();
+            return new SeriesLimits(
+                    config.getOptionalValue(SMALLRYE_METRICS_MAX_SERIES_PER_NAME, Integer.class).orElse(0),
+                    config.getOptionalValue(SMALLRYE_METRICS_MAX_SERIES, Integer.class).orElse(0),
+                    config.getOptionalValue(SMALLRYE_METRICS_SERIES_IDLE_TIMEOUT, Long.class).orElse(0L));
+        } catch (IllegalStateException | ExceptionInInitializerError | NoClassDefFoundError t) {
+            // MP Config implementation is probably not available
+            return UNLIMITED;
+        }
+    }
+
+    boolean isUnlimited() {
+        return maxSeriesPerName <= 0 && maxSeries <= 0;
+    }
+
+    long getIdleTimeoutSeconds() {
+        return idleTimeoutSeconds;
+    }
+
+    /**
+     * @param seriesWithName number of series currently registered under the name of the new series
+     * @param series number of series currently registered in the registry
+     * @return true if adding another series would exceed one of the limits
+     */
+    boolean isReached(int seriesWithName, int series) {
+        return (maxSeriesPerName > 0 && seriesWithName >= maxSeriesPerName)
+                || (maxSeries > 0 && series >= maxSeries);
+    }
+
+}
@@ -70,6 +70,22 @@ public interface SmallRyeMetricsLogging {
     @Message(id = 1204, value = "Remove metadata for [name: %s]")
     void removeMetadata(String name);
 
+    @LogMessage(level = Logger.Level.DEBUG)
+    @Message(id = 1205, value = "Series limit reached, not registering metric [metricId: %s]")
+    void seriesLimitReached(MetricID metricID);
+
+    @LogMessage(level = Logger.Level.DEBUG)
+    @Message(id = 1206, value = "Removing idle metric [metricId: %s]")
+    void removingIdleMetric(MetricID metricID);
+
+    @LogMessage(level = Logger.Level.WARN)
+    @Message(id = 1207, value = "Unable to remove idle metrics")
+    void idleSeriesSweepFailed(@Cause Throwable cause);
+
+    @LogMessage(level = Logger.Level.WARN)
+    @Message(id = 1208, value = "Unable to advance the moving averages of a meter")
+    void meterTickFailed(@Cause Throwable cause);
+
     /* 1300-1399: exporter logs */
 
     @LogMessage(level = Logger.Level.DEBUG)
@@ -96,4 +96,19 @@ public interface SmallRyeMetricsMessages {
     @Message(id = 20, value = "Malformed object name")
     IllegalStateException malformedObjectName(@Cause MalformedObjectNameException cause);
 
+    @Message(id = 21, value = "Metric family %s has %d tag names, but %d tag values were given")
+    IllegalArgumentException tagValueCountMismatch(String name, int expected, int actual);
+
+    @Message(id = 22, value = "Unknown reservoir type %s for metric name pattern %s, expected one of %s")
+    IllegalArgumentException unknownReservoirType(String type, String pattern, String knownTypes);
+
+    @Message(id = 23, value = "Gauge %s already exists, but it is not a %s")
+    IllegalStateException gaugeOfDifferentKindExists(MetricID metricID, String kind);
+
+    @Message(id = 24, value = "Invalid histogram buckets '%s' for metric name pattern %s, expected a comma separated list of numbers")
+    IllegalArgumentException invalidHistogramBuckets(String value, String pattern);
+
+    @Message(id = 25, value = "Invalid reservoir parameter %s=%s for metric name pattern %s")
+    IllegalArgumentException invalidReservoirParameter(String parameter, Object value, String pattern);
+
 }
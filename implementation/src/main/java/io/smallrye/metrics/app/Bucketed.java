@@ -0,0 +1,30 @@
+/*
+ * Copyright 2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.smallrye.metrics.app;
+
+/**
+ * A metric that can count its values in {@link HistogramBuckets}, so that exporters can report it as a histogram with
+ * cumulative buckets rather than with quantiles.
+ */
+public interface Bucketed {
+
+    /**
+     * @return the buckets the values of the metric are counted in, or {@code null} if the metric has no buckets
+     */
+    HistogramBuckets getBuckets();
+
+}
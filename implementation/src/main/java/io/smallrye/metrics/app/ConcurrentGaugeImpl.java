@@ -32,100 +32,109 @@
 package io.smallrye.metrics.app;
 
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 import org.eclipse.microprofile.metrics.ConcurrentGauge;
 
 /**
+ * A concurrent gauge which tracks the current count and its extremes in the previous complete minute.
+ * <p>
+ * Neither incrementing nor decrementing locks. The extremes of each minute are accumulated with compare-and-set in
+ * a window tagged with its minute, which is replaced with a single compare-and-set when a new minute starts. A minute
+ * without any change has the count at that time as its minimum and maximum.
+ *
  * @author Jan Martiska
  */
 public class ConcurrentGaugeImpl implements ConcurrentGauge {
 
-    // current count of concurrent invocations
-    private final AtomicLong count;
+    private static final AtomicReferenceFieldUpdater<ConcurrentGaugeImpl, MinuteWindow> CURRENT = AtomicReferenceFieldUpdater
+            .newUpdater(ConcurrentGaugeImpl.class, MinuteWindow.class, "current");
 
-    // maximum count achieved in previous minute
-    private final AtomicLong max_previousMinute;
-    // minimum count achieved in previous minute
-    private final AtomicLong min_previousMinute;
+    private final Clock clock;
 
-    // maximum count achieved in this minute
-    private final AtomicLong max_thisMinute;
-    // minimum count achieved in this minute
-    private final AtomicLong min_thisMinute;
+    // current count of concurrent invocations
+    private final AtomicLong count;
 
-    // current timestamp rounded down to the last whole minute
-    private final AtomicLong thisMinute;
+    // the window of the latest minute in which the gauge was updated or read
+    private volatile MinuteWindow current;
 
     public ConcurrentGaugeImpl() {
-        count = new AtomicLong(0);
-        max_previousMinute = new AtomicLong(0);
-        min_previousMinute = new AtomicLong(0);
-        max_thisMinute = new AtomicLong(0);
-        min_thisMinute = new AtomicLong(0);
-        thisMinute = new AtomicLong(getCurrentMinuteFromSystem());
+        this(Clock.defaultClock());
+    }
+
+    /**
+     * @param clock the clock used to determine the current minute
+     */
+    public ConcurrentGaugeImpl(Clock clock) {
+        this.clock = clock;
+        this.count = new AtomicLong(0);
+        this.current = new MinuteWindow(getCurrentMinute(), 0, 0, null);
     }
 
     @Override
     public void inc() {
-        maybeStartNewMinute();
-        synchronized (this) {
-            long newCount = count.incrementAndGet();
-            if (newCount > max_thisMinute.get()) {
-                max_thisMinute.set(newCount);
-            }
-        }
+        // a new minute is started before the count changes, so that the count of the previous minute is known
+        long minute = getCurrentMinute();
+        window(minute);
+        long newCount = count.incrementAndGet();
+        window(minute).accumulateMax(newCount);
     }
 
     @Override
     public void dec() {
-        maybeStartNewMinute();
-        synchronized (this) {
-            long newCount = count.decrementAndGet();
-            if (newCount < min_thisMinute.get()) {
-                min_thisMinute.set(newCount);
-            }
-        }
+        long minute = getCurrentMinute();
+        window(minute);
+        long newCount = count.decrementAndGet();
+        window(minute).accumulateMin(newCount);
     }
 
     @Override
     public long getCount() {
-        maybeStartNewMinute();
         return count.get();
     }
 
     @Override
     public long getMax() {
-        maybeStartNewMinute();
-        return max_previousMinute.get();
+        long minute = getCurrentMinute();
+        MinuteWindow previous = window(minute).previousOf(minute);
+        return previous != null ? previous.max : 0;
     }
 
     @Override
     public long getMin() {
-        maybeStartNewMinute();
-        return min_previousMinute.get();
+        long minute = getCurrentMinute();
+        MinuteWindow previous = window(minute).previousOf(minute);
+        return previous != null ? previous.min : 0;
     }
 
     /*
-     * If a new minute has started, move the data for 'this' minute to 'previous' minute and start
-     * collecting new data for the 'this' minute
+     * If a new minute has started, replace the window of the current minute. The extremes of the new minute start
+     * at the current count.
      */
-    private void maybeStartNewMinute() {
-        long newMinute = getCurrentMinuteFromSystem();
-        if (newMinute > thisMinute.get()) {
-            synchronized (this) {
-                if (newMinute > thisMinute.get()) {
-                    thisMinute.set(newMinute);
-                    max_previousMinute.set(max_thisMinute.get());
-                    min_previousMinute.set(min_thisMinute.get());
-                    max_thisMinute.set(count.get());
-                    min_thisMinute.set(count.get());
-                }
+    private MinuteWindow window(long minute) {
+        MinuteWindow window = current;
+        while (window.minute < minute) {
+            long currentCount = count.get();
+            MinuteWindow previous;
+            if (window.minute == minute - 1) {
+                previous = window;
+            } else {
+                // nothing has changed since the window's minute, so the count was constant during the previous minute
+                previous = new MinuteWindow(minute - 1, currentCount, currentCount, null);
+            }
+            MinuteWindow next = new MinuteWindow(minute, currentCount, currentCount, previous);
+            if (CURRENT.compareAndSet(this, window, next)) {
+                // don't let the windows form an ever growing chain
+                window.previous = null;
+                return next;
             }
+            window = current;
         }
+        return window;
     }
 
-    // Get the current system time in minutes, truncating. This number will increase by 1 every complete minute.
-    private long getCurrentMinuteFromSystem() {
-        return System.currentTimeMillis() / 60000;
+    // Get the current time in minutes, truncating. This number will increase by 1 every complete minute.
+    private long getCurrentMinute() {
+        return clock.getTime() / 60000;
     }
 }
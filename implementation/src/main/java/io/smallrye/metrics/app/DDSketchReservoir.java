@@ -0,0 +1,582 @@
+/*
+ * Copyright 2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.smallrye.metrics.app;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.microprofile.metrics.Snapshot;
+
+/**
+ * A reservoir that counts every recorded value in logarithmically sized buckets, in the spirit of DDSketch.
+ * <p>
+ * A positive value {@code v} is counted in the bucket with index {@code ceil(log(v) / log(gamma))}, where
+ * {@code gamma = (1 + a) / (1 - a)} for the relative accuracy {@code a}. Every value in a bucket is reported as one
+ * value that is within the relative accuracy of all of them, so quantiles are accurate to the relative accuracy no
+ * matter how many values have been recorded. Negative values are counted the same way by their absolute value, in
+ * buckets that are only allocated when the first negative value is recorded. The buckets cover the whole range of
+ * {@code long}, so the memory used is bounded by the relative accuracy alone, about 17 KB for the default of 1%.
+ * Updates don't allocate or lock. The minimum, maximum and mean are exact.
+ * <p>
+ * Unlike the snapshots of sampling reservoirs, the {@link SketchSnapshot snapshots} of sketches with the same relative
+ * accuracy can be merged, and they can be serialized to a compact binary form. This allows combining the distributions
+ * of several instances without shipping the recorded values, with the same accuracy as if all values had been recorded
+ * in one sketch.
+ */
+public class DDSketchReservoir implements Reservoir {
+
+    private static final double DEFAULT_RELATIVE_ACCURACY = 0.01;
+    private static final double MIN_RELATIVE_ACCURACY = 0.0001;
+
+    private static final AtomicReferenceFieldUpdater<DDSketchReservoir, AtomicLongArray> NEGATIVE_COUNTS = AtomicReferenceFieldUpdater
+            .newUpdater(DDSketchReservoir.class, AtomicLongArray.class, "negativeCounts");
+
+    private final double relativeAccuracy;
+    private final double logGamma;
+    private final AtomicLongArray positiveCounts;
+    private volatile AtomicLongArray negativeCounts;
+    private final LongAdder zeroCount = new LongAdder();
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * Creates a reservoir with a relative accuracy of 1%.
+     */
+    public DDSketchReservoir() {
+        this(DEFAULT_RELATIVE_ACCURACY);
+    }
+
+    /**
+     * @param relativeAccuracy the relative accuracy of the quantiles, at least 0.0001 and less than 1. The number of
+     *        buckets is inversely proportional to it.
+     */
+    public DDSketchReservoir(double relativeAccuracy) {
+        this.logGamma = logGamma(relativeAccuracy);
+        this.relativeAccuracy = relativeAccuracy;
+        this.positiveCounts = new AtomicLongArray(bucketCount(logGamma));
+    }
+
+    static double logGamma(double relativeAccuracy) {
+        if (!(relativeAccuracy >= MIN_RELATIVE_ACCURACY && relativeAccuracy < 1)) {
+            throw new IllegalArgumentException(
+                    "relativeAccuracy must be at least " + MIN_RELATIVE_ACCURACY + " and less than 1: " + relativeAccuracy);
+        }
+        return Math.log((1 + relativeAccuracy) / (1 - relativeAccuracy));
+    }
+
+    static int bucketCount(double logGamma) {
+        return bucketIndex(Long.MAX_VALUE, logGamma) + 1;
+    }
+
+    static int bucketIndex(long absoluteValue, double logGamma) {
+        return (int) Math.ceil(Math.log(absoluteValue) / logGamma);
+    }
+
+    /**
+     * @return the relative accuracy of the quantiles
+     */
+    public double getRelativeAccuracy() {
+        return relativeAccuracy;
+    }
+
+    @Override
+    public int size() {
+        return (int) Math.min(count.sum(), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void update(long value) {
+        if (value > 0) {
+            positiveCounts.incrementAndGet(bucketIndex(value, logGamma));
+        } else if (value < 0) {
+            // the absolute value of Long.MIN_VALUE doesn't fit in a long, it's counted with Long.MAX_VALUE
+            negativeCounts().incrementAndGet(bucketIndex(value == Long.MIN_VALUE ? Long.MAX_VALUE : -value, logGamma));
+        } else {
+            zeroCount.increment();
+        }
+        count.increment();
+        sum.add(value);
+        updateMinMax(value, value);
+    }
+
+    private void updateMinMax(long newMin, long newMax) {
+        long current;
+        while (newMin < (current = min.get()) && !min.compareAndSet(current, newMin)) {
+            // retry
+        }
+        while (newMax > (current = max.get()) && !max.compareAndSet(current, newMax)) {
+            // retry
+        }
+    }
+
+    private AtomicLongArray negativeCounts() {
+        AtomicLongArray counts = negativeCounts;
+        if (counts == null) {
+            counts = new AtomicLongArray(positiveCounts.length());
+            if (!NEGATIVE_COUNTS.compareAndSet(this, null, counts)) {
+                counts = negativeCounts;
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Adds the values of a snapshot, for example one of another instance, to this reservoir.
+     *
+     * @param snapshot a snapshot of a sketch with the same relative accuracy
+     * @throws IllegalArgumentException if the snapshot has a different relative accuracy
+     */
+    public void merge(SketchSnapshot snapshot) {
+        checkSameAccuracy(relativeAccuracy, snapshot.relativeAccuracy);
+        if (snapshot.count == 0) {
+            return;
+        }
+        addCounts(positiveCounts, snapshot.positiveCounts);
+        if (snapshot.negativeCounts.length > 0) {
+            addCounts(negativeCounts(), snapshot.negativeCounts);
+        }
+        zeroCount.add(snapshot.zeroCount);
+        count.add(snapshot.count);
+        sum.add(snapshot.sum);
+        updateMinMax(snapshot.min, snapshot.max);
+    }
+
+    private static void addCounts(AtomicLongArray target, long[] counts) {
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                target.addAndGet(i, counts[i]);
+            }
+        }
+    }
+
+    private static void checkSameAccuracy(double relativeAccuracy, double otherRelativeAccuracy) {
+        if (Double.compare(relativeAccuracy, otherRelativeAccuracy) != 0) {
+            throw new IllegalArgumentException("Cannot merge sketches with different relative accuracies "
+                    + relativeAccuracy + " and " + otherRelativeAccuracy);
+        }
+    }
+
+    @Override
+    public SketchSnapshot getSnapshot() {
+        // the total is counted from the buckets, so that it's consistent with them while values are recorded
+        long[] positive = copyCounts(positiveCounts);
+        AtomicLongArray negative = negativeCounts;
+        long[] negativeCopy = negative != null ? copyCounts(negative) : new long[0];
+        long zeros = zeroCount.sum();
+        long total = zeros + total(positive) + total(negativeCopy);
+        if (total == 0) {
+            return new SketchSnapshot(relativeAccuracy, positive, negativeCopy, 0, 0, 0, 0, 0);
+        }
+        long lowest = min.get();
+        long highest = max.get();
+        double gamma = Math.exp(logGamma);
+        // the minimum and maximum are updated after the buckets, they may not be set yet for the counted values
+        if (lowest == Long.MAX_VALUE) {
+            if (negativeCopy.length > 0) {
+                lowest = -highestInBucket(negativeCopy.length - 1, gamma);
+            } else if (zeros > 0) {
+                lowest = 0;
+            } else {
+                lowest = lowestInBucket(firstNonEmpty(positive), gamma);
+            }
+        }
+        if (highest == Long.MIN_VALUE) {
+            if (positive.length > 0) {
+                highest = highestInBucket(positive.length - 1, gamma);
+            } else if (zeros > 0) {
+                highest = 0;
+            } else {
+                highest = -lowestInBucket(firstNonEmpty(negativeCopy), gamma);
+            }
+        }
+        return new SketchSnapshot(relativeAccuracy, positive, negativeCopy, zeros, total, sum.sum(), lowest, highest);
+    }
+
+    private static int firstNonEmpty(long[] counts) {
+        int index = 0;
+        while (counts[index] == 0) {
+            index++;
+        }
+        return index;
+    }
+
+    // the bucket holds the absolute values in (gamma^(index-1), gamma^index], the bounds are rounded outwards
+    private static long lowestInBucket(int index, double gamma) {
+        return Math.max(1, (long) Math.floor(Math.pow(gamma, index - 1)));
+    }
+
+    private static long highestInBucket(int index, double gamma) {
+        // the cast saturates at Long.MAX_VALUE for the last bucket
+        return (long) Math.ceil(Math.pow(gamma, index));
+    }
+
+    // copies the counts up to the last non-empty bucket
+    private static long[] copyCounts(AtomicLongArray counts) {
+        int length = 0;
+        long[] copy = new long[counts.length()];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = counts.get(i);
+            if (copy[i] != 0) {
+                length = i + 1;
+            }
+        }
+        return Arrays.copyOf(copy, length);
+    }
+
+    private static long total(long[] counts) {
+        long total = 0;
+        for (long bucketCount : counts) {
+            total += bucketCount;
+        }
+        return total;
+    }
+
+    /**
+     * A snapshot of a {@link DDSketchReservoir}. Each value in a bucket is reported as one value within the relative
+     * accuracy of the bucket, clamped to the exact minimum and maximum.
+     * <p>
+     * Snapshots can be {@link #merge(SketchSnapshot) merged} with snapshots of sketches with the same relative accuracy,
+     * and {@link #toByteArray() serialized}. The serialized form holds the relative accuracy, the count of zeros, the
+     * sum, minimum and maximum, and the index and count of each non-empty bucket, all as variable length integers.
+     */
+    public static class SketchSnapshot extends Snapshot {
+
+        private static final byte FORMAT_VERSION = 1;
+        private static final String INVALID_SERIALIZED_SKETCH = "Invalid serialized sketch";
+
+        private final double relativeAccuracy;
+        private final double gamma;
+        private final long[] positiveCounts;
+        private final long[] negativeCounts;
+        private final long zeroCount;
+        private final long count;
+        private final long sum;
+        private final long min;
+        private final long max;
+
+        SketchSnapshot(double relativeAccuracy, long[] positiveCounts, long[] negativeCounts, long zeroCount,
+                long count, long sum, long min, long max) {
+            this.relativeAccuracy = relativeAccuracy;
+            this.gamma = Math.exp(logGamma(relativeAccuracy));
+            this.positiveCounts = positiveCounts;
+            this.negativeCounts = negativeCounts;
+            this.zeroCount = zeroCount;
+            this.count = count;
+            this.sum = sum;
+            this.min = min;
+            this.max = max;
+        }
+
+        /**
+         * @return the relative accuracy of the quantiles
+         */
+        public double getRelativeAccuracy() {
+            return relativeAccuracy;
+        }
+
+        /**
+         * @return the sum of the recorded values
+         */
+        public long getSum() {
+            return sum;
+        }
+
+        /**
+         * Merges this snapshot with another one, as if the values of both had been recorded in one sketch.
+         *
+         * @param other a snapshot of a sketch with the same relative accuracy
+         * @return a new snapshot with the values of both
+         * @throws IllegalArgumentException if the other snapshot has a different relative accuracy
+         */
+        public SketchSnapshot merge(SketchSnapshot other) {
+            checkSameAccuracy(relativeAccuracy, other.relativeAccuracy);
+            if (other.count == 0) {
+                return this;
+            }
+            if (count == 0) {
+                return other;
+            }
+            return new SketchSnapshot(relativeAccuracy, add(positiveCounts, other.positiveCounts),
+                    add(negativeCounts, other.negativeCounts), zeroCount + other.zeroCount, count + other.count,
+                    sum + other.sum, Math.min(min, other.min), Math.max(max, other.max));
+        }
+
+        private static long[] add(long[] counts, long[] otherCounts) {
+            long[] result = Arrays.copyOf(counts, Math.max(counts.length, otherCounts.length));
+            for (int i = 0; i < otherCounts.length; i++) {
+                result[i] += otherCounts[i];
+            }
+            return result;
+        }
+
+        /**
+         * Serializes the snapshot, it can be read back with {@link #fromByteArray(byte[])}.
+         *
+         * @return the serialized snapshot
+         */
+        public byte[] toByteArray() {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(32);
+            out.write(FORMAT_VERSION);
+            long accuracyBits = Double.doubleToLongBits(relativeAccuracy);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                out.write((int) (accuracyBits >>> shift));
+            }
+            writeVarLong(out, zeroCount);
+            writeVarLong(out, zigZag(sum));
+            writeVarLong(out, zigZag(min));
+            writeVarLong(out, zigZag(max));
+            writeCounts(out, positiveCounts);
+            writeCounts(out, negativeCounts);
+            return out.toByteArray();
+        }
+
+        /**
+         * Reads a snapshot serialized by {@link #toByteArray()}.
+         *
+         * @param bytes the serialized snapshot
+         * @return the snapshot
+         * @throws IllegalArgumentException if the bytes are not a valid serialized snapshot
+         */
+        public static SketchSnapshot fromByteArray(byte[] bytes) {
+            try {
+                ByteBuffer in = ByteBuffer.wrap(bytes);
+                if (in.get() != FORMAT_VERSION) {
+                    throw new IllegalArgumentException(INVALID_SERIALIZED_SKETCH);
+                }
+                double relativeAccuracy = in.getDouble();
+                int bucketCount = bucketCount(logGamma(relativeAccuracy));
+                long zeroCount = readVarLong(in);
+                long sum = unZigZag(readVarLong(in));
+                long min = unZigZag(readVarLong(in));
+                long max = unZigZag(readVarLong(in));
+                long[] positiveCounts = readCounts(in, bucketCount);
+                long[] negativeCounts = readCounts(in, bucketCount);
+                if (in.hasRemaining()) {
+                    throw new IllegalArgumentException(INVALID_SERIALIZED_SKETCH);
+                }
+                long count = zeroCount + total(positiveCounts) + total(negativeCounts);
+                return new SketchSnapshot(relativeAccuracy, positiveCounts, negativeCounts, zeroCount, count, sum, min,
+                        max);
+            } catch (BufferUnderflowException | IllegalArgumentException e) {
+                throw new IllegalArgumentException(INVALID_SERIALIZED_SKETCH, e);
+            }
+        }
+
+        // the number of non-empty buckets, then the distance to the previous non-empty bucket and the count of each
+        private static void writeCounts(ByteArrayOutputStream out, long[] counts) {
+            int nonEmpty = 0;
+            for (long bucketCount : counts) {
+                if (bucketCount != 0) {
+                    nonEmpty++;
+                }
+            }
+            writeVarLong(out, nonEmpty);
+            int previous = -1;
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] != 0) {
+                    writeVarLong(out, i - previous);
+                    writeVarLong(out, counts[i]);
+                    previous = i;
+                }
+            }
+        }
+
+        private static long[] readCounts(ByteBuffer in, int bucketCount) {
+            long nonEmpty = readVarLong(in);
+            if (nonEmpty < 0 || nonEmpty > bucketCount) {
+                throw new IllegalArgumentException(INVALID_SERIALIZED_SKETCH);
+            }
+            int[] indexes = new int[(int) nonEmpty];
+            long[] bucketCounts = new long[(int) nonEmpty];
+            long index = -1;
+            for (int i = 0; i < nonEmpty; i++) {
+                long distance = readVarLong(in);
+                index += distance;
+                bucketCounts[i] = readVarLong(in);
+                if (distance <= 0 || index >= bucketCount || bucketCounts[i] <= 0) {
+                    throw new IllegalArgumentException(INVALID_SERIALIZED_SKETCH);
+                }
+                indexes[i] = (int) index;
+            }
+            long[] counts = new long[nonEmpty == 0 ? 0 : indexes[indexes.length - 1] + 1];
+            for (int i = 0; i < indexes.length; i++) {
+                counts[indexes[i]] = bucketCounts[i];
+            }
+            return counts;
+        }
+
+        private static void writeVarLong(ByteArrayOutputStream out, long value) {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.write((int) value);
+        }
+
+        private static long readVarLong(ByteBuffer in) {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = in.get();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException(INVALID_SERIALIZED_SKETCH);
+        }
+
+        private static long zigZag(long value) {
+            return (value << 1) ^ (value >> 63);
+        }
+
+        private static long unZigZag(long value) {
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        @Override
+        public double getValue(double quantile) {
+            if (quantile < 0.0 || quantile > 1.0 || Double.isNaN(quantile)) {
+                throw new IllegalArgumentException(quantile + " is not in [0..1]");
+            }
+            if (count == 0) {
+                return 0.0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(quantile * count));
+            long seen = 0;
+            // the most negative values are in the last negative buckets
+            for (int i = negativeCounts.length - 1; i >= 0; i--) {
+                seen += negativeCounts[i];
+                if (seen >= rank) {
+                    return negativeValueOfBucket(i);
+                }
+            }
+            seen += zeroCount;
+            if (seen >= rank) {
+                return 0;
+            }
+            for (int i = 0; i < positiveCounts.length; i++) {
+                seen += positiveCounts[i];
+                if (seen >= rank) {
+                    return valueOfBucket(i, min, max);
+                }
+            }
+            return max;
+        }
+
+        private double negativeValueOfBucket(int index) {
+            return -valueOfBucket(index, -(double) max, -(double) min);
+        }
+
+        // the value reported for the values in the bucket, which have absolute values in (gamma^(index-1), gamma^index]
+        private double valueOfBucket(int index, double lowest, double highest) {
+            double value = Math.pow(gamma, index) * (1 - relativeAccuracy);
+            return Math.max(lowest, Math.min(highest, value));
+        }
+
+        /**
+         * Returns one value for each non-empty bucket, rounded to a whole number, in ascending order. Unlike a sampling
+         * reservoir, this one doesn't keep the individual values.
+         */
+        @Override
+        public long[] getValues() {
+            long[] values = new long[negativeCounts.length + 1 + positiveCounts.length];
+            int n = 0;
+            for (int i = negativeCounts.length - 1; i >= 0; i--) {
+                if (negativeCounts[i] > 0) {
+                    values[n++] = Math.round(negativeValueOfBucket(i));
+                }
+            }
+            if (zeroCount > 0) {
+                values[n++] = 0;
+            }
+            for (int i = 0; i < positiveCounts.length; i++) {
+                if (positiveCounts[i] > 0) {
+                    values[n++] = Math.round(valueOfBucket(i, min, max));
+                }
+            }
+            return Arrays.copyOf(values, n);
+        }
+
+        /**
+         * Returns the number of values recorded in the snapshot.
+         */
+        @Override
+        public int size() {
+            return (int) Math.min(count, Integer.MAX_VALUE);
+        }
+
+        @Override
+        public long getMax() {
+            return max;
+        }
+
+        @Override
+        public double getMean() {
+            // the sum may include values that are not counted in the buckets yet
+            return count == 0 ? 0 : Math.max(min, Math.min(max, sum / (double) count));
+        }
+
+        @Override
+        public long getMin() {
+            return min;
+        }
+
+        @Override
+        public double getStdDev() {
+            if (count <= 1) {
+                return 0;
+            }
+            double mean = getMean();
+            double variance = zeroCount * mean * mean;
+            for (int i = 0; i < negativeCounts.length; i++) {
+                if (negativeCounts[i] > 0) {
+                    double diff = negativeValueOfBucket(i) - mean;
+                    variance += negativeCounts[i] * diff * diff;
+                }
+            }
+            for (int i = 0; i < positiveCounts.length; i++) {
+                if (positiveCounts[i] > 0) {
+                    double diff = valueOfBucket(i, min, max) - mean;
+                    variance += positiveCounts[i] * diff * diff;
+                }
+            }
+            return Math.sqrt(variance / count);
+        }
+
+        @Override
+        public void dump(OutputStream output) {
+            try (PrintWriter out = new PrintWriter(new OutputStreamWriter(output, UTF_8))) {
+                for (long value : getValues()) {
+                    out.printf("%d%n", value);
+                }
+            }
+        }
+    }
+}
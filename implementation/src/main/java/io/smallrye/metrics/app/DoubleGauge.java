@@ -0,0 +1,40 @@
+/*
+ * Copyright 2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.smallrye.metrics.app;
+
+import org.eclipse.microprofile.metrics.Gauge;
+
+/**
+ * A gauge with a {@code double} value. Exporters read the primitive value, so exporting it doesn't box the value.
+ *
+ * @see io.smallrye.metrics.MetricsRegistryImpl#doubleGauge(org.eclipse.microprofile.metrics.Metadata, Object,
+ *      java.util.function.ToDoubleFunction, org.eclipse.microprofile.metrics.Tag...)
+ */
+@FunctionalInterface
+public interface DoubleGauge extends Gauge<Double> {
+
+    /**
+     * @return the current value of the gauge
+     */
+    double getDoubleValue();
+
+    @Override
+    default Double getValue() {
+        return getDoubleValue();
+    }
+
+}
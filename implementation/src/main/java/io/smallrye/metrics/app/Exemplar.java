@@ -0,0 +1,62 @@
+/*
+ * Copyright 2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.smallrye.metrics.app;
+
+import java.util.Map;
+
+/**
+ * A recorded value together with labels that link it to the context it was recorded in, such as the ID of the trace
+ * of a request.
+ *
+ * @see ExemplarSampler
+ */
+public final class Exemplar {
+
+    private final long value;
+    private final long timestamp;
+    private final Map<String, String> labels;
+
+    /**
+     * @param value the recorded value, in the unit the metric records values in
+     * @param timestamp the time the value was recorded at, in milliseconds since the epoch
+     * @param labels the labels of the exemplar
+     */
+    public Exemplar(long value, long timestamp, Map<String, String> labels) {
+        this.value = value;
+        this.timestamp = timestamp;
+        this.labels = labels;
+    }
+
+    /**
+     * @return the recorded value, in the unit the metric records values in
+     */
+    public long getValue() {
+        return value;
+    }
+
+    /**
+     * @return the time the value was recorded at, in milliseconds since the epoch
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public Map<String, String> getLabels() {
+        return labels;
+    }
+
+}
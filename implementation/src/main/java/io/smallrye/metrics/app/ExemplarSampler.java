@@ -0,0 +1,103 @@
+/*
+ * Copyright 2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.smallrye.metrics.app;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides how often exemplars are captured and creates them from the labels of an {@link ExemplarSupplier}.
+ * <p>
+ * A {@link HistogramBuckets} asks for a new exemplar of a bucket at most once per sampling interval, so that recording
+ * a value only occasionally pays for calling the supplier, and the exemplar of a bucket is replaced by a more recent one
+ * once it's older than the interval. Exemplars whose labels are longer than the 128 characters OpenMetrics allows are
+ * dropped.
+ * <p>
+ * A bucket that stops receiving values would otherwise keep its last exemplar forever, so exemplars older than a maximum
+ * age are no longer reported.
+ */
+public class ExemplarSampler {
+
+    static final int MAX_LABELS_LENGTH = 128;
+
+    static final long DEFAULT_MAX_AGE_MILLIS = 60_000;
+
+    private final ExemplarSupplier supplier;
+    private final long intervalMillis;
+    private final long maxAgeMillis;
+    private final Clock clock;
+
+    /**
+     * Creates a sampler whose exemplars are reported for at most a minute.
+     *
+     * @param supplier provides the labels of the exemplars
+     * @param interval the minimum time between two exemplars of the same bucket
+     * @param unit the unit of the interval
+     */
+    public ExemplarSampler(ExemplarSupplier supplier, long interval, TimeUnit unit) {
+        this(supplier, unit.toMillis(interval), DEFAULT_MAX_AGE_MILLIS, Clock.defaultClock());
+    }
+
+    /**
+     * @param supplier provides the labels of the exemplars
+     * @param interval the minimum time between two exemplars of the same bucket
+     * @param maxAge the time after which an exemplar is no longer reported
+     * @param unit the unit of the interval and the maximum age
+     */
+    public ExemplarSampler(ExemplarSupplier supplier, long interval, long maxAge, TimeUnit unit) {
+        this(supplier, unit.toMillis(interval), unit.toMillis(maxAge), Clock.defaultClock());
+    }
+
+    ExemplarSampler(ExemplarSupplier supplier, long intervalMillis, long maxAgeMillis, Clock clock) {
+        this.supplier = supplier;
+        this.intervalMillis = intervalMillis;
+        this.maxAgeMillis = maxAgeMillis;
+        this.clock = clock;
+    }
+
+    long currentTimeMillis() {
+        return clock.getTime();
+    }
+
+    long getIntervalMillis() {
+        return intervalMillis;
+    }
+
+    boolean isExpired(Exemplar exemplar, long now) {
+        return now - exemplar.getTimestamp() > maxAgeMillis;
+    }
+
+    /**
+     * @return an exemplar for the value, or {@code null} if the supplier has no labels for the current context
+     */
+    Exemplar sample(long value, long timestamp) {
+        Map<String, String> labels = supplier.getLabels();
+        if (labels == null || labels.isEmpty() || labelsLength(labels) > MAX_LABELS_LENGTH) {
+            return null;
+        }
+        return new Exemplar(value, timestamp, labels);
+    }
+
+    private static int labelsLength(Map<String, String> labels) {
+        int length = 0;
+        for (Map.Entry<String, String> label : labels.entrySet()) {
+            length += label.getKey().length() + label.getValue().length();
+        }
+        return length;
+    }
+
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.smallrye.metrics.app;
+
+import java.util.Map;
+
+/**
+ * Provides the labels of exemplars, usually the ID of the trace of the current request. Implementations can be
+ * registered through the {@link java.util.ServiceLoader} mechanism, the first one found is used for the metrics with
+ * histogram buckets.
+ */
+@FunctionalInterface
+public interface ExemplarSupplier {
+
+    /**
+     * Called on the thread that records a value, at most once per bucket and sampling interval.
+     *
+     * @return the labels of an exemplar for the current context, or {@code null} if there is nothing to link the
+     *         value to
+     */
+    Map<String, String> getLabels();
+
+}
@@ -34,12 +34,11 @@ package io.smallrye.metrics.app;
 import static java.lang.Math.exp;
 import static java.lang.Math.min;
 
-import java.util.ArrayList;
-import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.Arrays;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.eclipse.microprofile.metrics.Snapshot;
 
@@ -47,6 +46,13 @@ import org.eclipse.microprofile.metrics.Snapshot;
  * An exponentially-decaying random reservoir of {@code long}s. Uses Cormode et al's
  * forward-decaying priority reservoir sampling method to produce a statistically representative
  * sampling reservoir, exponentially biased towards newer entries.
+ * <p>
+ * The samples are kept in a min-heap ordered by priority, stored in parallel primitive arrays that grow up to the size
+ * of the reservoir as samples come in, so that rarely updated histograms stay small. Updates don't touch
+ * the heap directly: they are staged in small buffers, one of several stripes selected by the current thread,
+ * and merged into the heap when a buffer is full, on {@link #getSnapshot()} and on rescaling. The weight of a staged
+ * value is only computed when it's merged, so that it's always relative to the current landmark. Once the reservoir
+ * is full, values whose priority is too low to ever enter the heap are dropped without being staged.
  *
  * @see <a href="http://dimacs.rutgers.edu/~graham/pubs/papers/fwddecay.pdf">
  *      Cormode et al. Forward Decay: A Practical Time Decay Model for Streaming Systems. ICDE '09:
@@ -56,16 +62,32 @@ public class ExponentiallyDecayingReservoir implements Reservoir {
     private static final int DEFAULT_SIZE = 1028;
     private static final double DEFAULT_ALPHA = 0.015;
     private static final long RESCALE_THRESHOLD = TimeUnit.HOURS.toNanos(1);
+    private static final int STAGING_CAPACITY = 32;
+    private static final int MAX_STRIPES = 16;
+    private static final int INITIAL_CAPACITY = 32;
 
-    private final ConcurrentSkipListMap<Double, WeightedSnapshot.WeightedSample> values;
-    private final ReentrantReadWriteLock lock;
     private final double alpha;
     private final int size;
-    private final AtomicLong count;
+    private final LongAdder count;
     private volatile long startTime;
     private final AtomicLong nextScaleTime;
     private final Clock clock;
 
+    // min-heap of samples ordered by priority, guarded by the lock on this reservoir, grown up to size as it fills
+    private double[] priorities;
+    private double[] weights;
+    private long[] values;
+    private int heapSize;
+
+    /*
+     * lowest priority a new sample must exceed to have a chance of entering the heap, zero while the heap is not full.
+     * Always written before startTime during a rescale, and read after it during an update, so that a sample
+     * weighted against a new landmark is never compared with a threshold that has not been rescaled yet.
+     */
+    private volatile double threshold;
+
+    private final Stripe[] stripes;
+
     /**
      * Creates a new {@link ExponentiallyDecayingReservoir} of 1028 elements, which offers a 99.9%
      * confidence level with a 5% margin of error assuming a normal distribution, and an alpha
@@ -95,19 +117,23 @@ public class ExponentiallyDecayingReservoir implements Reservoir {
      * @param clock the clock used to timestamp samples and track rescaling
      */
     public ExponentiallyDecayingReservoir(int size, double alpha, Clock clock) {
-        this.values = new ConcurrentSkipListMap<>();
-        this.lock = new ReentrantReadWriteLock();
         this.alpha = alpha;
         this.size = size;
         this.clock = clock;
-        this.count = new AtomicLong(0);
+        this.count = new LongAdder();
+        int capacity = Math.min(size, INITIAL_CAPACITY);
+        this.priorities = new double[capacity];
+        this.weights = new double[capacity];
+        this.values = new long[capacity];
         this.startTime = currentTimeInSeconds();
         this.nextScaleTime = new AtomicLong(clock.getTick() + RESCALE_THRESHOLD);
+        int processors = Runtime.getRuntime().availableProcessors();
+        this.stripes = new Stripe[Math.min(MAX_STRIPES, Integer.highestOneBit(Math.max(1, processors - 1) << 1))];
     }
 
     @Override
     public int size() {
-        return (int) min(size, count.get());
+        return (int) min(size, count.sum());
     }
 
     @Override
@@ -123,27 +149,44 @@ public class ExponentiallyDecayingReservoir implements Reservoir {
      */
     public void update(long value, long timestamp) {
         rescaleIfNeeded();
-        lockForRegularUsage();
-        try {
-            final double itemWeight = weight(timestamp - startTime);
-            final WeightedSnapshot.WeightedSample sample = new WeightedSnapshot.WeightedSample(value, itemWeight);
-            final double priority = itemWeight / ThreadLocalRandom.current().nextDouble();
-
-            final long newCount = count.incrementAndGet();
-            if (newCount <= size) {
-                values.put(priority, sample);
-            } else {
-                Double first = values.firstKey();
-                if (first < priority && values.putIfAbsent(priority, sample) == null) {
-                    // ensure we always remove an item
-                    while (values.remove(first) == null) {
-                        first = values.firstKey();
-                    }
+        count.increment();
+        final double random = ThreadLocalRandom.current().nextDouble();
+        final long landmark = startTime;
+        final double currentThreshold = threshold;
+        if (currentThreshold > 0 && weight(timestamp - landmark) / random <= currentThreshold) {
+            // the heap is full and this sample would not make it in
+            return;
+        }
+
+        Stripe stripe = stripe();
+        while (true) {
+            boolean added;
+            synchronized (stripe) {
+                added = stripe.add(value, timestamp, random);
+            }
+            if (added) {
+                return;
+            }
+            // the buffer is full, merge it into the heap and try again
+            synchronized (this) {
+                drain(stripe);
+            }
+        }
+    }
+
+    private Stripe stripe() {
+        int index = (int) Thread.currentThread().getId() & (stripes.length - 1);
+        Stripe stripe = stripes[index];
+        if (stripe == null) {
+            synchronized (stripes) {
+                stripe = stripes[index];
+                if (stripe == null) {
+                    stripe = new Stripe();
+                    stripes[index] = stripe;
                 }
             }
-        } finally {
-            unlockForRegularUsage();
         }
+        return stripe;
     }
 
     private void rescaleIfNeeded() {
@@ -157,12 +200,15 @@ public class ExponentiallyDecayingReservoir implements Reservoir {
     @Override
     public Snapshot getSnapshot() {
         rescaleIfNeeded();
-        lockForRegularUsage();
-        try {
-            return new WeightedSnapshot(values.values());
-        } finally {
-            unlockForRegularUsage();
+        long[] sampleValues;
+        double[] sampleWeights;
+        synchronized (this) {
+            drainAll();
+            sampleValues = Arrays.copyOf(values, heapSize);
+            sampleWeights = Arrays.copyOf(weights, heapSize);
         }
+        // sorted outside of the lock, the copies are handed over to the snapshot
+        return new WeightedSnapshot(sampleValues, sampleWeights);
     }
 
     private long currentTimeInSeconds() {
@@ -173,6 +219,93 @@ public class ExponentiallyDecayingReservoir implements Reservoir {
         return exp(alpha * t);
     }
 
+    // must hold the lock on this reservoir
+    private void drainAll() {
+        for (Stripe stripe : stripes) {
+            if (stripe != null) {
+                drain(stripe);
+            }
+        }
+    }
+
+    // must hold the lock on this reservoir
+    private void drain(Stripe stripe) {
+        synchronized (stripe) {
+            final long landmark = startTime;
+            for (int i = 0; i < stripe.size; i++) {
+                final double itemWeight = weight(stripe.timestamps[i] - landmark);
+                offer(stripe.values[i], itemWeight, itemWeight / stripe.randoms[i]);
+            }
+            stripe.size = 0;
+        }
+        if (heapSize == size) {
+            threshold = priorities[0];
+        }
+    }
+
+    // must hold the lock on this reservoir
+    private void offer(long value, double weight, double priority) {
+        if (heapSize < size) {
+            if (heapSize == values.length) {
+                grow();
+            }
+            int i = heapSize++;
+            set(i, priority, weight, value);
+            siftUp(i);
+        } else if (priority > priorities[0]) {
+            set(0, priority, weight, value);
+            siftDown(0);
+        }
+    }
+
+    // must hold the lock on this reservoir
+    private void grow() {
+        int capacity = (int) Math.min(size, 2L * values.length);
+        priorities = Arrays.copyOf(priorities, capacity);
+        weights = Arrays.copyOf(weights, capacity);
+        values = Arrays.copyOf(values, capacity);
+    }
+
+    private void set(int i, double priority, double weight, long value) {
+        priorities[i] = priority;
+        weights[i] = weight;
+        values[i] = value;
+    }
+
+    private void swap(int i, int j) {
+        double priority = priorities[i];
+        double weight = weights[i];
+        long value = values[i];
+        set(i, priorities[j], weights[j], values[j]);
+        set(j, priority, weight, value);
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (priorities[parent] <= priorities[i]) {
+                return;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= heapSize) {
+                return;
+            }
+            int smallest = left + 1 < heapSize && priorities[left + 1] < priorities[left] ? left + 1 : left;
+            if (priorities[i] <= priorities[smallest]) {
+                return;
+            }
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+
     /*
      * "A common feature of the above techniques—indeed, the key technique that
      * allows us to track the decayed weights efficiently—is that they maintain
@@ -193,48 +326,64 @@ public class ExponentiallyDecayingReservoir implements Reservoir {
      * a linear pass over whatever data structure is being used."
      */
     private void rescale(long now, long next) {
-        lockForRescale();
-        try {
+        synchronized (this) {
             if (nextScaleTime.compareAndSet(next, now + RESCALE_THRESHOLD)) {
+                // staged samples are weighted against the landmark that is current when they are drained,
+                // so the existing samples are brought up to date before the landmark moves
+                drainAll();
+                threshold = 0;
                 final long oldStartTime = startTime;
                 this.startTime = currentTimeInSeconds();
                 final double scalingFactor = exp(-alpha * (startTime - oldStartTime));
-                if (Double.compare(scalingFactor, 0) == 0) {
-                    values.clear();
-                } else {
-                    final ArrayList<Double> keys = new ArrayList<>(values.keySet());
-                    for (Double key : keys) {
-                        final WeightedSnapshot.WeightedSample sample = values.remove(key);
-                        final WeightedSnapshot.WeightedSample newSample = new WeightedSnapshot.WeightedSample(sample.value,
-                                sample.weight * scalingFactor);
-                        if (Double.compare(newSample.weight, 0) == 0) {
+                int retained = 0;
+                if (Double.compare(scalingFactor, 0) != 0) {
+                    for (int i = 0; i < heapSize; i++) {
+                        final double newWeight = weights[i] * scalingFactor;
+                        if (Double.compare(newWeight, 0) == 0) {
                             continue;
                         }
-                        values.put(key * scalingFactor, newSample);
+                        set(retained++, priorities[i] * scalingFactor, newWeight, values[i]);
                     }
                 }
+                // scaling preserves the order of the priorities, but dropping samples does not preserve the heap
+                heapSize = retained;
+                for (int i = (heapSize >>> 1) - 1; i >= 0; i--) {
+                    siftDown(i);
+                }
+                if (heapSize == size) {
+                    threshold = priorities[0];
+                }
 
                 // make sure the counter is in sync with the number of stored samples.
-                count.set(values.size());
+                count.reset();
+                count.add(heapSize);
             }
-        } finally {
-            unlockForRescale();
         }
     }
 
-    private void unlockForRescale() {
-        lock.writeLock().unlock();
-    }
-
-    private void lockForRescale() {
-        lock.writeLock().lock();
-    }
+    /**
+     * Buffer of samples recorded by the threads mapped to one stripe, waiting to be merged into the heap.
+     * Guarded by its own lock.
+     */
+    private static final class Stripe {
 
-    private void lockForRegularUsage() {
-        lock.readLock().lock();
-    }
+        private final long[] values = new long[STAGING_CAPACITY];
+        private final long[] timestamps = new long[STAGING_CAPACITY];
+        private final double[] randoms = new double[STAGING_CAPACITY];
+        private int size;
 
-    private void unlockForRegularUsage() {
-        lock.readLock().unlock();
+        /**
+         * @return false if the buffer is full and has to be drained before the sample can be added
+         */
+        boolean add(long value, long timestamp, double random) {
+            if (size == STAGING_CAPACITY) {
+                return false;
+            }
+            values[size] = value;
+            timestamps[size] = timestamp;
+            randoms[size] = random;
+            size++;
+            return true;
+        }
     }
 }
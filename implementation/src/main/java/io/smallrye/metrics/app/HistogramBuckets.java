@@ -0,0 +1,144 @@
+/*
+ * Copyright 2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.smallrye.metrics.app;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Counts recorded values in buckets with fixed upper bounds, the way an OpenMetrics {@code histogram} reports them.
+ * Unlike the quantiles of a snapshot, the bucket counts of several instances can be aggregated by adding them up.
+ * <p>
+ * Recording a value is a binary search over the upper bounds plus an atomic increment, it doesn't lock or allocate.
+ * A value falls into the first bucket whose upper bound is greater than or equal to the value, values greater than all
+ * upper bounds fall into an additional last bucket.
+ * <p>
+ * With an {@link ExemplarSampler}, each bucket also keeps an exemplar of a recent value, which links the bucket to
+ * a concrete request. The sampler is consulted at most once per bucket and sampling interval, whoever records a value
+ * in the bucket first after the interval has passed wins the right to sample it.
+ */
+public class HistogramBuckets {
+
+    private final long[] upperBounds;
+
+    // one count per upper bound plus one for the values above the greatest upper bound
+    private final AtomicLongArray counts;
+
+    // the following are null without a sampler
+    private final ExemplarSampler exemplarSampler;
+    private final AtomicReferenceArray<Exemplar> exemplars;
+    // the time in milliseconds after which the next exemplar of each bucket may be sampled
+    private final AtomicLongArray nextSamplingTimes;
+
+    /**
+     * @param upperBounds the upper bounds of the buckets, inclusive, in the unit the values are recorded in. They are
+     *        sorted and duplicates are removed.
+     */
+    public HistogramBuckets(long... upperBounds) {
+        this(null, upperBounds);
+    }
+
+    /**
+     * @param exemplarSampler samples the exemplars of the buckets, or {@code null} to keep no exemplars
+     * @param upperBounds the upper bounds of the buckets, inclusive, in the unit the values are recorded in. They are
+     *        sorted and duplicates are removed.
+     */
+    public HistogramBuckets(ExemplarSampler exemplarSampler, long... upperBounds) {
+        this.upperBounds = Arrays.stream(upperBounds).sorted().distinct().toArray();
+        this.counts = new AtomicLongArray(this.upperBounds.length + 1);
+        this.exemplarSampler = exemplarSampler;
+        this.exemplars = exemplarSampler != null ? new AtomicReferenceArray<>(counts.length()) : null;
+        this.nextSamplingTimes = exemplarSampler != null ? new AtomicLongArray(counts.length()) : null;
+    }
+
+    /**
+     * Counts a value in its bucket.
+     *
+     * @param value the recorded value
+     */
+    public void record(long value) {
+        int index = Arrays.binarySearch(upperBounds, value);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        counts.incrementAndGet(index);
+        if (exemplarSampler != null) {
+            sampleExemplar(index, value);
+        }
+    }
+
+    private void sampleExemplar(int index, long value) {
+        long now = exemplarSampler.currentTimeMillis();
+        long next = nextSamplingTimes.get(index);
+        if (now >= next && nextSamplingTimes.compareAndSet(index, next, now + exemplarSampler.getIntervalMillis())) {
+            Exemplar exemplar = exemplarSampler.sample(value, now);
+            if (exemplar != null) {
+                exemplars.set(index, exemplar);
+            }
+        }
+    }
+
+    /**
+     * Returns the latest exemplar of each bucket, the array has one element per bucket including the last one without
+     * an upper bound. Elements are {@code null} for buckets without an exemplar, or whose exemplar is older than the
+     * maximum age of the {@link ExemplarSampler}.
+     *
+     * @return the exemplars of the buckets
+     */
+    public Exemplar[] getExemplars() {
+        Exemplar[] result = new Exemplar[counts.length()];
+        if (exemplars != null) {
+            long now = exemplarSampler.currentTimeMillis();
+            for (int i = 0; i < result.length; i++) {
+                Exemplar exemplar = exemplars.get(i);
+                if (exemplar != null && exemplarSampler.isExpired(exemplar, now)) {
+                    // a newer exemplar may have been sampled in the meantime, it is kept
+                    exemplars.compareAndSet(i, exemplar, null);
+                    exemplar = null;
+                }
+                result[i] = exemplar;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the sorted upper bounds of the buckets, not including the implicit last bucket without an upper bound
+     */
+    public long[] getUpperBounds() {
+        return upperBounds.clone();
+    }
+
+    /**
+     * Returns the cumulative counts, the element at index {@code i} is the number of values less than or equal to the
+     * upper bound at index {@code i}. The array has one more element than there are upper bounds, the last one is the
+     * number of all recorded values.
+     *
+     * @return the cumulative counts of the buckets
+     */
+    public long[] getCumulativeCounts() {
+        long[] cumulative = new long[counts.length()];
+        long total = 0;
+        for (int i = 0; i < cumulative.length; i++) {
+            total += counts.get(i);
+            cumulative[i] = total;
+        }
+        return cumulative;
+    }
+
+}
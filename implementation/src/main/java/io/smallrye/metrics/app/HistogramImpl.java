@@ -38,14 +38,28 @@ import org.eclipse.microprofile.metrics.Snapshot;
 
 /**
  * A metric which calculates the distribution of a value.
+ * <p>
+ * The last snapshot is kept and returned again as long as no value has been recorded since and it's not older than
+ * a maximum age, one second by default. For the metrics created by the registry, it's configured with
+ * {@value MetricSettings#SMALLRYE_METRICS_SNAPSHOT_MAX_AGE} in milliseconds (0 disables the caching).
+ * This way, several exporters reading the histogram in short succession don't each have to copy and sort the
+ * reservoir. The maximum age
+ * bounds how long changes that don't come from new values, such as values decaying or leaving a time window,
+ * go unnoticed.
  *
  * @see <a href="http://www.johndcook.com/standard_deviation.html">Accurately computing running
  *      variance</a>
  */
-public class HistogramImpl implements Histogram {
+public class HistogramImpl implements Histogram, Bucketed, WithRollingMax {
+
     private final Reservoir reservoir;
     private final LongAdder count;
     private final LongAdder sum;
+    private final Clock clock;
+    private final long snapshotMaxAgeNanos;
+    private final HistogramBuckets buckets;
+    private final RollingMax rollingMax;
+    private volatile CachedSnapshot cachedSnapshot;
 
     /**
      * Creates a new {@link HistogramImpl} with the given reservoir.
@@ -53,9 +67,28 @@ public class HistogramImpl implements Histogram {
      * @param reservoir the reservoir to create a histogram from
      */
     public HistogramImpl(Reservoir reservoir) {
+        this(reservoir, Clock.defaultClock(), null, null, MetricSettings.DEFAULTS);
+    }
+
+    /**
+     * Use {@link MetricSettings#newHistogram(Reservoir, Clock, HistogramBuckets)} to create a histogram with buckets
+     * and the settings of a registry.
+     *
+     * @param reservoir the reservoir to create a histogram from
+     * @param clock the clock used to determine the age of the cached snapshot
+     * @param buckets the buckets to count the values in, or {@code null}
+     * @param rollingMax the rolling maximum to track, or {@code null}
+     * @param settings the settings of the registry that creates the histogram
+     */
+    HistogramImpl(Reservoir reservoir, Clock clock, HistogramBuckets buckets, RollingMax rollingMax,
+            MetricSettings settings) {
         this.reservoir = reservoir;
         this.count = new LongAdder();
         this.sum = new LongAdder();
+        this.clock = clock;
+        this.snapshotMaxAgeNanos = settings.getSnapshotMaxAgeNanos();
+        this.buckets = buckets;
+        this.rollingMax = rollingMax;
     }
 
     /**
@@ -76,6 +109,22 @@ public class HistogramImpl implements Histogram {
         count.increment();
         sum.add(value);
         reservoir.update(value);
+        if (buckets != null) {
+            buckets.record(value);
+        }
+        if (rollingMax != null) {
+            rollingMax.update(value);
+        }
+    }
+
+    @Override
+    public HistogramBuckets getBuckets() {
+        return buckets;
+    }
+
+    @Override
+    public RollingMax getRollingMax() {
+        return rollingMax;
     }
 
     /**
@@ -95,6 +144,31 @@ public class HistogramImpl implements Histogram {
 
     @Override
     public Snapshot getSnapshot() {
-        return reservoir.getSnapshot();
+        if (snapshotMaxAgeNanos <= 0) {
+            return reservoir.getSnapshot();
+        }
+        // the count is read first, values recorded while the snapshot is taken cause the next read to take a new one
+        final long currentCount = count.sum();
+        final long now = clock.getTick();
+        CachedSnapshot cached = cachedSnapshot;
+        if (cached != null && cached.count == currentCount && now - cached.tick < snapshotMaxAgeNanos) {
+            return cached.snapshot;
+        }
+        Snapshot snapshot = reservoir.getSnapshot();
+        cachedSnapshot = new CachedSnapshot(snapshot, currentCount, now);
+        return snapshot;
+    }
+
+    private static final class CachedSnapshot {
+
+        private final Snapshot snapshot;
+        private final long count;
+        private final long tick;
+
+        CachedSnapshot(Snapshot snapshot, long count, long tick) {
+            this.snapshot = snapshot;
+            this.count = count;
+            this.tick = tick;
+        }
     }
 }
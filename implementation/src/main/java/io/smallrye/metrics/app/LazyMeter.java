@@ -0,0 +1,102 @@
+/*
+ * Copyright 2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.smallrye.metrics.app;
+
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import org.eclipse.microprofile.metrics.Meter;
+
+/**
+ * A meter that only allocates the actual {@link MeterImpl} with its moving averages when it's first marked.
+ * Until then, it reports the values of a meter that has never been used.
+ */
+public class LazyMeter implements Meter {
+
+    private static final AtomicReferenceFieldUpdater<LazyMeter, Meter> DELEGATE = AtomicReferenceFieldUpdater
+            .newUpdater(LazyMeter.class, Meter.class, "delegate");
+
+    private final MetricSettings settings;
+
+    private volatile Meter delegate;
+
+    /**
+     * Use {@link MetricSettings#newLazyMeter()} to create a lazy meter.
+     *
+     * @param settings the settings of the registry that creates the meter
+     */
+    LazyMeter(MetricSettings settings) {
+        this.settings = settings;
+    }
+
+    private Meter materialize() {
+        Meter meter = delegate;
+        if (meter == null) {
+            meter = new MeterImpl(Clock.defaultClock(), settings);
+            if (!DELEGATE.compareAndSet(this, null, meter)) {
+                meter = delegate;
+            }
+        }
+        return meter;
+    }
+
+    /**
+     * @return true if the meter has been marked at least once
+     */
+    public boolean isMaterialized() {
+        return delegate != null;
+    }
+
+    @Override
+    public void mark() {
+        materialize().mark();
+    }
+
+    @Override
+    public void mark(long n) {
+        materialize().mark(n);
+    }
+
+    @Override
+    public long getCount() {
+        Meter meter = delegate;
+        return meter != null ? meter.getCount() : 0;
+    }
+
+    @Override
+    public double getFifteenMinuteRate() {
+        Meter meter = delegate;
+        return meter != null ? meter.getFifteenMinuteRate() : 0.0;
+    }
+
+    @Override
+    public double getFiveMinuteRate() {
+        Meter meter = delegate;
+        return meter != null ? meter.getFiveMinuteRate() : 0.0;
+    }
+
+    @Override
+    public double getMeanRate() {
+        Meter meter = delegate;
+        return meter != null ? meter.getMeanRate() : 0.0;
+    }
+
+    @Override
+    public double getOneMinuteRate() {
+        Meter meter = delegate;
+        return meter != null ? meter.getOneMinuteRate() : 0.0;
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.smallrye.metrics.app;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.Supplier;
+
+import org.eclipse.microprofile.metrics.Snapshot;
+import org.eclipse.microprofile.metrics.Timer;
+
+/**
+ * A timer that only allocates the actual {@link TimerImpl}, including its reservoir and meter, when it's first updated.
+ * Until then, it reports the values of a timer that has never been used.
+ */
+public class LazyTimer implements Timer, PrimitiveTimer, Bucketed, WithRollingMax {
+
+    private static final AtomicReferenceFieldUpdater<LazyTimer, TimerImpl> DELEGATE = AtomicReferenceFieldUpdater
+            .newUpdater(LazyTimer.class, TimerImpl.class, "delegate");
+
+    private static final Snapshot EMPTY_SNAPSHOT = new WeightedSnapshot(Collections.emptyList());
+
+    private final Supplier<Reservoir> reservoirSupplier;
+
+    private final HistogramBuckets buckets;
+
+    private final RollingMax rollingMax;
+
+    private final MetricSettings settings;
+
+    private volatile TimerImpl delegate;
+
+    /**
+     * Use {@link MetricSettings#newLazyTimer(Supplier, HistogramBuckets)} to create a lazy timer.
+     *
+     * @param reservoirSupplier creates the reservoir of the timer when it's first updated
+     * @param buckets the buckets to count the durations in, with upper bounds in nanoseconds, or {@code null}
+     * @param rollingMax the rolling maximum to track, or {@code null}
+     * @param settings the settings of the registry that creates the timer
+     */
+    LazyTimer(Supplier<Reservoir> reservoirSupplier, HistogramBuckets buckets, RollingMax rollingMax,
+            MetricSettings settings) {
+        this.reservoirSupplier = reservoirSupplier;
+        this.settings = settings;
+        this.buckets = buckets;
+        this.rollingMax = rollingMax;
+    }
+
+    private TimerImpl materialize() {
+        TimerImpl timer = delegate;
+        if (timer == null) {
+            timer = new TimerImpl(reservoirSupplier.get(), Clock.defaultClock(), buckets, rollingMax, settings);
+            if (!DELEGATE.compareAndSet(this, null, timer)) {
+                timer = delegate;
+            }
+        }
+        return timer;
+    }
+
+    /**
+     * @return true if the timer has been updated at least once
+     */
+    public boolean isMaterialized() {
+        return delegate != null;
+    }
+
+    @Override
+    public void update(Duration duration) {
+        materialize().update(duration);
+    }
+
+    @Override
+    public <T> T time(Callable<T> event) throws Exception {
+        return materialize().time(event);
+    }
+
+    @Override
+    public void time(Runnable event) {
+        materialize().time(event);
+    }
+
+    @Override
+    public Context time() {
+        return materialize().time();
+    }
+
+    @Override
+    public long start() {
+        // the timer is only materialized when the event is recorded, it will use the default clock
+        return Clock.defaultClock().getTick();
+    }
+
+    @Override
+    public long recordNanos(long startTick) {
+        return materialize().recordNanos(startTick);
+    }
+
+    @Override
+    public void update(long nanos) {
+        materialize().update(nanos);
+    }
+
+    @Override
+    public HistogramBuckets getBuckets() {
+        return buckets;
+    }
+
+    @Override
+    public RollingMax getRollingMax() {
+        return rollingMax;
+    }
+
+    @Override
+    public Duration getElapsedTime() {
+        Timer timer = delegate;
+        return timer != null ? timer.getElapsedTime() : Duration.ZERO;
+    }
+
+    @Override
+    public long getCount() {
+        Timer timer = delegate;
+        return timer != null ? timer.getCount() : 0;
+    }
+
+    @Override
+    public double getFifteenMinuteRate() {
+        Timer timer = delegate;
+        return timer != null ? timer.getFifteenMinuteRate() : 0.0;
+    }
+
+    @Override
+    public double getFiveMinuteRate() {
+        Timer timer = delegate;
+        return timer != null ? timer.getFiveMinuteRate() : 0.0;
+    }
+
+    @Override
+    public double getMeanRate() {
+        Timer timer = delegate;
+        return timer != null ? timer.getMeanRate() : 0.0;
+    }
+
+    @Override
+    public double getOneMinuteRate() {
+        Timer timer = delegate;
+        return timer != null ? timer.getOneMinuteRate() : 0.0;
+    }
+
+    @Override
+    public Snapshot getSnapshot() {
+        Timer timer = delegate;
+        return timer != null ? timer.getSnapshot() : EMPTY_SNAPSHOT;
+    }
+}
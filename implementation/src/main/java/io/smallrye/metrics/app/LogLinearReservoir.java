@@ -0,0 +1,320 @@
+/*
+ * Copyright 2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.smallrye.metrics.app;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.microprofile.metrics.Snapshot;
+
+/**
+ * A reservoir that counts every recorded value in a fixed set of log-linear buckets, in the spirit of HdrHistogram.
+ * <p>
+ * Values below {@code 2^p} each get their own bucket, above that every power of two is split into {@code 2^p}
+ * equally wide buckets, where {@code p} is the smallest number of bits needed to tell apart {@code 10^significantDigits}
+ * values. Quantiles are therefore accurate to the given number of significant digits, no matter how many values
+ * have been recorded and how they are distributed over time. The memory used is fixed when the reservoir is created
+ * and updates don't allocate or lock. The minimum, maximum and mean are exact.
+ * <p>
+ * The reservoir is meant for non-negative values such as durations. Negative values are recorded as zero,
+ * values above the highest trackable value are counted in the last bucket, which reports the exact maximum.
+ */
+public class LogLinearReservoir implements Reservoir {
+
+    private static final int DEFAULT_SIGNIFICANT_DIGITS = 2;
+    private static final long DEFAULT_HIGHEST_TRACKABLE_VALUE = TimeUnit.HOURS.toNanos(1);
+
+    private final int subBucketBits;
+    private final long highestTrackableValue;
+    private final AtomicLongArray counts;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * Creates a reservoir with 2 significant digits which can track values up to one hour in nanoseconds.
+     */
+    public LogLinearReservoir() {
+        this(DEFAULT_SIGNIFICANT_DIGITS, DEFAULT_HIGHEST_TRACKABLE_VALUE);
+    }
+
+    /**
+     * @param significantDigits the precision of the quantiles, between 1 and 3
+     * @param highestTrackableValue the highest value that can be told apart from larger values
+     */
+    public LogLinearReservoir(int significantDigits, long highestTrackableValue) {
+        this.subBucketBits = subBucketBits(significantDigits);
+        this.highestTrackableValue = highestTrackableValue;
+        this.counts = new AtomicLongArray(bucketCount(significantDigits, highestTrackableValue));
+    }
+
+    static int bucketCount(int significantDigits, long highestTrackableValue) {
+        if (significantDigits < 1 || significantDigits > 3) {
+            throw new IllegalArgumentException("significantDigits must be between 1 and 3: " + significantDigits);
+        }
+        if (highestTrackableValue < 1) {
+            throw new IllegalArgumentException("highestTrackableValue must be positive: " + highestTrackableValue);
+        }
+        return bucketIndex(highestTrackableValue, subBucketBits(significantDigits)) + 1;
+    }
+
+    static int subBucketBits(int significantDigits) {
+        long distinctValues = (long) Math.pow(10, significantDigits);
+        return 64 - Long.numberOfLeadingZeros(distinctValues - 1);
+    }
+
+    @Override
+    public int size() {
+        return (int) Math.min(count.sum(), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void update(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts.incrementAndGet(bucketIndex(Math.min(value, highestTrackableValue), subBucketBits));
+        count.increment();
+        sum.add(value);
+        long current;
+        while (value < (current = min.get()) && !min.compareAndSet(current, value)) {
+            // retry
+        }
+        while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+            // retry
+        }
+    }
+
+    @Override
+    public Snapshot getSnapshot() {
+        long[] bucketCounts = new long[counts.length()];
+        long total = addCountsTo(bucketCounts);
+        return BucketSnapshot.of(subBucketBits, bucketCounts, total, sum.sum(), min.get(), max.get());
+    }
+
+    /**
+     * Adds the current bucket counts to the given array, which must be at least as long as the number of buckets.
+     *
+     * @return the sum of the added counts
+     */
+    long addCountsTo(long[] target) {
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            long bucketCount = counts.get(i);
+            target[i] += bucketCount;
+            total += bucketCount;
+        }
+        return total;
+    }
+
+    long getCount() {
+        return count.sum();
+    }
+
+    long getSum() {
+        return sum.sum();
+    }
+
+    // Long.MAX_VALUE if nothing has been recorded
+    long getMin() {
+        return min.get();
+    }
+
+    // Long.MIN_VALUE if nothing has been recorded
+    long getMax() {
+        return max.get();
+    }
+
+    static int bucketIndex(long value, int subBucketBits) {
+        if (value < (1L << subBucketBits)) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - subBucketBits;
+        return ((shift + 1) << subBucketBits) + (int) ((value >>> shift) - (1L << subBucketBits));
+    }
+
+    static long lowestValueInBucket(int index, int subBucketBits) {
+        if (index < (1 << subBucketBits)) {
+            return index;
+        }
+        int shift = (index >> subBucketBits) - 1;
+        long subBucket = index & ((1 << subBucketBits) - 1);
+        return ((1L << subBucketBits) + subBucket) << shift;
+    }
+
+    static long bucketWidth(int index, int subBucketBits) {
+        if (index < (1 << subBucketBits)) {
+            return 1;
+        }
+        return 1L << ((index >> subBucketBits) - 1);
+    }
+
+    /**
+     * A snapshot of the bucket counts of a {@link LogLinearReservoir}. Each value in a bucket is reported as
+     * the middle of the bucket, clamped to the exact minimum and maximum.
+     */
+    public static class BucketSnapshot extends Snapshot {
+
+        private final int subBucketBits;
+        private final long[] bucketCounts;
+        private final long count;
+        private final long min;
+        private final long max;
+        private final double mean;
+
+        /**
+         * Creates a snapshot from values that were read while the reservoir was being updated. The bucket counts
+         * are incremented first, so the sum, minimum and maximum might not reflect all values that are already
+         * counted. The mean is therefore taken relative to the bucket total and kept between the minimum and the
+         * maximum, and a minimum or maximum that hasn't been set yet is taken from the bounds of the extreme buckets.
+         *
+         * @param count the sum of the bucket counts
+         * @param min the minimum, or {@code Long.MAX_VALUE} if it hasn't been set
+         * @param max the maximum, or {@code Long.MIN_VALUE} if it hasn't been set
+         */
+        static BucketSnapshot of(int subBucketBits, long[] bucketCounts, long count, long sum, long min, long max) {
+            if (count == 0) {
+                return new BucketSnapshot(subBucketBits, bucketCounts, 0, 0, 0, 0);
+            }
+            if (min == Long.MAX_VALUE) {
+                int first = 0;
+                while (bucketCounts[first] == 0) {
+                    first++;
+                }
+                min = lowestValueInBucket(first, subBucketBits);
+            }
+            if (max == Long.MIN_VALUE) {
+                int last = bucketCounts.length - 1;
+                while (bucketCounts[last] == 0) {
+                    last--;
+                }
+                max = lowestValueInBucket(last, subBucketBits) + bucketWidth(last, subBucketBits) - 1;
+            }
+            double mean = Math.max(min, Math.min(max, sum / (double) count));
+            return new BucketSnapshot(subBucketBits, bucketCounts, count, min, max, mean);
+        }
+
+        BucketSnapshot(int subBucketBits, long[] bucketCounts, long count, long min, long max, double mean) {
+            this.subBucketBits = subBucketBits;
+            this.bucketCounts = bucketCounts;
+            this.count = count;
+            this.min = min;
+            this.max = max;
+            this.mean = mean;
+        }
+
+        @Override
+        public double getValue(double quantile) {
+            if (quantile < 0.0 || quantile > 1.0 || Double.isNaN(quantile)) {
+                throw new IllegalArgumentException(quantile + " is not in [0..1]");
+            }
+            if (count == 0) {
+                return 0.0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(quantile * count));
+            long seen = 0;
+            for (int i = 0; i < bucketCounts.length; i++) {
+                seen += bucketCounts[i];
+                if (seen >= rank) {
+                    return valueOfBucket(i);
+                }
+            }
+            return max;
+        }
+
+        private long valueOfBucket(int index) {
+            if (index == bucketCounts.length - 1) {
+                // the last bucket also holds all values above the highest trackable value
+                return max;
+            }
+            long value = lowestValueInBucket(index, subBucketBits) + (bucketWidth(index, subBucketBits) - 1) / 2;
+            return Math.max(min, Math.min(max, value));
+        }
+
+        /**
+         * Returns one value for each non-empty bucket, in ascending order. Unlike a sampling reservoir, this one
+         * doesn't keep the individual values.
+         */
+        @Override
+        public long[] getValues() {
+            long[] values = new long[bucketCounts.length];
+            int n = 0;
+            for (int i = 0; i < bucketCounts.length; i++) {
+                if (bucketCounts[i] > 0) {
+                    values[n++] = valueOfBucket(i);
+                }
+            }
+            return Arrays.copyOf(values, n);
+        }
+
+        /**
+         * Returns the number of values recorded in the snapshot.
+         */
+        @Override
+        public int size() {
+            return (int) Math.min(count, Integer.MAX_VALUE);
+        }
+
+        @Override
+        public long getMax() {
+            return max;
+        }
+
+        @Override
+        public double getMean() {
+            return mean;
+        }
+
+        @Override
+        public long getMin() {
+            return min;
+        }
+
+        @Override
+        public double getStdDev() {
+            if (count <= 1) {
+                return 0;
+            }
+            double variance = 0;
+            for (int i = 0; i < bucketCounts.length; i++) {
+                if (bucketCounts[i] > 0) {
+                    double diff = valueOfBucket(i) - mean;
+                    variance += bucketCounts[i] * diff * diff;
+                }
+            }
+            return Math.sqrt(variance / count);
+        }
+
+        @Override
+        public void dump(OutputStream output) {
+            try (PrintWriter out = new PrintWriter(new OutputStreamWriter(output, UTF_8))) {
+                for (long value : getValues()) {
+                    out.printf("%d%n", value);
+                }
+            }
+        }
+    }
+}
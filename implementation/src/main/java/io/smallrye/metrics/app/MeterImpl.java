@@ -40,10 +40,18 @@ import org.eclipse.microprofile.metrics.Meter;
 /**
  * A meter metric which measures mean throughput and one-, five-, and fifteen-minute
  * exponentially-weighted moving average throughputs.
+ * <p>
+ * By default, marking the meter also advances the moving averages when a tick interval has passed. In central ticking
+ * mode, marking only adds to the count, and the moving averages of all meters are advanced by a shared background
+ * thread, or when the meter is read, from the difference of the count since the last tick. The metrics created by the
+ * registry use central ticking if {@value #SMALLRYE_METRICS_CENTRAL_METER_TICKER} is enabled.
  *
  * @see EWMA
  */
 public class MeterImpl implements Meter {
+
+    public static final String SMALLRYE_METRICS_CENTRAL_METER_TICKER = "smallrye.metrics.centralMeterTicker";
+
     private static final long TICK_INTERVAL = TimeUnit.SECONDS.toNanos(5);
 
     private final EWMA m1Rate = EWMA.oneMinuteEWMA();
@@ -54,6 +62,9 @@ public class MeterImpl implements Meter {
     private final long startTime;
     private final AtomicLong lastTick;
     private final Clock clock;
+    private final boolean centralTicking;
+    // the count the moving averages have been updated with, only used in central ticking mode and guarded by this
+    private long tickedCount;
 
     /**
      * Creates a new {@link MeterImpl}.
@@ -68,9 +79,23 @@ public class MeterImpl implements Meter {
      * @param clock the clock to use for the meter ticks
      */
     public MeterImpl(Clock clock) {
+        this(clock, MetricSettings.DEFAULTS);
+    }
+
+    /**
+     * Use {@link MetricSettings#newMeter(Clock)} to create a meter with the settings of a registry.
+     *
+     * @param clock the clock to use for the meter ticks
+     * @param settings the settings of the registry that creates the meter
+     */
+    MeterImpl(Clock clock, MetricSettings settings) {
         this.clock = clock;
         this.startTime = this.clock.getTick();
         this.lastTick = new AtomicLong(startTime);
+        this.centralTicking = settings.isCentralMeterTicking();
+        if (centralTicking) {
+            MeterTicker.register(this);
+        }
     }
 
     /**
@@ -86,6 +111,10 @@ public class MeterImpl implements Meter {
      * @param n the number of events
      */
     public void mark(long n) {
+        if (centralTicking) {
+            count.add(n);
+            return;
+        }
         tickIfNecessary();
         count.add(n);
         m1Rate.update(n);
@@ -94,6 +123,10 @@ public class MeterImpl implements Meter {
     }
 
     private void tickIfNecessary() {
+        if (centralTicking) {
+            catchUp();
+            return;
+        }
         final long oldTick = lastTick.get();
         final long newTick = clock.getTick();
         final long age = newTick - oldTick;
@@ -110,6 +143,37 @@ public class MeterImpl implements Meter {
         }
     }
 
+    /**
+     * Advances the moving averages by the tick intervals that have passed since they were last advanced. The events
+     * counted in the meantime are attributed to the first of these intervals, so this is exact as long as it's called
+     * at least once per interval.
+     */
+    void catchUp() {
+        if (clock.getTick() - lastTick.get() <= TICK_INTERVAL) {
+            return;
+        }
+        synchronized (this) {
+            final long oldTick = lastTick.get();
+            final long newTick = clock.getTick();
+            final long age = newTick - oldTick;
+            if (age > TICK_INTERVAL) {
+                lastTick.set(newTick - age % TICK_INTERVAL);
+                final long currentCount = count.sum();
+                final long uncounted = currentCount - tickedCount;
+                tickedCount = currentCount;
+                m1Rate.update(uncounted);
+                m5Rate.update(uncounted);
+                m15Rate.update(uncounted);
+                final long requiredTicks = age / TICK_INTERVAL;
+                for (long i = 0; i < requiredTicks; i++) {
+                    m1Rate.tick();
+                    m5Rate.tick();
+                    m15Rate.tick();
+                }
+            }
+        }
+    }
+
     @Override
     public long getCount() {
         return count.sum();
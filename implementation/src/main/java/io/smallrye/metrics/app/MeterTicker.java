@@ -0,0 +1,101 @@
+/*
+ * Copyright 2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.smallrye.metrics.app;
+
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import io.smallrye.metrics.SmallRyeMetricsLogging;
+
+/**
+ * Advances the moving averages of all meters in central ticking mode, see
+ * {@link MeterImpl#SMALLRYE_METRICS_CENTRAL_METER_TICKER}, from a single low priority background thread every
+ * 5 seconds. Meters are only weakly referenced, so that meters which are no longer used can be collected.
+ * <p>
+ * The thread is started by the first meter in central ticking mode and stopped by {@link #shutdown()} when the last
+ * registry is dropped.
+ */
+public final class MeterTicker {
+
+    private static final long TICK_INTERVAL_SECONDS = 5;
+
+    private static final Set<WeakReference<MeterImpl>> METERS = ConcurrentHashMap.newKeySet();
+
+    // guarded by the class
+    private static ScheduledExecutorService executor;
+
+    private MeterTicker() {
+    }
+
+    static void register(MeterImpl meter) {
+        METERS.add(new WeakReference<>(meter));
+        start();
+    }
+
+    private static synchronized void start() {
+        if (executor == null) {
+            executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "smallrye-metrics-meter-ticker");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                // the thread outlives the deployment that happened to start it
+                thread.setContextClassLoader(null);
+                return thread;
+            });
+            executor.scheduleAtFixedRate(MeterTicker::tickAll, TICK_INTERVAL_SECONDS, TICK_INTERVAL_SECONDS,
+                    TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Stops the background thread and forgets all meters registered so far. Meters created afterwards start it again.
+     */
+    public static synchronized void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+        METERS.clear();
+    }
+
+    static synchronized boolean isRunning() {
+        return executor != null;
+    }
+
+    static void tickAll() {
+        Iterator<WeakReference<MeterImpl>> iterator = METERS.iterator();
+        while (iterator.hasNext()) {
+            MeterImpl meter = iterator.next().get();
+            if (meter == null) {
+                iterator.remove();
+            } else {
+                // an exception would suppress all further runs, the meter catches up when it's read anyway
+                try {
+                    meter.catchUp();
+                } catch (RuntimeException e) {
+                    SmallRyeMetricsLogging.log.meterTickFailed(e);
+                }
+            }
+        }
+    }
+
+}
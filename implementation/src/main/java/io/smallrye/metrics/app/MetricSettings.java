@@ -0,0 +1,150 @@
+/*
+ * Copyright 2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.smallrye.metrics.app;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.ConfigProvider;
+
+/**
+ * Settings of the metrics created by a registry, read from the configuration once when the registry is created.
+ * The metrics that depend on them are created through this class, so that a new setting doesn't need new
+ * constructors on each of them.
+ * <p>
+ * Histograms and timers keep returning the same snapshot as long as no value has been recorded since and it's not
+ * older than {@value #SMALLRYE_METRICS_SNAPSHOT_MAX_AGE} milliseconds, {@value #DEFAULT_SNAPSHOT_MAX_AGE_MILLIS} by
+ * default (0 disables the caching).
+ */
+public final class MetricSettings {
+
+    public static final String SMALLRYE_METRICS_SNAPSHOT_MAX_AGE = "smallrye.metrics.snapshotMaxAge";
+
+    static final long DEFAULT_SNAPSHOT_MAX_AGE_MILLIS = 1000;
+
+    public static final MetricSettings DEFAULTS = new MetricSettings(
+            TimeUnit.MILLISECONDS.toNanos(DEFAULT_SNAPSHOT_MAX_AGE_MILLIS), false, 0, RollingMax.DEFAULT_SLOTS);
+
+    // how long histograms and timers keep returning the same snapshot, 0 disables the caching
+    private final long snapshotMaxAgeNanos;
+    // whether the moving averages of meters and timers are advanced by a shared background thread
+    private final boolean centralMeterTicking;
+    // the window of the rolling maximum of histograms and timers, 0 disables it
+    private final long rollingMaxWindowSeconds;
+    private final int rollingMaxSlots;
+
+    /**
+     * @param snapshotMaxAgeNanos how long histograms and timers keep returning the same snapshot while no value is
+     *        recorded, 0 disables the caching
+     * @param centralMeterTicking whether the moving averages of meters and timers are advanced by the shared background
+     *        thread
+     * @param rollingMaxWindowSeconds the window of the rolling maximum of histograms and timers, 0 disables it
+     * @param rollingMaxSlots into how many slots the window of the rolling maximum is divided
+     */
+    public MetricSettings(long snapshotMaxAgeNanos, boolean centralMeterTicking, long rollingMaxWindowSeconds,
+            int rollingMaxSlots) {
+        this.snapshotMaxAgeNanos = snapshotMaxAgeNanos;
+        this.centralMeterTicking = centralMeterTicking;
+        this.rollingMaxWindowSeconds = rollingMaxWindowSeconds;
+        this.rollingMaxSlots = rollingMaxSlots;
+    }
+
+    public static MetricSettings fromConfig() {
+        try {
+            Config config = ConfigProvider.getConfig();
+            return new MetricSettings(
+                    TimeUnit.MILLISECONDS.toNanos(config.getOptionalValue(SMALLRYE_METRICS_SNAPSHOT_MAX_AGE, Long.class)
+                            .orElse(DEFAULT_SNAPSHOT_MAX_AGE_MILLIS)),
+                    config.getOptionalValue(MeterImpl.SMALLRYE_METRICS_CENTRAL_METER_TICKER, Boolean.class).orElse(false),
+                    config.getOptionalValue(RollingMax.SMALLRYE_METRICS_ROLLING_MAX_WINDOW, Long.class).orElse(0L),
+                    config.getOptionalValue(RollingMax.SMALLRYE_METRICS_ROLLING_MAX_SLOTS, Integer.class)
+                            .orElse(RollingMax.DEFAULT_SLOTS));
+        } catch (IllegalStateException | ExceptionInInitializerError | NoClassDefFoundError t) {
+            // MP Config implementation is probably not available
+            return DEFAULTS;
+        }
+    }
+
+    /**
+     * @param clock the {@link Clock} implementation the meter should use
+     */
+    public MeterImpl newMeter(Clock clock) {
+        return new MeterImpl(clock, this);
+    }
+
+    /**
+     * Creates a meter that is only allocated when it's first marked, using the default {@link Clock}.
+     */
+    public LazyMeter newLazyMeter() {
+        return new LazyMeter(this);
+    }
+
+    /**
+     * @param reservoir the reservoir to create a histogram from
+     * @param clock the clock used to determine the age of the cached snapshot
+     * @param buckets the buckets to count the values in, or {@code null}
+     */
+    public HistogramImpl newHistogram(Reservoir reservoir, Clock clock, HistogramBuckets buckets) {
+        return new HistogramImpl(reservoir, clock, buckets, newRollingMax(clock), this);
+    }
+
+    /**
+     * @param reservoir the {@link Reservoir} implementation the timer should use
+     * @param clock the {@link Clock} implementation the timer should use
+     * @param buckets the buckets to count the durations in, with upper bounds in nanoseconds, or {@code null}
+     */
+    public TimerImpl newTimer(Reservoir reservoir, Clock clock, HistogramBuckets buckets) {
+        return new TimerImpl(reservoir, clock, buckets, newRollingMax(clock), this);
+    }
+
+    /**
+     * Creates a timer that is only allocated when it's first updated, using the default {@link Clock}.
+     *
+     * @param reservoirSupplier creates the reservoir of the timer when it's first updated
+     * @param buckets the buckets to count the durations in, with upper bounds in nanoseconds, or {@code null}
+     */
+    public LazyTimer newLazyTimer(Supplier<Reservoir> reservoirSupplier, HistogramBuckets buckets) {
+        return new LazyTimer(reservoirSupplier, buckets, newRollingMax(Clock.defaultClock()), this);
+    }
+
+    /**
+     * @param clock the {@link Clock} implementation the timer should use
+     * @param buckets the buckets to count the durations in, with upper bounds in nanoseconds, or {@code null}
+     */
+    public SimpleTimerImpl newSimpleTimer(Clock clock, HistogramBuckets buckets) {
+        return new SimpleTimerImpl(clock, buckets, newRollingMax(clock));
+    }
+
+    long getSnapshotMaxAgeNanos() {
+        return snapshotMaxAgeNanos;
+    }
+
+    boolean isCentralMeterTicking() {
+        return centralMeterTicking;
+    }
+
+    /**
+     * @return a new rolling maximum with the configured window, or {@code null} if the rolling maximum is disabled
+     */
+    private RollingMax newRollingMax(Clock clock) {
+        return rollingMaxWindowSeconds > 0
+                ? new RollingMax(rollingMaxWindowSeconds, TimeUnit.SECONDS, rollingMaxSlots, clock)
+                : null;
+    }
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.smallrye.metrics.app;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * The extremes of a value within one minute, for metrics that report the minimum and maximum of the previous
+ * complete minute. The extremes are accumulated with compare-and-set, and a window links to the window of the minute
+ * right before it, so that a metric can replace its current window with a single compare-and-set when a new minute
+ * starts.
+ */
+final class MinuteWindow {
+
+    private static final AtomicLongFieldUpdater<MinuteWindow> MAX = AtomicLongFieldUpdater
+            .newUpdater(MinuteWindow.class, "max");
+    private static final AtomicLongFieldUpdater<MinuteWindow> MIN = AtomicLongFieldUpdater
+            .newUpdater(MinuteWindow.class, "min");
+
+    final long minute;
+    volatile long max;
+    volatile long min;
+    // only the window of the minute right before this one, cleared once this window is replaced
+    volatile MinuteWindow previous;
+
+    MinuteWindow(long minute, long max, long min, MinuteWindow previous) {
+        this.minute = minute;
+        this.max = max;
+        this.min = min;
+        this.previous = previous;
+    }
+
+    void accumulateMax(long value) {
+        long currentMax;
+        while (value > (currentMax = max)) {
+            if (MAX.compareAndSet(this, currentMax, value)) {
+                return;
+            }
+        }
+    }
+
+    void accumulateMin(long value) {
+        long currentMin;
+        while (value < (currentMin = min)) {
+            if (MIN.compareAndSet(this, currentMin, value)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return the window of the minute right before {@code minute}, or null if there is none
+     */
+    MinuteWindow previousOf(long minute) {
+        MinuteWindow previous = this.minute == minute ? this.previous : null;
+        return previous != null && previous.minute == minute - 1 ? previous : null;
+    }
+
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.smallrye.metrics.app;
+
+/**
+ * Timing with primitive nanoseconds, for the timers of this implementation. Unlike
+ * {@link org.eclipse.microprofile.metrics.Timer#time()} and {@link java.time.Duration} based updates, timing an event
+ * this way doesn't allocate:
+ *
+ * <pre>
+ * long start = timer.start();
+ * try {
+ *     ...
+ * } finally {
+ *     timer.recordNanos(start);
+ * }
+ * </pre>
+ */
+public interface PrimitiveTimer {
+
+    /**
+     * Returns the current tick of the timer's clock, to be passed to {@link #recordNanos(long)} when the timed event
+     * ends.
+     *
+     * @return the current tick in nanoseconds
+     */
+    long start();
+
+    /**
+     * Records the time that has passed since the given tick.
+     *
+     * @param startTick the tick returned by {@link #start()} when the timed event started
+     * @return the recorded duration in nanoseconds
+     */
+    long recordNanos(long startTick);
+
+    /**
+     * Adds a recorded duration.
+     *
+     * @param nanos the length of the duration in nanoseconds
+     */
+    void update(long nanos);
+
+}
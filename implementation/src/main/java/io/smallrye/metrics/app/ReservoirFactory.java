@@ -0,0 +1,36 @@
+/*
+ * Copyright 2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.smallrye.metrics.app;
+
+import org.eclipse.microprofile.metrics.Metadata;
+
+/**
+ * Chooses the {@link Reservoir} of a histogram or timer when the registry creates it.
+ * <p>
+ * Implementations are discovered with the {@link java.util.ServiceLoader} and consulted after the reservoirs
+ * configured with the {@code smallrye.metrics.reservoir} properties. The first factory that returns a reservoir wins,
+ * if none does the metric gets an {@link ExponentiallyDecayingReservoir}.
+ */
+public interface ReservoirFactory {
+
+    /**
+     * @param metadata the metadata of the histogram or timer being created
+     * @return a new reservoir for the metric, or null to leave the choice to the next factory
+     */
+    Reservoir create(Metadata metadata);
+
+}
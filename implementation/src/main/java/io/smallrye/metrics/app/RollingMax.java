@@ -0,0 +1,132 @@
+/*
+ * Copyright 2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.smallrye.metrics.app;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The maximum of the values recorded in a rolling time window, unlike the maximum of a snapshot, which depends on
+ * the values that survived in the reservoir, it reliably reports the largest value of the recent past.
+ * <p>
+ * The window is divided into a ring of slots. Each slot keeps the maximum of the values recorded during one period of
+ * {@code window / slots} and is replaced by a new slot when a value is recorded in the same position of the ring a full
+ * rotation later. Recording a value reads the current time and updates the maximum of the current slot with a CAS, only
+ * the first value of a period allocates the new slot. Reading the maximum goes over the slots, so it doesn't depend on
+ * the number of recorded values. As the current slot is only partially elapsed, the maximum covers between
+ * {@code window * (slots - 1) / slots} and {@code window}.
+ * <p>
+ * The window of the metrics created by the registry is configured with {@value #SMALLRYE_METRICS_ROLLING_MAX_WINDOW}
+ * in seconds (0 by default, which disables the rolling maximum) and the number of slots with
+ * {@value #SMALLRYE_METRICS_ROLLING_MAX_SLOTS} ({@value #DEFAULT_SLOTS} by default). The rolling maximum is exported
+ * next to the maximum of the snapshot, not instead of it, so that the snapshot values stay consistent with each other.
+ */
+public class RollingMax {
+
+    public static final String SMALLRYE_METRICS_ROLLING_MAX_WINDOW = "smallrye.metrics.rollingMax.window";
+    public static final String SMALLRYE_METRICS_ROLLING_MAX_SLOTS = "smallrye.metrics.rollingMax.slots";
+
+    public static final int DEFAULT_SLOTS = 6;
+
+    private final AtomicReferenceArray<Slot> slots;
+    private final long slotMillis;
+    private final Clock clock;
+
+    /**
+     * @param window the length of the window
+     * @param unit the unit of the window
+     * @param slots the number of slots the window is divided into
+     */
+    public RollingMax(long window, TimeUnit unit, int slots) {
+        this(window, unit, slots, Clock.defaultClock());
+    }
+
+    /**
+     * @param window the length of the window
+     * @param unit the unit of the window
+     * @param slots the number of slots the window is divided into
+     * @param clock the clock to determine the current slot with
+     */
+    public RollingMax(long window, TimeUnit unit, int slots, Clock clock) {
+        if (slots < 1) {
+            throw new IllegalArgumentException("slots must be positive: " + slots);
+        }
+        long windowMillis = unit.toMillis(window);
+        if (windowMillis < slots) {
+            throw new IllegalArgumentException("The window is too short: " + window + " " + unit);
+        }
+        this.slots = new AtomicReferenceArray<>(slots);
+        this.slotMillis = windowMillis / slots;
+        this.clock = clock;
+    }
+
+    /**
+     * @param value the recorded value
+     */
+    public void update(long value) {
+        long period = clock.getTime() / slotMillis;
+        int index = (int) Math.floorMod(period, (long) slots.length());
+        Slot slot = slots.get(index);
+        while (slot == null || slot.period < period) {
+            if (slots.compareAndSet(index, slot, new Slot(period, value))) {
+                return;
+            }
+            slot = slots.get(index);
+        }
+        // a slot of a later period means the time read above is already outdated, the value belongs to the later period
+        slot.accumulate(value);
+    }
+
+    /**
+     * @return the maximum of the values recorded in the window, or 0 if no value has been recorded in it
+     */
+    public long getMax() {
+        long period = clock.getTime() / slotMillis;
+        long max = Long.MIN_VALUE;
+        boolean recorded = false;
+        for (int i = 0; i < slots.length(); i++) {
+            Slot slot = slots.get(i);
+            if (slot != null && slot.period > period - slots.length()) {
+                max = Math.max(max, slot.max);
+                recorded = true;
+            }
+        }
+        return recorded ? max : 0;
+    }
+
+    private static final class Slot {
+
+        private static final AtomicLongFieldUpdater<Slot> MAX = AtomicLongFieldUpdater.newUpdater(Slot.class, "max");
+
+        private final long period;
+        private volatile long max;
+
+        Slot(long period, long max) {
+            this.period = period;
+            this.max = max;
+        }
+
+        void accumulate(long value) {
+            long current;
+            while (value > (current = max) && !MAX.compareAndSet(this, current, value)) {
+                // retry
+            }
+        }
+    }
+
+}
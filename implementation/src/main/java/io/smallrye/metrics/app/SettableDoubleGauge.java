@@ -0,0 +1,55 @@
+/*
+ * Copyright 2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.smallrye.metrics.app;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link DoubleGauge} whose value is set by the application rather than computed when the gauge is read.
+ */
+public class SettableDoubleGauge implements DoubleGauge {
+
+    // the raw bits of the double value
+    private final AtomicLong bits = new AtomicLong(Double.doubleToRawLongBits(0.0));
+
+    /**
+     * @param value the new value of the gauge
+     */
+    public void set(double value) {
+        bits.set(Double.doubleToRawLongBits(value));
+    }
+
+    /**
+     * @param delta the amount to add to the value of the gauge, may be negative
+     * @return the new value of the gauge
+     */
+    public double add(double delta) {
+        while (true) {
+            long current = bits.get();
+            double next = Double.longBitsToDouble(current) + delta;
+            if (bits.compareAndSet(current, Double.doubleToRawLongBits(next))) {
+                return next;
+            }
+        }
+    }
+
+    @Override
+    public double getDoubleValue() {
+        return Double.longBitsToDouble(bits.get());
+    }
+
+}
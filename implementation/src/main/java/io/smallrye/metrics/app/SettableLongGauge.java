@@ -0,0 +1,48 @@
+/*
+ * Copyright 2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.smallrye.metrics.app;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link LongGauge} whose value is set by the application rather than computed when the gauge is read.
+ */
+public class SettableLongGauge implements LongGauge {
+
+    private final AtomicLong value = new AtomicLong();
+
+    /**
+     * @param value the new value of the gauge
+     */
+    public void set(long value) {
+        this.value.set(value);
+    }
+
+    /**
+     * @param delta the amount to add to the value of the gauge, may be negative
+     * @return the new value of the gauge
+     */
+    public long add(long delta) {
+        return value.addAndGet(delta);
+    }
+
+    @Override
+    public long getLongValue() {
+        return value.get();
+    }
+
+}
@@ -33,13 +33,26 @@ package io.smallrye.metrics.app;
 
 import java.time.Duration;
 import java.util.concurrent.Callable;
-import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import java.util.concurrent.atomic.LongAdder;
 
 import org.eclipse.microprofile.metrics.SimpleTimer;
 
-public class SimpleTimerImpl implements SimpleTimer {
+/**
+ * A simple timer which tracks the count and total time of the recorded durations, and the minimum and maximum
+ * durations of the previous complete minute.
+ * <p>
+ * Recording a duration doesn't lock or allocate. The minimum and maximum of each minute are kept as nanoseconds in
+ * a window tagged with the minute it belongs to, which is replaced by a new window when the first duration of the next
+ * minute is recorded or the timer is read.
+ */
+public class SimpleTimerImpl implements SimpleTimer, PrimitiveTimer, Bucketed, WithRollingMax {
+
+    private static final long NONE_MAX = Long.MIN_VALUE;
+    private static final long NONE_MIN = Long.MAX_VALUE;
+
+    private static final AtomicReferenceFieldUpdater<SimpleTimerImpl, MinuteWindow> CURRENT = AtomicReferenceFieldUpdater
+            .newUpdater(SimpleTimerImpl.class, MinuteWindow.class, "current");
 
     private final Clock clock;
 
@@ -49,18 +62,14 @@ public class SimpleTimerImpl implements SimpleTimer {
     // total elapsed time across all measurements. In nanoseconds
     private final LongAdder elapsedTime;
 
-    // maximum duration achieved in previous minute
-    private final AtomicReference<Duration> max_previousMinute;
-    // minimum duration achieved in previous minute
-    private final AtomicReference<Duration> min_previousMinute;
+    // counts the durations in buckets if configured, may be null
+    private final HistogramBuckets buckets;
 
-    // maximum duration achieved in this minute
-    private final AtomicReference<Duration> max_thisMinute;
-    // minimum duration achieved in this minute
-    private final AtomicReference<Duration> min_thisMinute;
+    // tracks the maximum in a rolling time window if configured, may be null
+    private final RollingMax rollingMax;
 
-    // current timestamp rounded down to the last whole minute
-    private final AtomicLong thisMinute;
+    // the window of the latest minute in which the timer was updated or read
+    private volatile MinuteWindow current;
 
     /**
      * Creates a new {@link SimpleTimerImpl} using the default {@link Clock}.
@@ -75,14 +84,24 @@ public class SimpleTimerImpl implements SimpleTimer {
      * @param clock the {@link Clock} implementation the timer should use
      */
     public SimpleTimerImpl(Clock clock) {
+        this(clock, null, null);
+    }
+
+    /**
+     * Use {@link MetricSettings#newSimpleTimer(Clock, HistogramBuckets)} to create a timer with buckets and the
+     * settings of a registry.
+     *
+     * @param clock the {@link Clock} implementation the timer should use
+     * @param buckets the buckets to count the durations in, with upper bounds in nanoseconds, or {@code null}
+     * @param rollingMax the rolling maximum to track, or {@code null}
+     */
+    SimpleTimerImpl(Clock clock, HistogramBuckets buckets, RollingMax rollingMax) {
         this.clock = clock;
+        this.buckets = buckets;
+        this.rollingMax = rollingMax;
         this.count = new LongAdder();
         this.elapsedTime = new LongAdder();
-        this.thisMinute = new AtomicLong(getCurrentMinuteFromSystem());
-        this.max_previousMinute = new AtomicReference<>(null);
-        this.min_previousMinute = new AtomicReference<>(null);
-        this.max_thisMinute = new AtomicReference<>(null);
-        this.min_thisMinute = new AtomicReference<>(null);
+        this.current = new MinuteWindow(getCurrentMinute(), NONE_MAX, NONE_MIN, null);
     }
 
     /**
@@ -91,23 +110,53 @@ public class SimpleTimerImpl implements SimpleTimer {
      * @param duration the length of the duration
      */
     public void update(Duration duration) {
-        if (duration.compareTo(Duration.ZERO) > 0) {
-            maybeStartNewMinute();
-            synchronized (this) {
-                count.increment();
-                elapsedTime.add(duration.toNanos());
-                Duration currentMax = max_thisMinute.get();
-                if (currentMax == null || (duration.compareTo(currentMax) > 0)) {
-                    max_thisMinute.set(duration);
-                }
-                Duration currentMin = min_thisMinute.get();
-                if (currentMin == null || (duration.compareTo(currentMin) < 0)) {
-                    min_thisMinute.set(duration);
-                }
+        update(duration.toNanos());
+    }
+
+    @Override
+    public long start() {
+        return clock.getTick();
+    }
+
+    @Override
+    public long recordNanos(long startTick) {
+        final long elapsed = clock.getTick() - startTick;
+        update(elapsed);
+        return elapsed;
+    }
+
+    /**
+     * Adds a recorded duration, durations that are not positive are ignored.
+     *
+     * @param nanos the length of the duration in nanoseconds
+     */
+    @Override
+    public void update(long nanos) {
+        if (nanos > 0) {
+            count.increment();
+            elapsedTime.add(nanos);
+            MinuteWindow window = window(getCurrentMinute());
+            window.accumulateMax(nanos);
+            window.accumulateMin(nanos);
+            if (buckets != null) {
+                buckets.record(nanos);
+            }
+            if (rollingMax != null) {
+                rollingMax.update(nanos);
             }
         }
     }
 
+    @Override
+    public HistogramBuckets getBuckets() {
+        return buckets;
+    }
+
+    @Override
+    public RollingMax getRollingMax() {
+        return rollingMax;
+    }
+
     /**
      * Times and records the duration of event.
      *
@@ -122,7 +171,7 @@ public class SimpleTimerImpl implements SimpleTimer {
         try {
             return event.call();
         } finally {
-            update(Duration.ofNanos(clock.getTick() - startTime));
+            update(clock.getTick() - startTime);
         }
     }
 
@@ -137,7 +186,7 @@ public class SimpleTimerImpl implements SimpleTimer {
         try {
             event.run();
         } finally {
-            update(Duration.ofNanos(clock.getTick() - startTime));
+            update(clock.getTick() - startTime);
         }
     }
 
@@ -163,34 +212,42 @@ public class SimpleTimerImpl implements SimpleTimer {
 
     @Override
     public Duration getMaxTimeDuration() {
-        maybeStartNewMinute();
-        return max_previousMinute.get();
+        MinuteWindow previous = previousMinute();
+        return previous != null && previous.max != NONE_MAX ? Duration.ofNanos(previous.max) : null;
     }
 
     @Override
     public Duration getMinTimeDuration() {
-        maybeStartNewMinute();
-        return min_previousMinute.get();
-    }
-
-    private void maybeStartNewMinute() {
-        long newMinute = getCurrentMinuteFromSystem();
-        if (newMinute > thisMinute.get()) {
-            synchronized (this) {
-                if (newMinute > thisMinute.get()) {
-                    thisMinute.set(newMinute);
-                    max_previousMinute.set(max_thisMinute.get());
-                    min_previousMinute.set(min_thisMinute.get());
-                    max_thisMinute.set(null);
-                    min_thisMinute.set(null);
-                }
+        MinuteWindow previous = previousMinute();
+        return previous != null && previous.min != NONE_MIN ? Duration.ofNanos(previous.min) : null;
+    }
+
+    /**
+     * @return the window of the previous complete minute, or null if the timer wasn't updated in that minute
+     */
+    private MinuteWindow previousMinute() {
+        long minute = getCurrentMinute();
+        return window(minute).previousOf(minute);
+    }
+
+    private MinuteWindow window(long minute) {
+        MinuteWindow window = current;
+        while (window.minute < minute) {
+            // only the minute right before the new one is of interest, older windows are dropped
+            MinuteWindow next = new MinuteWindow(minute, NONE_MAX, NONE_MIN, window.minute == minute - 1 ? window : null);
+            if (CURRENT.compareAndSet(this, window, next)) {
+                // don't let the windows form an ever growing chain
+                window.previous = null;
+                return next;
             }
+            window = current;
         }
+        return window;
     }
 
-    // Get the current system time in minutes, truncating. This number will increase by 1 every complete minute.
-    private long getCurrentMinuteFromSystem() {
-        return System.currentTimeMillis() / 60000;
+    // Get the current time in minutes, truncating. This number will increase by 1 every complete minute.
+    private long getCurrentMinute() {
+        return clock.getTime() / 60000;
     }
 
     /**
@@ -216,9 +273,7 @@ public class SimpleTimerImpl implements SimpleTimer {
          * @return the elapsed time in nanoseconds
          */
         public long stop() {
-            final long elapsed = clock.getTick() - startTime;
-            timer.update(Duration.ofNanos(elapsed));
-            return elapsed;
+            return timer.recordNanos(startTime);
         }
 
         /**
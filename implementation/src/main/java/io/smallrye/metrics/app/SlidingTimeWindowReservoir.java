@@ -0,0 +1,184 @@
+/*
+ * Copyright 2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.smallrye.metrics.app;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.eclipse.microprofile.metrics.Snapshot;
+
+/**
+ * A reservoir that only reflects the values recorded within a recent time window, for example
+ * "the 99th percentile over the last minute".
+ * <p>
+ * The window is divided into a ring of sub-windows, each of which records its values in a {@link LogLinearReservoir}.
+ * A sub-window is only allocated when the first value of its period is recorded, and published with a single
+ * compare-and-set, so writers never wait for the rotation. A snapshot merges all sub-windows that are still within the
+ * window and releases the ones that have left it, so a reservoir that isn't updated anymore doesn't keep its memory.
+ * As the current sub-window is only partially filled, a snapshot covers between {@code (subWindows - 1) / subWindows}
+ * of the window and the whole window.
+ * <p>
+ * With the default precision and highest trackable value, a sub-window takes about 37 KB, so a reservoir that is updated
+ * continuously takes about 220 KB with the default 6 sub-windows, and each snapshot allocates another 37 KB. A lower
+ * precision or highest trackable value reduce both.
+ */
+public class SlidingTimeWindowReservoir implements Reservoir {
+
+    private static final long DEFAULT_WINDOW_SECONDS = 60;
+    private static final int DEFAULT_SUB_WINDOWS = 6;
+    private static final int DEFAULT_SIGNIFICANT_DIGITS = 2;
+    private static final long DEFAULT_HIGHEST_TRACKABLE_VALUE = TimeUnit.HOURS.toNanos(1);
+
+    private final Clock clock;
+    private final long subWindowNanos;
+    private final int significantDigits;
+    private final long highestTrackableValue;
+    private final int subBucketBits;
+    private final int bucketCount;
+    private final AtomicReferenceArray<SubWindow> ring;
+
+    /**
+     * Creates a reservoir covering the last 60 seconds in 6 sub-windows, using the default {@link Clock}.
+     */
+    public SlidingTimeWindowReservoir() {
+        this(DEFAULT_WINDOW_SECONDS, TimeUnit.SECONDS, DEFAULT_SUB_WINDOWS, Clock.defaultClock());
+    }
+
+    /**
+     * @param window the length of the window
+     * @param windowUnit the unit of {@code window}
+     * @param subWindows into how many parts the window is divided, more parts make the window slide more smoothly
+     * @param clock the clock to use
+     */
+    public SlidingTimeWindowReservoir(long window, TimeUnit windowUnit, int subWindows, Clock clock) {
+        this(window, windowUnit, subWindows, DEFAULT_SIGNIFICANT_DIGITS, DEFAULT_HIGHEST_TRACKABLE_VALUE, clock);
+    }
+
+    /**
+     * @param window the length of the window
+     * @param windowUnit the unit of {@code window}
+     * @param subWindows into how many parts the window is divided, more parts make the window slide more smoothly
+     * @param significantDigits the precision of the quantiles, see {@link LogLinearReservoir}
+     * @param highestTrackableValue the highest value that can be told apart from larger values
+     * @param clock the clock to use
+     */
+    public SlidingTimeWindowReservoir(long window, TimeUnit windowUnit, int subWindows, int significantDigits,
+            long highestTrackableValue, Clock clock) {
+        if (subWindows < 1) {
+            throw new IllegalArgumentException("subWindows must be positive: " + subWindows);
+        }
+        long windowNanos = windowUnit.toNanos(window);
+        if (windowNanos < subWindows) {
+            throw new IllegalArgumentException("The window is too short: " + window + " " + windowUnit);
+        }
+        this.clock = clock;
+        this.subWindowNanos = windowNanos / subWindows;
+        this.significantDigits = significantDigits;
+        this.highestTrackableValue = highestTrackableValue;
+        // validates the arguments and determines the bucket layout shared by all sub-windows
+        this.bucketCount = LogLinearReservoir.bucketCount(significantDigits, highestTrackableValue);
+        this.subBucketBits = LogLinearReservoir.subBucketBits(significantDigits);
+        this.ring = new AtomicReferenceArray<>(subWindows);
+    }
+
+    @Override
+    public int size() {
+        long epoch = currentEpoch();
+        long count = 0;
+        for (int i = 0; i < ring.length(); i++) {
+            SubWindow subWindow = ring.get(i);
+            if (isLive(subWindow, epoch)) {
+                count += subWindow.values.getCount();
+            }
+        }
+        return (int) Math.min(count, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void update(long value) {
+        long epoch = currentEpoch();
+        int slot = slot(epoch);
+        SubWindow subWindow = ring.get(slot);
+        if (subWindow == null || subWindow.epoch < epoch) {
+            subWindow = rotate(slot, subWindow, epoch);
+        }
+        subWindow.values.update(value);
+    }
+
+    private SubWindow rotate(int slot, SubWindow expired, long epoch) {
+        SubWindow fresh = new SubWindow(epoch, new LogLinearReservoir(significantDigits, highestTrackableValue));
+        while (!ring.compareAndSet(slot, expired, fresh)) {
+            SubWindow current = ring.get(slot);
+            if (current != null && current.epoch >= epoch) {
+                // another writer has rotated the slot in the meantime, a writer that was delayed past the rotation
+                // records into the newer sub-window
+                return current;
+            }
+            // released by a snapshot in the meantime
+            expired = current;
+        }
+        return fresh;
+    }
+
+    @Override
+    public Snapshot getSnapshot() {
+        long epoch = currentEpoch();
+        long[] bucketCounts = new long[bucketCount];
+        long count = 0;
+        long sum = 0;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < ring.length(); i++) {
+            SubWindow subWindow = ring.get(i);
+            if (isLive(subWindow, epoch)) {
+                LogLinearReservoir values = subWindow.values;
+                count += values.addCountsTo(bucketCounts);
+                sum += values.getSum();
+                min = Math.min(min, values.getMin());
+                max = Math.max(max, values.getMax());
+            } else if (subWindow != null) {
+                // has left the window, writers allocate a new one when the slot comes up again
+                ring.compareAndSet(i, subWindow, null);
+            }
+        }
+        return LogLinearReservoir.BucketSnapshot.of(subBucketBits, bucketCounts, count, sum, min, max);
+    }
+
+    private boolean isLive(SubWindow subWindow, long currentEpoch) {
+        return subWindow != null && subWindow.epoch > currentEpoch - ring.length();
+    }
+
+    private long currentEpoch() {
+        return Math.floorDiv(clock.getTick(), subWindowNanos);
+    }
+
+    private int slot(long epoch) {
+        return (int) Math.floorMod(epoch, (long) ring.length());
+    }
+
+    private static final class SubWindow {
+
+        // number of the sub-window since the clock's origin
+        private final long epoch;
+        private final LogLinearReservoir values;
+
+        SubWindow(long epoch, LogLinearReservoir values) {
+            this.epoch = epoch;
+            this.values = values;
+        }
+    }
+}
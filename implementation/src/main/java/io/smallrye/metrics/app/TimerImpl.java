@@ -42,7 +42,7 @@ import org.eclipse.microprofile.metrics.Timer;
  * A timer metric which aggregates timing durations and provides duration statistics, plus
  * throughput statistics via {@link MeterImpl}.
  */
-public class TimerImpl implements Timer {
+public class TimerImpl implements Timer, PrimitiveTimer, Bucketed, WithRollingMax {
 
     private final MeterImpl meter;
     private final HistogramImpl histogram;
@@ -73,9 +73,24 @@ public class TimerImpl implements Timer {
      * @param clock the {@link Clock} implementation the timer should use
      */
     public TimerImpl(Reservoir reservoir, Clock clock) {
-        this.meter = new MeterImpl(clock);
+        this(reservoir, clock, null, null, MetricSettings.DEFAULTS);
+    }
+
+    /**
+     * Use {@link MetricSettings#newTimer(Reservoir, Clock, HistogramBuckets)} to create a timer with buckets and the
+     * settings of a registry.
+     *
+     * @param reservoir the {@link Reservoir} implementation the timer should use
+     * @param clock the {@link Clock} implementation the timer should use
+     * @param buckets the buckets to count the durations in, with upper bounds in nanoseconds, or {@code null}
+     * @param rollingMax the rolling maximum to track, or {@code null}
+     * @param settings the settings of the registry that creates the timer
+     */
+    TimerImpl(Reservoir reservoir, Clock clock, HistogramBuckets buckets, RollingMax rollingMax,
+            MetricSettings settings) {
+        this.meter = new MeterImpl(clock, settings);
         this.clock = clock;
-        this.histogram = new HistogramImpl(reservoir);
+        this.histogram = new HistogramImpl(reservoir, clock, buckets, rollingMax, settings);
         this.elapsedTime = new LongAdder();
     }
 
@@ -167,7 +182,25 @@ public class TimerImpl implements Timer {
         return histogram.getSnapshot();
     }
 
-    private void update(long duration) {
+    @Override
+    public long start() {
+        return clock.getTick();
+    }
+
+    @Override
+    public long recordNanos(long startTick) {
+        final long elapsed = clock.getTick() - startTick;
+        update(elapsed);
+        return elapsed;
+    }
+
+    /**
+     * Adds a recorded duration, negative durations are ignored.
+     *
+     * @param duration the length of the duration in nanoseconds
+     */
+    @Override
+    public void update(long duration) {
         if (duration >= 0) {
             histogram.update(duration);
             meter.mark();
@@ -175,6 +208,16 @@ public class TimerImpl implements Timer {
         }
     }
 
+    @Override
+    public HistogramBuckets getBuckets() {
+        return histogram.getBuckets();
+    }
+
+    @Override
+    public RollingMax getRollingMax() {
+        return histogram.getRollingMax();
+    }
+
     public org.eclipse.microprofile.metrics.Metered getMeter() {
         return meter;
     }
@@ -202,9 +245,7 @@ public class TimerImpl implements Timer {
          * @return the elapsed time in nanoseconds
          */
         public long stop() {
-            final long elapsed = clock.getTick() - startTime;
-            timer.update(Duration.ofNanos(elapsed));
-            return elapsed;
+            return timer.recordNanos(startTime);
         }
 
         /**
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.smallrye.metrics.app;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.eclipse.microprofile.metrics.Snapshot;
+
+/**
+ * A random sample of a fixed size of all values ever recorded, using Vitter's Algorithm R. Every value has the same
+ * chance of being in the sample, so unlike {@link ExponentiallyDecayingReservoir} it does not favour recent values.
+ *
+ * @see <a href="http://www.cs.umd.edu/~samir/498/vitter.pdf">Random Sampling with a Reservoir</a>
+ */
+public class UniformReservoir implements Reservoir {
+
+    private static final int DEFAULT_SIZE = 1028;
+
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLongArray values;
+
+    /**
+     * Creates a reservoir of 1028 elements.
+     */
+    public UniformReservoir() {
+        this(DEFAULT_SIZE);
+    }
+
+    /**
+     * @param size the number of samples to keep
+     */
+    public UniformReservoir(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size must be positive: " + size);
+        }
+        this.values = new AtomicLongArray(size);
+    }
+
+    @Override
+    public int size() {
+        return (int) Math.min(count.get(), values.length());
+    }
+
+    @Override
+    public void update(long value) {
+        final long c = count.incrementAndGet();
+        if (c <= values.length()) {
+            values.set((int) c - 1, value);
+        } else {
+            final long r = ThreadLocalRandom.current().nextLong(c);
+            if (r < values.length()) {
+                values.set((int) r, value);
+            }
+        }
+    }
+
+    @Override
+    public Snapshot getSnapshot() {
+        final int s = size();
+        final long[] copy = new long[s];
+        final double[] weights = new double[s];
+        for (int i = 0; i < s; i++) {
+            copy[i] = values.get(i);
+            weights[i] = 1.0;
+        }
+        return new WeightedSnapshot(copy, weights);
+    }
+
+}
@@ -38,7 +38,6 @@ import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Comparator;
 import java.util.Objects;
 
 import org.eclipse.microprofile.metrics.Snapshot;
@@ -58,34 +57,119 @@ public class WeightedSnapshot extends Snapshot {
      * @param values an unordered set of values in the reservoir
      */
     public WeightedSnapshot(Collection<WeightedSample> values) {
-        Objects.requireNonNull(values);
-        final WeightedSample[] copy = values.toArray(new WeightedSample[] {});
-
-        Arrays.sort(copy, Comparator.comparing(w -> w.value));
+        this(toValues(Objects.requireNonNull(values)), toWeights(values));
+    }
 
-        this.values = new long[copy.length];
-        this.normWeights = new double[copy.length];
-        this.quantiles = new double[copy.length];
+    /**
+     * Create a new {@link Snapshot} with the given values and weights. The arrays are sorted in place and owned by
+     * the snapshot afterwards, the caller must not use them anymore.
+     *
+     * @param values an unordered set of values in the reservoir
+     * @param weights the weights of {@code values}, in the same order
+     */
+    public WeightedSnapshot(long[] values, double[] weights) {
+        if (values.length != weights.length) {
+            throw new IllegalArgumentException("There are " + values.length + " values but " + weights.length + " weights");
+        }
+        sort(values, weights, 0, values.length - 1);
 
         double sumWeight = 0.0D;
-        for (WeightedSample sample : copy) {
-            sumWeight += sample.weight;
+        for (double weight : weights) {
+            sumWeight += weight;
         }
 
-        for (int i = 0; i < copy.length; i++) {
-            this.values[i] = copy[i].value;
+        // the weights are normalized in place
+        this.values = values;
+        this.normWeights = weights;
+        this.quantiles = new double[values.length];
+
+        for (int i = 0; i < weights.length; i++) {
             if (sumWeight == 0.0D || Double.compare(sumWeight, 0.0D) == 0) {
                 this.normWeights[i] = 0.0D;
             } else {
-                this.normWeights[i] = copy[i].weight / sumWeight;
+                this.normWeights[i] = weights[i] / sumWeight;
             }
         }
 
-        for (int i = 1; i < copy.length; i++) {
+        for (int i = 1; i < values.length; i++) {
             this.quantiles[i] = this.quantiles[i - 1] + this.normWeights[i - 1];
         }
     }
 
+    private static long[] toValues(Collection<WeightedSample> samples) {
+        long[] values = new long[samples.size()];
+        int i = 0;
+        for (WeightedSample sample : samples) {
+            values[i++] = sample.value;
+        }
+        return values;
+    }
+
+    private static double[] toWeights(Collection<WeightedSample> samples) {
+        double[] weights = new double[samples.size()];
+        int i = 0;
+        for (WeightedSample sample : samples) {
+            weights[i++] = sample.weight;
+        }
+        return weights;
+    }
+
+    /**
+     * Sorts the values in {@code [from, to]} in ascending order and moves the weights along with them. Quicksort with
+     * three-way partitioning, so that many equal values don't degrade it, and insertion sort for short ranges.
+     */
+    private static void sort(long[] values, double[] weights, int from, int to) {
+        while (to - from >= 16) {
+            long pivot = medianOfThree(values[from], values[(from + to) >>> 1], values[to]);
+            // [from, lt) < pivot, [lt, i) == pivot, (gt, to] > pivot
+            int lt = from;
+            int gt = to;
+            int i = from;
+            while (i <= gt) {
+                if (values[i] < pivot) {
+                    swap(values, weights, lt++, i++);
+                } else if (values[i] > pivot) {
+                    swap(values, weights, i, gt--);
+                } else {
+                    i++;
+                }
+            }
+            // recurse into the smaller part to bound the stack depth
+            if (lt - from < to - gt) {
+                sort(values, weights, from, lt - 1);
+                from = gt + 1;
+            } else {
+                sort(values, weights, gt + 1, to);
+                to = lt - 1;
+            }
+        }
+        for (int i = from + 1; i <= to; i++) {
+            long value = values[i];
+            double weight = weights[i];
+            int j = i - 1;
+            while (j >= from && values[j] > value) {
+                values[j + 1] = values[j];
+                weights[j + 1] = weights[j];
+                j--;
+            }
+            values[j + 1] = value;
+            weights[j + 1] = weight;
+        }
+    }
+
+    private static long medianOfThree(long a, long b, long c) {
+        return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+    }
+
+    private static void swap(long[] values, double[] weights, int i, int j) {
+        long value = values[i];
+        values[i] = values[j];
+        values[j] = value;
+        double weight = weights[i];
+        weights[i] = weights[j];
+        weights[j] = weight;
+    }
+
     /**
      * Returns the value at the given quantile.
      *
@@ -16,8 +16,16 @@
  */
 package io.smallrye.metrics.exporters;
 
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.eclipse.microprofile.metrics.Metric;
+import org.eclipse.microprofile.metrics.MetricID;
+import org.eclipse.microprofile.metrics.MetricRegistry;
 import org.eclipse.microprofile.metrics.MetricUnits;
 
+import io.smallrye.metrics.MetricsRegistryImpl;
+
 /**
  * @author hrupp, Michal Szynkiewicz, michal.l.szynkiewicz@gmail.com
  */
@@ -64,4 +72,20 @@ public class ExporterUtil {
         }
         return out;
     }
+
+    /**
+     * Collects all metrics registered under the given name, sorted by their IDs.
+     * This uses the registry's name index, so it doesn't have to go through metrics with other names.
+     */
+    static Map<MetricID, Metric> getMetricsByName(MetricRegistry registry, String name) {
+        Map<MetricID, Metric> out = new TreeMap<>();
+        for (MetricID metricID : ((MetricsRegistryImpl) registry).getMetricIDsByName(name)) {
+            Metric metric = registry.getMetric(metricID);
+            // the metric could have been removed in the meantime
+            if (metric != null) {
+                out.put(metricID, metric);
+            }
+        }
+        return out;
+    }
 }
@@ -19,6 +19,7 @@ package io.smallrye.metrics.exporters;
 
 import java.io.StringWriter;
 import java.time.Duration;
+import java.util.Base64;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -47,7 +48,14 @@ import org.eclipse.microprofile.metrics.Snapshot;
 import org.eclipse.microprofile.metrics.Timer;
 
 import io.smallrye.metrics.MetricRegistries;
+import io.smallrye.metrics.MetricsRegistryImpl;
+import io.smallrye.metrics.RegistrySnapshot;
 import io.smallrye.metrics.TagsUtils;
+import io.smallrye.metrics.app.DDSketchReservoir;
+import io.smallrye.metrics.app.DoubleGauge;
+import io.smallrye.metrics.app.LongGauge;
+import io.smallrye.metrics.app.RollingMax;
+import io.smallrye.metrics.app.WithRollingMax;
 
 /**
  * @author hrupp
@@ -87,10 +95,10 @@ public class JsonExporter implements Exporter {
     @Override
     public StringBuilder exportOneMetric(MetricRegistry.Type scope, MetricID metricID) {
         MetricRegistry registry = MetricRegistries.get(scope);
-        Map<MetricID, Metric> metricMap = registry.getMetrics();
-        Map<String, Metadata> metadataMap = registry.getMetadata();
+        Map<String, Metadata> metadataMap = Collections.singletonMap(metricID.getName(),
+                registry.getMetadata(metricID.getName()));
 
-        Metric m = metricMap.get(metricID);
+        Metric m = registry.getMetric(metricID);
 
         Map<MetricID, Metric> outMap = new HashMap<>(1);
         outMap.put(metricID, m);
@@ -104,14 +112,8 @@ public class JsonExporter implements Exporter {
     @Override
     public StringBuilder exportMetricsByName(MetricRegistry.Type scope, String name) {
         MetricRegistry registry = MetricRegistries.get(scope);
-        Map<MetricID, Metric> metricMap = registry.getMetrics()
-                .entrySet()
-                .stream()
-                .filter(e -> e.getKey().getName().equals(name))
-                .collect(Collectors.toMap(
-                        Map.Entry::getKey,
-                        Map.Entry::getValue));
-        Map<String, Metadata> metadataMap = registry.getMetadata();
+        Map<MetricID, Metric> metricMap = ExporterUtil.getMetricsByName(registry, name);
+        Map<String, Metadata> metadataMap = Collections.singletonMap(name, registry.getMetadata(name));
 
         JsonObjectBuilder root = JsonProviderHolder.get().createObjectBuilder();
         exportMetricsForMap(metricMap, metadataMap)
@@ -193,12 +195,21 @@ public class JsonExporter implements Exporter {
     }
 
     private JsonObject exportOneRegistry(MetricRegistry registry) {
-        Map<MetricID, Metric> metricMap = registry.getMetrics();
-        Map<String, Metadata> metadataMap = registry.getMetadata();
+        RegistrySnapshot snapshot = ((MetricsRegistryImpl) registry).getSnapshot();
 
         JsonObjectBuilder root = JsonProviderHolder.get().createObjectBuilder();
-        exportMetricsForMap(metricMap, metadataMap)
-                .forEach(root::add);
+        // the snapshot is sorted, so all metrics with the same name are next to each other
+        int i = 0;
+        while (i < snapshot.size()) {
+            String name = snapshot.getMetricID(i).getName();
+            Metadata metadata = snapshot.getMetadata(i);
+            Map<MetricID, Metric> metricsWithName = new HashMap<>();
+            for (; i < snapshot.size() && snapshot.getMetricID(i).getName().equals(name); i++) {
+                metricsWithName.put(snapshot.getMetricID(i), snapshot.getMetric(i));
+            }
+            exportMetricsByName(metricsWithName, metadata)
+                    .forEach(root::add);
+        }
         return root.build();
     }
 
@@ -220,6 +231,12 @@ public class JsonExporter implements Exporter {
     }
 
     private JsonValue exportSimpleMetric(MetricID metricID, Metric metric) {
+        // primitive gauges are read without boxing their value
+        if (metric instanceof LongGauge) {
+            return JsonProviderHolder.get().createValue(((LongGauge) metric).getLongValue());
+        } else if (metric instanceof DoubleGauge) {
+            return JsonProviderHolder.get().createValue(((DoubleGauge) metric).getDoubleValue());
+        }
         Number val = getValueFromMetric(metric, metricID.getName());
         if (val instanceof Double) {
             return JsonProviderHolder.get().createValue((Double) val);
@@ -268,12 +285,16 @@ public class JsonExporter implements Exporter {
         } else {
             builder.add("maxTimeDuration" + tags, JsonValue.NULL);
         }
+        RollingMax rollingMax = getRollingMax(timer);
+        if (rollingMax != null) {
+            builder.add("maxWindow" + tags, toBase(rollingMax.getMax(), unit));
+        }
         return builder.build();
     }
 
     private JsonObject exportTimer(Timer timer, String unit, String tags) {
         JsonObjectBuilder builder = JsonProviderHolder.get().createObjectBuilder();
-        snapshotValues(timer.getSnapshot(), unit, tags)
+        snapshotValues(timer.getSnapshot(), getRollingMax(timer), unit, tags)
                 .forEach(builder::add);
         meterValues(timer, tags)
                 .forEach(builder::add);
@@ -285,12 +306,12 @@ public class JsonExporter implements Exporter {
         Map<String, JsonValue> map = new HashMap<>();
         map.put("count" + tags, JsonProviderHolder.get().createValue(histogram.getCount()));
         map.put("sum" + tags, JsonProviderHolder.get().createValue(histogram.getSum()));
-        snapshotValues(histogram.getSnapshot(), tags)
+        snapshotValues(histogram.getSnapshot(), getRollingMax(histogram), tags)
                 .forEach((map::put));
         return map;
     }
 
-    private Map<String, JsonValue> snapshotValues(Snapshot snapshot, String tags) {
+    private Map<String, JsonValue> snapshotValues(Snapshot snapshot, RollingMax rollingMax, String tags) {
         Map<String, JsonValue> map = new HashMap<>();
         map.put("p50" + tags, JsonProviderHolder.get().createValue(snapshot.getMedian()));
         map.put("p75" + tags, JsonProviderHolder.get().createValue(snapshot.get75thPercentile()));
@@ -302,10 +323,14 @@ public class JsonExporter implements Exporter {
         map.put("mean" + tags, JsonProviderHolder.get().createValue(snapshot.getMean()));
         map.put("max" + tags, JsonProviderHolder.get().createValue(snapshot.getMax()));
         map.put("stddev" + tags, JsonProviderHolder.get().createValue(snapshot.getStdDev()));
+        if (rollingMax != null) {
+            map.put("maxWindow" + tags, JsonProviderHolder.get().createValue(rollingMax.getMax()));
+        }
+        addSketch(map, snapshot, tags);
         return map;
     }
 
-    private Map<String, JsonValue> snapshotValues(Snapshot snapshot, String unit, String tags) {
+    private Map<String, JsonValue> snapshotValues(Snapshot snapshot, RollingMax rollingMax, String unit, String tags) {
         Map<String, JsonValue> map = new HashMap<>();
         map.put("p50" + tags, JsonProviderHolder.get().createValue(toBase(snapshot.getMedian(), unit)));
         map.put("p75" + tags, JsonProviderHolder.get().createValue(toBase(snapshot.get75thPercentile(), unit)));
@@ -317,9 +342,29 @@ public class JsonExporter implements Exporter {
         map.put("mean" + tags, JsonProviderHolder.get().createValue(toBase(snapshot.getMean(), unit)));
         map.put("max" + tags, JsonProviderHolder.get().createValue(toBase(snapshot.getMax(), unit)));
         map.put("stddev" + tags, JsonProviderHolder.get().createValue(toBase(snapshot.getStdDev(), unit)));
+        if (rollingMax != null) {
+            map.put("maxWindow" + tags, JsonProviderHolder.get().createValue(toBase(rollingMax.getMax(), unit)));
+        }
+        addSketch(map, snapshot, tags);
         return map;
     }
 
+    private RollingMax getRollingMax(Metric metric) {
+        return metric instanceof WithRollingMax ? ((WithRollingMax) metric).getRollingMax() : null;
+    }
+
+    /**
+     * Adds the serialized sketch, encoded in Base64, if the snapshot comes from a {@link DDSketchReservoir}, so that
+     * the distributions of several instances can be merged. Unlike the other values, it holds the values as they were
+     * recorded, that is durations of timers are in nanoseconds.
+     */
+    private void addSketch(Map<String, JsonValue> map, Snapshot snapshot, String tags) {
+        if (snapshot instanceof DDSketchReservoir.SketchSnapshot) {
+            byte[] sketch = ((DDSketchReservoir.SketchSnapshot) snapshot).toByteArray();
+            map.put("sketch" + tags, JsonProviderHolder.get().createValue(Base64.getEncoder().encodeToString(sketch)));
+        }
+    }
+
     private Double toBase(Number count, String unit) {
         return ExporterUtil.convertNanosTo(count.doubleValue(), unit);
     }
@@ -22,6 +22,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -46,8 +47,17 @@ import org.eclipse.microprofile.metrics.Timer;
 
 import io.smallrye.metrics.ExtendedMetadata;
 import io.smallrye.metrics.MetricRegistries;
+import io.smallrye.metrics.MetricsRegistryImpl;
+import io.smallrye.metrics.RegistrySnapshot;
 import io.smallrye.metrics.SmallRyeMetricsLogging;
 import io.smallrye.metrics.TagsUtils;
+import io.smallrye.metrics.app.Bucketed;
+import io.smallrye.metrics.app.DoubleGauge;
+import io.smallrye.metrics.app.Exemplar;
+import io.smallrye.metrics.app.HistogramBuckets;
+import io.smallrye.metrics.app.LongGauge;
+import io.smallrye.metrics.app.RollingMax;
+import io.smallrye.metrics.app.WithRollingMax;
 
 /**
  * Export data in OpenMetrics text format
@@ -66,10 +76,15 @@ public class OpenMetricsExporter implements Exporter {
     private static final String GAUGE = "gauge";
     private static final String SPACE = " ";
     private static final String SUMMARY = "summary";
+    private static final String HISTOGRAM = "histogram";
     private static final String USCORE = "_";
     private static final String COUNTER = "counter";
     private static final String QUANTILE = "quantile";
+    private static final String LE = "le";
+    private static final String POSITIVE_INFINITY = "+Inf";
     private static final String NONE = "none";
+    private static final String EOF = "# EOF\n";
+    private static final String TOTAL = "_total";
 
     private boolean writeHelpLine;
     private boolean usePrefixForScope;
@@ -81,7 +96,21 @@ public class OpenMetricsExporter implements Exporter {
 
     private Map<String, String> globalTags;
 
+    // whether the client negotiated application/openmetrics-text, which is the only format with exemplars
+    private final boolean openMetricsFormat;
+
     public OpenMetricsExporter() {
+        this(false);
+    }
+
+    /**
+     * @param openMetricsFormat whether to export in the {@code application/openmetrics-text} format, with the exemplars
+     *        of histogram buckets and a terminating {@code # EOF}, instead of the Prometheus {@code text/plain} format.
+     *        In that format, the lines of each metric family are grouped together, counter families are named without
+     *        their {@code _total} suffix, and families whose name ends with their unit have a {@code # UNIT} line.
+     */
+    public OpenMetricsExporter(boolean openMetricsFormat) {
+        this.openMetricsFormat = openMetricsFormat;
         try {
             Config config = ConfigProvider.getConfig();
             Optional<Boolean> tmp = config.getOptionalValue(MICROPROFILE_METRICS_OMIT_HELP_LINE, Boolean.class);
@@ -103,7 +132,7 @@ public class OpenMetricsExporter implements Exporter {
         StringBuilder sb = new StringBuilder();
         getEntriesForScope(scope, sb);
         alreadyExportedNames.set(null);
-        return sb;
+        return terminate(sb);
     }
 
     @Override
@@ -116,16 +145,14 @@ public class OpenMetricsExporter implements Exporter {
             alreadyExportedNames.set(null);
         }
 
-        return sb;
+        return terminate(sb);
     }
 
     @Override
     public StringBuilder exportOneMetric(MetricRegistry.Type scope, MetricID metricID) {
         alreadyExportedNames.set(new HashSet<>());
         MetricRegistry registry = MetricRegistries.get(scope);
-        Map<MetricID, Metric> metricMap = registry.getMetrics();
-
-        Metric m = metricMap.get(metricID);
+        Metric m = registry.getMetric(metricID);
 
         Map<MetricID, Metric> outMap = new HashMap<>(1);
         outMap.put(metricID, m);
@@ -133,118 +160,188 @@ public class OpenMetricsExporter implements Exporter {
         StringBuilder sb = new StringBuilder();
         exposeEntries(scope, sb, registry, outMap);
         alreadyExportedNames.set(null);
-        return sb;
+        return terminate(sb);
     }
 
     @Override
     public StringBuilder exportMetricsByName(MetricRegistry.Type scope, String name) {
         alreadyExportedNames.set(new HashSet<>());
         MetricRegistry registry = MetricRegistries.get(scope);
-        Map<MetricID, Metric> metricsToExport = registry.getMetrics()
-                .entrySet()
-                .stream()
-                .filter(entry -> entry.getKey().getName().equals(name))
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        Map<MetricID, Metric> metricsToExport = ExporterUtil.getMetricsByName(registry, name);
 
         StringBuilder sb = new StringBuilder();
         exposeEntries(scope, sb, registry, metricsToExport);
         alreadyExportedNames.set(null);
-        return sb;
+        return terminate(sb);
     }
 
     @Override
     public String getContentType() {
-        return "text/plain";
+        return openMetricsFormat ? "application/openmetrics-text; version=1.0.0; charset=utf-8" : "text/plain";
+    }
+
+    private StringBuilder terminate(StringBuilder sb) {
+        return openMetricsFormat ? groupByFamily(sb).append(EOF) : sb;
+    }
+
+    /**
+     * The metrics are written one after the other, so the series of a family are interleaved with those of the other
+     * families of the same name, and the text format repeats nothing for further tags of a name. OpenMetrics requires
+     * the metadata and the samples of each family to be written together, which is what this regroups them into, in the
+     * order in which the families first appear.
+     */
+    private static StringBuilder groupByFamily(StringBuilder sb) {
+        Map<String, Family> families = new LinkedHashMap<>();
+        for (String line : sb.toString().split(LF)) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            if (line.startsWith("# ")) {
+                // # HELP, # TYPE or # UNIT, followed by the name of the family
+                int nameStart = line.indexOf(' ', 2) + 1;
+                String name = line.substring(nameStart, line.indexOf(' ', nameStart));
+                families.computeIfAbsent(name, n -> new Family()).addMetadata(line.substring(2, nameStart - 1), line);
+            } else {
+                int nameEnd = 0;
+                while (line.charAt(nameEnd) != '{' && line.charAt(nameEnd) != ' ') {
+                    nameEnd++;
+                }
+                getFamily(families, line.substring(0, nameEnd)).samples.append(line).append(LF);
+            }
+        }
+        StringBuilder out = new StringBuilder(sb.length());
+        for (Family family : families.values()) {
+            out.append(family.metadata).append(family.samples);
+        }
+        return out;
+    }
+
+    private static Family getFamily(Map<String, Family> families, String sampleName) {
+        Family family = families.get(sampleName);
+        if (family == null) {
+            for (String suffix : new String[] { TOTAL, "_bucket", "_count", "_sum" }) {
+                if (sampleName.endsWith(suffix)) {
+                    family = families.get(sampleName.substring(0, sampleName.length() - suffix.length()));
+                    if (family != null) {
+                        return family;
+                    }
+                }
+            }
+            family = families.computeIfAbsent(sampleName, n -> new Family());
+        }
+        return family;
     }
 
     private void getEntriesForScope(MetricRegistry.Type scope, StringBuilder sb) {
         MetricRegistry registry = MetricRegistries.get(scope);
-        Map<MetricID, Metric> metricMap = registry.getMetrics();
-
-        exposeEntries(scope, sb, registry, new TreeMap<>(metricMap));
+        // the snapshot is already sorted and carries the metadata, so there is nothing to copy here
+        RegistrySnapshot snapshot = ((MetricsRegistryImpl) registry).getSnapshot();
+        for (int i = 0; i < snapshot.size(); i++) {
+            exposeEntry(scope, sb, snapshot.getMetricID(i), snapshot.getMetric(i), snapshot.getMetadata(i));
+        }
     }
 
     private void exposeEntries(MetricRegistry.Type scope, StringBuilder sb, MetricRegistry registry,
             Map<MetricID, Metric> metricMap) {
-        Map<String, Metadata> metadataMap = registry.getMetadata();
         for (Map.Entry<MetricID, Metric> entry : metricMap.entrySet()) {
             String key = entry.getKey().getName();
-            Metadata md = metadataMap.get(key);
+            Metadata md = registry.getMetadata(key);
 
             if (md == null) {
                 throw new IllegalStateException("No entry for " + key + " found");
             }
 
-            Metric metric = entry.getValue();
-            final Map<String, String> tagsMapOriginal = entry.getKey().getTags();
-            // the original map with tags is immutable, so create a copy where we append the global tags
-            Map<String, String> tagsMap = new TreeMap<>(tagsMapOriginal);
-            tagsMap.putAll(globalTags);
-            StringBuilder metricBuf = new StringBuilder();
-
-            try {
-                switch (md.getTypeRaw()) {
-                    case GAUGE: {
-                        String unitSuffix = null;
-                        String unit;
-                        String keyOverride = getOpenMetricsKeyOverride(md);
-                        if (keyOverride != null) {
-                            key = keyOverride;
-                        } else {
-                            key = getOpenMetricsMetricName(key);
-                            unit = OpenMetricsUnit.getBaseUnitAsOpenMetricsString(md.unit());
-                            if (!unit.equals(NONE)) {
-                                unitSuffix = "_" + unit;
-                            }
+            exposeEntry(scope, sb, entry.getKey(), entry.getValue(), md);
+        }
+    }
+
+    private void exposeEntry(MetricRegistry.Type scope, StringBuilder sb, MetricID metricID, Metric metric,
+            Metadata md) {
+        String key = metricID.getName();
+        final Map<String, String> tagsMapOriginal = metricID.getTags();
+        // the original map with tags is immutable, so create a copy where we append the global tags
+        Map<String, String> tagsMap = new TreeMap<>(tagsMapOriginal);
+        tagsMap.putAll(globalTags);
+        StringBuilder metricBuf = new StringBuilder();
+
+        try {
+            switch (md.getTypeRaw()) {
+                case GAUGE: {
+                    String unitSuffix = null;
+                    String unit;
+                    String keyOverride = getOpenMetricsKeyOverride(md);
+                    if (keyOverride != null) {
+                        key = keyOverride;
+                    } else {
+                        key = getOpenMetricsMetricName(key);
+                        unit = OpenMetricsUnit.getBaseUnitAsOpenMetricsString(md.unit());
+                        if (!unit.equals(NONE)) {
+                            unitSuffix = "_" + unit;
                         }
-                        writeHelpLine(metricBuf, scope, key, md, unitSuffix);
-                        writeTypeLine(metricBuf, scope, key, md, unitSuffix, null);
-                        createSimpleValueLine(metricBuf, scope, key, md, metric, null, tagsMap);
-                        break;
                     }
-                    case COUNTER:
-                        String suffix;
-
-                        String keyOverride = getOpenMetricsKeyOverride(md);
-                        if (keyOverride != null) {
-                            key = keyOverride;
-                            suffix = null;
-                        } else {
-                            key = getOpenMetricsMetricName(key);
-                            suffix = key.endsWith("_total") ? null : "_total";
-                        }
-                        writeHelpLine(metricBuf, scope, key, md, suffix);
-                        writeTypeLine(metricBuf, scope, key, md, suffix, null);
-                        createSimpleValueLine(metricBuf, scope, key, md, metric, suffix, tagsMap);
-                        break;
-                    case CONCURRENT_GAUGE:
-                        ConcurrentGauge concurrentGauge = (ConcurrentGauge) metric;
-                        writeConcurrentGaugeValues(sb, scope, concurrentGauge, md, key, tagsMap);
-                        break;
-                    case METERED:
-                        Metered meter = (Metered) metric;
-                        writeMeterValues(metricBuf, scope, meter, md, tagsMap);
-                        break;
-                    case TIMER:
-                        Timer timer = (Timer) metric;
-                        writeTimerValues(metricBuf, scope, timer, md, tagsMap);
-                        break;
-                    case HISTOGRAM:
-                        Histogram histogram = (Histogram) metric;
-                        writeHistogramValues(metricBuf, scope, histogram, md, tagsMap);
-                        break;
-                    case SIMPLE_TIMER:
-                        SimpleTimer simpleTimer = (SimpleTimer) metric;
-                        writeSimpleTimerValues(metricBuf, scope, simpleTimer, md, tagsMap);
-                        break;
-                    default:
-                        throw new IllegalArgumentException("Not supported: " + key);
+                    writeHelpLine(metricBuf, scope, key, md, unitSuffix);
+                    writeTypeLine(metricBuf, scope, key, md, unitSuffix, null);
+                    createSimpleValueLine(metricBuf, scope, key, md, metric, null, unitSuffix, tagsMap);
+                    break;
                 }
-                sb.append(metricBuf);
-                alreadyExportedNames.get().add(md.getName());
-            } catch (Exception e) {
-                SmallRyeMetricsLogging.log.unableToExport(key, e);
+                case COUNTER:
+                    String suffix;
+                    String unitSuffix = null;
+
+                    String keyOverride = getOpenMetricsKeyOverride(md);
+                    if (keyOverride != null) {
+                        key = keyOverride;
+                        suffix = null;
+                    } else {
+                        key = getOpenMetricsMetricName(key);
+                        suffix = key.endsWith(TOTAL) ? null : TOTAL;
+                        String unit = OpenMetricsUnit.getBaseUnitAsOpenMetricsString(md.unit());
+                        if (!unit.equals(NONE)) {
+                            unitSuffix = USCORE + unit;
+                        }
+                    }
+                    if (openMetricsFormat) {
+                        // the samples of a counter must end with _total, after the unit
+                        if (key.endsWith(TOTAL)) {
+                            key = key.substring(0, key.length() - TOTAL.length());
+                        }
+                        if (unitSuffix != null) {
+                            key = key + unitSuffix;
+                            unitSuffix = null;
+                        }
+                        suffix = TOTAL;
+                    }
+                    writeHelpLine(metricBuf, scope, key, md, suffix);
+                    writeTypeLine(metricBuf, scope, key, md, suffix, null);
+                    createSimpleValueLine(metricBuf, scope, key, md, metric, suffix, unitSuffix, tagsMap);
+                    break;
+                case CONCURRENT_GAUGE:
+                    ConcurrentGauge concurrentGauge = (ConcurrentGauge) metric;
+                    writeConcurrentGaugeValues(sb, scope, concurrentGauge, md, key, tagsMap);
+                    break;
+                case METERED:
+                    Metered meter = (Metered) metric;
+                    writeMeterValues(metricBuf, scope, meter, md, tagsMap);
+                    break;
+                case TIMER:
+                    Timer timer = (Timer) metric;
+                    writeTimerValues(metricBuf, scope, timer, md, tagsMap);
+                    break;
+                case HISTOGRAM:
+                    Histogram histogram = (Histogram) metric;
+                    writeHistogramValues(metricBuf, scope, histogram, md, tagsMap);
+                    break;
+                case SIMPLE_TIMER:
+                    SimpleTimer simpleTimer = (SimpleTimer) metric;
+                    writeSimpleTimerValues(metricBuf, scope, simpleTimer, md, tagsMap);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Not supported: " + key);
             }
+            sb.append(metricBuf);
+            alreadyExportedNames.get().add(md.getName());
+        } catch (Exception e) {
+            SmallRyeMetricsLogging.log.unableToExport(key, e);
         }
     }
 
@@ -260,8 +357,16 @@ public class OpenMetricsExporter implements Exporter {
         writeMeterRateValues(sb, scope, timer, md, tags);
         Snapshot snapshot = timer.getSnapshot();
         writeSnapshotBasics(sb, scope, md, snapshot, theUnit, true, tags);
+        writeRollingMax(sb, scope, timer, md, theUnit, tags);
 
         writeHelpLine(sb, scope, md.getName(), md, theUnit);
+        HistogramBuckets buckets = getBuckets(timer);
+        if (buckets != null) {
+            writeTypeLine(sb, scope, md.getName(), md, theUnit, HISTOGRAM);
+            writeBuckets(sb, scope, md, buckets, theUnit, tags);
+            writeValueLine(sb, scope, theUnit + "_sum", timer.getElapsedTime().toNanos(), md, tags);
+            return;
+        }
         writeTypeLine(sb, scope, md.getName(), md, theUnit, SUMMARY);
         writeValueLine(sb, scope, theUnit + "_count", timer.getCount(), md, tags, false);
         writeValueLine(sb, scope, theUnit + "_sum", timer.getElapsedTime().toNanos(), md, tags);
@@ -293,6 +398,14 @@ public class OpenMetricsExporter implements Exporter {
         } else {
             writeTypeAndValue(sb, scope, "_maxTimeDuration" + theUnit, Double.NaN, GAUGE, md, true, tags);
         }
+        writeRollingMax(sb, scope, simpleTimer, md, theUnit, tags);
+        HistogramBuckets buckets = getBuckets(simpleTimer);
+        if (buckets != null) {
+            writeHelpLine(sb, scope, md.getName(), md, theUnit);
+            writeTypeLine(sb, scope, md.getName(), md, theUnit, HISTOGRAM);
+            writeBuckets(sb, scope, md, buckets, theUnit, tags);
+            writeValueLine(sb, scope, theUnit + "_sum", simpleTimer.getElapsedTime().toNanos(), md, tags);
+        }
 
     }
 
@@ -316,12 +429,59 @@ public class OpenMetricsExporter implements Exporter {
 
         writeHelpLine(sb, scope, md.getName(), md, theUnit);
         writeSnapshotBasics(sb, scope, md, snapshot, theUnit, true, tags);
+        writeRollingMax(sb, scope, histogram, md, theUnit, tags);
+        HistogramBuckets buckets = getBuckets(histogram);
+        if (buckets != null) {
+            writeTypeLine(sb, scope, md.getName(), md, theUnit, HISTOGRAM);
+            writeBuckets(sb, scope, md, buckets, theUnit, tags);
+            writeValueLine(sb, scope, theUnit + "_sum", histogram.getSum(), md, tags, false);
+            return;
+        }
         writeTypeLine(sb, scope, md.getName(), md, theUnit, SUMMARY);
         writeValueLine(sb, scope, theUnit + "_count", histogram.getCount(), md, tags, false);
         writeValueLine(sb, scope, theUnit + "_sum", histogram.getSum(), md, tags, false);
         writeSnapshotQuantiles(sb, scope, md, snapshot, theUnit, true, tags);
     }
 
+    private HistogramBuckets getBuckets(Metric metric) {
+        return metric instanceof Bucketed ? ((Bucketed) metric).getBuckets() : null;
+    }
+
+    /**
+     * Writes the maximum of the rolling time window as {@code _max_window} if the metric tracks it. It's a series of its
+     * own, as the {@code _max} of the snapshot goes with the minimum, mean and quantiles of the same values.
+     */
+    private void writeRollingMax(StringBuilder sb, MetricRegistry.Type scope, Metric metric, Metadata md, String unit,
+            Map<String, String> tags) {
+        if (metric instanceof WithRollingMax) {
+            RollingMax rollingMax = ((WithRollingMax) metric).getRollingMax();
+            if (rollingMax != null) {
+                writeTypeAndValue(sb, scope, "_max_window" + unit, rollingMax.getMax(), GAUGE, md, true, tags);
+            }
+        }
+    }
+
+    /**
+     * Writes the cumulative buckets and the count of an OpenMetrics histogram. The count is the one of the last bucket,
+     * so that it's consistent with the buckets even if values are recorded while they are read. In the OpenMetrics format,
+     * buckets with an exemplar are followed by it, the Prometheus text format has no syntax for exemplars.
+     */
+    private void writeBuckets(StringBuilder sb, MetricRegistry.Type scope, Metadata md, HistogramBuckets buckets,
+            String unit, Map<String, String> tags) {
+        long[] upperBounds = buckets.getUpperBounds();
+        long[] counts = buckets.getCumulativeCounts();
+        Exemplar[] exemplars = openMetricsFormat ? buckets.getExemplars() : null;
+        Map<String, String> map = copyMap(tags);
+        for (int i = 0; i < upperBounds.length; i++) {
+            map.put(LE, String.valueOf(scaleToBase(md, upperBounds[i])));
+            writeValueLine(sb, scope, unit + "_bucket", counts[i], md, map, false, exemplars != null ? exemplars[i] : null);
+        }
+        map.put(LE, POSITIVE_INFINITY);
+        writeValueLine(sb, scope, unit + "_bucket", counts[upperBounds.length], md, map, false,
+                exemplars != null ? exemplars[upperBounds.length] : null);
+        writeValueLine(sb, scope, unit + "_count", counts[upperBounds.length], md, tags, false);
+    }
+
     private void writeSnapshotBasics(StringBuilder sb, MetricRegistry.Type scope, Metadata md, Snapshot snapshot, String unit,
             boolean performScaling, Map<String, String> tags) {
 
@@ -387,6 +547,17 @@ public class OpenMetricsExporter implements Exporter {
             Metadata md,
             Map<String, String> tags,
             boolean performScaling) {
+        writeValueLine(sb, scope, suffix, valueRaw, md, tags, performScaling, null);
+    }
+
+    private void writeValueLine(StringBuilder sb,
+            MetricRegistry.Type scope,
+            String suffix,
+            double valueRaw,
+            Metadata md,
+            Map<String, String> tags,
+            boolean performScaling,
+            Exemplar exemplar) {
         String name = md.getName();
         name = getOpenMetricsMetricName(name);
         fillBaseName(sb, scope, name, suffix, md);
@@ -399,18 +570,45 @@ public class OpenMetricsExporter implements Exporter {
 
         sb.append(SPACE);
 
-        Double value;
-        if (performScaling) {
-            String scaleFrom = "nanoseconds";
-            if (md.getTypeRaw() == MetricType.HISTOGRAM)
-                // for histograms, internally the data is stored using the metric's unit
-                scaleFrom = md.unit().orElse(NONE);
-            value = OpenMetricsUnit.scaleToBase(scaleFrom, valueRaw);
-        } else {
-            value = valueRaw;
+        double value = performScaling ? scaleToBase(md, valueRaw) : valueRaw;
+        sb.append(value);
+        if (exemplar != null) {
+            appendExemplar(sb, md, exemplar);
         }
-        sb.append(value).append(LF);
+        sb.append(LF);
+
+    }
+
+    /**
+     * Appends an exemplar as {@code # {trace_id="..."} value timestamp}, with the value in the base unit and the
+     * timestamp in seconds.
+     */
+    private void appendExemplar(StringBuilder sb, Metadata md, Exemplar exemplar) {
+        sb.append(" # {");
+        Iterator<Map.Entry<String, String>> labels = exemplar.getLabels().entrySet().iterator();
+        while (labels.hasNext()) {
+            Map.Entry<String, String> label = labels.next();
+            sb.append(label.getKey()).append("=\"").append(quoteValue(label.getValue())).append("\"");
+            if (labels.hasNext()) {
+                sb.append(",");
+            }
+        }
+        sb.append("}").append(SPACE).append(scaleToBase(md, exemplar.getValue()));
+        long timestamp = exemplar.getTimestamp();
+        sb.append(SPACE).append(timestamp / 1000).append('.');
+        long millis = timestamp % 1000;
+        if (millis < 100) {
+            sb.append(millis < 10 ? "00" : "0");
+        }
+        sb.append(millis);
+    }
 
+    private double scaleToBase(Metadata md, double valueRaw) {
+        String scaleFrom = "nanoseconds";
+        if (md.getTypeRaw() == MetricType.HISTOGRAM)
+            // for histograms, internally the data is stored using the metric's unit
+            scaleFrom = md.unit().orElse(NONE);
+        return OpenMetricsUnit.scaleToBase(scaleFrom, valueRaw);
     }
 
     private void addTags(StringBuilder sb, Map<String, String> tags, MetricRegistry.Type scope, Metadata metadata) {
@@ -457,9 +655,19 @@ public class OpenMetricsExporter implements Exporter {
         Optional<String> description = md.description();
         if (writeHelpLine && description.filter(s -> !s.isEmpty()).isPresent()
                 && !alreadyExportedNames.get().contains(md.getName())) {
+            String name = getNameWithScopeAndSuffix(scope, key, suffix, md);
             sb.append("# HELP ");
-            getNameWithScopeAndSuffix(sb, scope, key, suffix, md);
-            sb.append(quoteHelpText(description.get()));
+            if (openMetricsFormat) {
+                // the _total of meters, simple timers and counters is not part of their family name, see writeTypeLine
+                MetricType type = md.getTypeRaw();
+                boolean counter = type == MetricType.COUNTER || type == MetricType.METERED
+                        || type == MetricType.SIMPLE_TIMER;
+                sb.append(counter ? getCounterFamilyName(name) : name).append(SPACE);
+                sb.append(quoteValue(description.get()));
+            } else {
+                sb.append(name).append(SPACE);
+                sb.append(quoteHelpText(description.get()));
+            }
             sb.append(LF);
         }
 
@@ -468,23 +676,49 @@ public class OpenMetricsExporter implements Exporter {
     private void writeTypeLine(StringBuilder sb, MetricRegistry.Type scope, String key, Metadata md, String suffix,
             String typeOverride) {
         if (!alreadyExportedNames.get().contains(md.getName())) {
-            sb.append("# TYPE ");
-            getNameWithScopeAndSuffix(sb, scope, key, suffix, md);
+            String type;
             if (typeOverride != null) {
-                sb.append(typeOverride);
+                type = typeOverride;
             } else if (md.getTypeRaw().equals(MetricType.TIMER)) {
-                sb.append(SUMMARY);
+                type = SUMMARY;
             } else if (md.getTypeRaw().equals(MetricType.METERED)) {
-                sb.append(COUNTER);
+                type = COUNTER;
             } else {
-                sb.append(md.getType());
+                type = md.getType();
+            }
+            String name = getNameWithScopeAndSuffix(scope, key, suffix, md);
+            if (openMetricsFormat && type.equals(COUNTER)) {
+                name = getCounterFamilyName(name);
+            }
+            sb.append("# TYPE ").append(name).append(SPACE).append(type).append(LF);
+            if (openMetricsFormat) {
+                writeUnitLine(sb, name, md);
             }
-            sb.append(LF);
         }
     }
 
-    private void getNameWithScopeAndSuffix(StringBuilder sb, MetricRegistry.Type scope, String key, String suffix,
-            Metadata metadata) {
+    /**
+     * OpenMetrics only allows a unit that the name of the family ends with. The unit of timers is always seconds.
+     */
+    private void writeUnitLine(StringBuilder sb, String name, Metadata md) {
+        String unit = OpenMetricsUnit.getBaseUnitAsOpenMetricsString(md.unit());
+        if (unit.equals(NONE) && (md.getTypeRaw() == MetricType.TIMER || md.getTypeRaw() == MetricType.SIMPLE_TIMER)) {
+            unit = "seconds";
+        }
+        if (!unit.equals(NONE) && name.endsWith(USCORE + unit)) {
+            sb.append("# UNIT ").append(name).append(SPACE).append(unit).append(LF);
+        }
+    }
+
+    /**
+     * In the OpenMetrics format, the samples of a counter are named after their family plus {@code _total}.
+     */
+    private static String getCounterFamilyName(String name) {
+        return name.endsWith(TOTAL) ? name.substring(0, name.length() - TOTAL.length()) : name;
+    }
+
+    private String getNameWithScopeAndSuffix(MetricRegistry.Type scope, String key, String suffix, Metadata metadata) {
+        StringBuilder sb = new StringBuilder();
         if (writeScopeInPrefix(metadata)) {
             sb.append(scope.getName().toLowerCase()).append('_');
         }
@@ -492,26 +726,27 @@ public class OpenMetricsExporter implements Exporter {
         if (suffix != null) {
             sb.append(suffix);
         }
-        sb.append(SPACE);
+        return sb.toString();
     }
 
     private void createSimpleValueLine(StringBuilder sb, MetricRegistry.Type scope, String key, Metadata md, Metric metric,
-            String suffix, Map<String, String> tags) {
+            String suffix, String unitSuffix, Map<String, String> tags) {
 
         // value line
         fillBaseName(sb, scope, key, suffix, md);
-        // append the base unit only in case that the key wasn't overridden
-        if (getOpenMetricsKeyOverride(md) == null) {
-            String unit = OpenMetricsUnit.getBaseUnitAsOpenMetricsString(md.unit());
-            if (!unit.equals(NONE)) {
-                sb.append(USCORE).append(unit);
-            }
+        // the base unit, null in case that the key was overridden
+        if (unitSuffix != null) {
+            sb.append(unitSuffix);
         }
 
         addTags(sb, tags, scope, md);
 
         double valIn;
-        if (md.getTypeRaw().equals(MetricType.GAUGE)) {
+        if (metric instanceof LongGauge) {
+            valIn = ((LongGauge) metric).getLongValue();
+        } else if (metric instanceof DoubleGauge) {
+            valIn = ((DoubleGauge) metric).getDoubleValue();
+        } else if (md.getTypeRaw().equals(MetricType.GAUGE)) {
             Number value1 = (Number) ((Gauge) metric).getValue();
             if (value1 != null) {
                 valIn = value1.doubleValue();
@@ -522,7 +757,7 @@ public class OpenMetricsExporter implements Exporter {
             valIn = (double) ((Counter) metric).getCount();
         }
 
-        Double value = OpenMetricsUnit.scaleToBase(md.unit().orElse(NONE), valIn);
+        double value = OpenMetricsUnit.scaleToBase(md.unit().orElse(NONE), valIn);
         sb.append(SPACE).append(value).append(LF);
 
     }
@@ -584,4 +819,18 @@ public class OpenMetricsExporter implements Exporter {
         }
     }
 
+    private static final class Family {
+
+        private final StringBuilder metadata = new StringBuilder();
+        private final StringBuilder samples = new StringBuilder();
+        // HELP, TYPE and UNIT are only written once per family, even if several metrics share it
+        private final Set<String> keywords = new HashSet<>();
+
+        void addMetadata(String keyword, String line) {
+            if (keywords.add(keyword)) {
+                metadata.append(line).append(LF);
+            }
+        }
+    }
+
 }
@@ -109,8 +109,15 @@ public class OpenMetricsUnit {
      * - values for other units are returned unchanged
      */
     public static Double scaleToBase(String inputUnit, Double value) {
+        return value != null ? scaleToBase(inputUnit, value.doubleValue()) : null;
+    }
+
+    /**
+     * A variant of {@link #scaleToBase(String, Double)} that doesn't box the value.
+     */
+    public static double scaleToBase(String inputUnit, double value) {
 
-        Double out;
+        double out;
 
         switch (inputUnit) {
 
@@ -149,25 +156,25 @@ public class OpenMetricsUnit {
                 out = value * 1_000_000_000;
                 break;
             case MetricUnits.NANOSECONDS:
-                out = ExporterUtil.convertNanosTo(value, MetricUnits.SECONDS);
+                out = value / NANOS_PER_SECOND;
                 break;
             case MetricUnits.MICROSECONDS:
-                out = ExporterUtil.convertNanosTo(value * NANOS_PER_MICROSECOND, MetricUnits.SECONDS);
+                out = value * NANOS_PER_MICROSECOND / NANOS_PER_SECOND;
                 break;
             case MetricUnits.MILLISECONDS:
-                out = ExporterUtil.convertNanosTo(value * NANOS_PER_MILLI, MetricUnits.SECONDS);
+                out = value * NANOS_PER_MILLI / NANOS_PER_SECOND;
                 break;
             case MetricUnits.SECONDS:
-                out = ExporterUtil.convertNanosTo(value * NANOS_PER_SECOND, MetricUnits.SECONDS);
+                out = value * NANOS_PER_SECOND / NANOS_PER_SECOND;
                 break;
             case MetricUnits.MINUTES:
-                out = ExporterUtil.convertNanosTo(value * NANOS_PER_MINUTE, MetricUnits.SECONDS);
+                out = value * NANOS_PER_MINUTE / NANOS_PER_SECOND;
                 break;
             case MetricUnits.HOURS:
-                out = ExporterUtil.convertNanosTo(value * NANOS_PER_HOUR, MetricUnits.SECONDS);
+                out = value * NANOS_PER_HOUR / NANOS_PER_SECOND;
                 break;
             case MetricUnits.DAYS:
-                out = ExporterUtil.convertNanosTo(value * NANOS_PER_DAY, MetricUnits.SECONDS);
+                out = value * NANOS_PER_DAY / NANOS_PER_SECOND;
                 break;
             default:
                 out = value;
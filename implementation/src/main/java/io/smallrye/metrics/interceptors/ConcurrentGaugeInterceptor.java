@@ -17,9 +17,6 @@ package io.smallrye.metrics.interceptors;
 
 import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Member;
-import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 import jakarta.annotation.Priority;
 import jakarta.inject.Inject;
@@ -29,15 +26,11 @@ import jakarta.interceptor.AroundTimeout;
 import jakarta.interceptor.Interceptor;
 import jakarta.interceptor.InvocationContext;
 
-import org.eclipse.microprofile.metrics.MetricID;
 import org.eclipse.microprofile.metrics.MetricRegistry;
-import org.eclipse.microprofile.metrics.MetricType;
 import org.eclipse.microprofile.metrics.annotation.ConcurrentGauge;
 
 import io.smallrye.metrics.MetricRegistries;
 import io.smallrye.metrics.MetricsRegistryImpl;
-import io.smallrye.metrics.SmallRyeMetricsMessages;
-import io.smallrye.metrics.elementdesc.adapter.cdi.CDIMemberInfoAdapter;
 
 @SuppressWarnings("unused")
 @ConcurrentGauge
@@ -69,21 +62,8 @@ public class ConcurrentGaugeInterceptor {
 
     private <E extends Member & AnnotatedElement> Object concurrentCallable(InvocationContext context, E element)
             throws Exception {
-        Set<MetricID> ids = ((MetricsRegistryImpl) registry).getMemberToMetricMappings()
-                .getConcurrentGauges(new CDIMemberInfoAdapter<>().convert(element));
-        if (ids == null || ids.isEmpty()) {
-            throw SmallRyeMetricsMessages.msg.noMetricMappedForMember(element);
-        }
-        List<org.eclipse.microprofile.metrics.ConcurrentGauge> metrics = ids
-                .stream()
-                .map(metricID -> {
-                    org.eclipse.microprofile.metrics.ConcurrentGauge metric = registry.getConcurrentGauges().get(metricID);
-                    if (metric == null) {
-                        throw SmallRyeMetricsMessages.msg.noMetricFoundInRegistry(MetricType.CONCURRENT_GAUGE, metricID);
-                    }
-                    return metric;
-                })
-                .collect(Collectors.toList());
+        org.eclipse.microprofile.metrics.ConcurrentGauge[] metrics = ((MetricsRegistryImpl) registry)
+                .getMemberToMetricMappings().getResolvedConcurrentGauges(element);
         for (org.eclipse.microprofile.metrics.ConcurrentGauge metric : metrics) {
             metric.inc();
         }
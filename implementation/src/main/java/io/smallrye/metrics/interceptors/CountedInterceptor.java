@@ -17,7 +17,6 @@ package io.smallrye.metrics.interceptors;
 
 import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Member;
-import java.util.Set;
 
 import jakarta.annotation.Priority;
 import jakarta.inject.Inject;
@@ -28,15 +27,11 @@ import jakarta.interceptor.Interceptor;
 import jakarta.interceptor.InvocationContext;
 
 import org.eclipse.microprofile.metrics.Counter;
-import org.eclipse.microprofile.metrics.MetricID;
 import org.eclipse.microprofile.metrics.MetricRegistry;
-import org.eclipse.microprofile.metrics.MetricType;
 import org.eclipse.microprofile.metrics.annotation.Counted;
 
 import io.smallrye.metrics.MetricRegistries;
 import io.smallrye.metrics.MetricsRegistryImpl;
-import io.smallrye.metrics.SmallRyeMetricsMessages;
-import io.smallrye.metrics.elementdesc.adapter.cdi.CDIMemberInfoAdapter;
 
 @SuppressWarnings("unused")
 @Counted
@@ -68,20 +63,9 @@ public class CountedInterceptor {
 
     private <E extends Member & AnnotatedElement> Object countedCallable(InvocationContext context, E element)
             throws Exception {
-        Set<MetricID> ids = ((MetricsRegistryImpl) registry).getMemberToMetricMappings()
-                .getCounters(new CDIMemberInfoAdapter<>().convert(element));
-        if (ids == null || ids.isEmpty()) {
-            throw SmallRyeMetricsMessages.msg.noMetricMappedForMember(element);
+        for (Counter counter : ((MetricsRegistryImpl) registry).getMemberToMetricMappings().getResolvedCounters(element)) {
+            counter.inc();
         }
-        ids.stream()
-                .map(metricID -> {
-                    Counter metric = registry.getCounters().get(metricID);
-                    if (metric == null) {
-                        throw SmallRyeMetricsMessages.msg.noMetricFoundInRegistry(MetricType.COUNTER, metricID);
-                    }
-                    return metric;
-                })
-                .forEach(Counter::inc);
         return context.proceed();
     }
 
@@ -19,7 +19,6 @@ package io.smallrye.metrics.interceptors;
 
 import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Member;
-import java.util.Set;
 
 import jakarta.annotation.Priority;
 import jakarta.inject.Inject;
@@ -30,15 +29,11 @@ import jakarta.interceptor.Interceptor;
 import jakarta.interceptor.InvocationContext;
 
 import org.eclipse.microprofile.metrics.Meter;
-import org.eclipse.microprofile.metrics.MetricID;
 import org.eclipse.microprofile.metrics.MetricRegistry;
-import org.eclipse.microprofile.metrics.MetricType;
 import org.eclipse.microprofile.metrics.annotation.Metered;
 
 import io.smallrye.metrics.MetricRegistries;
 import io.smallrye.metrics.MetricsRegistryImpl;
-import io.smallrye.metrics.SmallRyeMetricsMessages;
-import io.smallrye.metrics.elementdesc.adapter.cdi.CDIMemberInfoAdapter;
 
 @SuppressWarnings("unused")
 @Metered
@@ -70,20 +65,9 @@ public class MeteredInterceptor {
 
     private <E extends Member & AnnotatedElement> Object meteredCallable(InvocationContext context, E element)
             throws Exception {
-        Set<MetricID> ids = ((MetricsRegistryImpl) registry).getMemberToMetricMappings()
-                .getMeters(new CDIMemberInfoAdapter<>().convert(element));
-        if (ids == null || ids.isEmpty()) {
-            throw SmallRyeMetricsMessages.msg.noMetricMappedForMember(element);
+        for (Meter meter : ((MetricsRegistryImpl) registry).getMemberToMetricMappings().getResolvedMeters(element)) {
+            meter.mark();
         }
-        ids.stream()
-                .map(metricID -> {
-                    Meter metric = registry.getMeters().get(metricID);
-                    if (metric == null) {
-                        throw SmallRyeMetricsMessages.msg.noMetricFoundInRegistry(MetricType.METERED, metricID);
-                    }
-                    return metric;
-                })
-                .forEach(Meter::mark);
         return context.proceed();
     }
 }
@@ -19,9 +19,6 @@ package io.smallrye.metrics.interceptors;
 
 import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Member;
-import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 import jakarta.annotation.Priority;
 import jakarta.inject.Inject;
@@ -31,16 +28,13 @@ import jakarta.interceptor.AroundTimeout;
 import jakarta.interceptor.Interceptor;
 import jakarta.interceptor.InvocationContext;
 
-import org.eclipse.microprofile.metrics.MetricID;
 import org.eclipse.microprofile.metrics.MetricRegistry;
-import org.eclipse.microprofile.metrics.MetricType;
 import org.eclipse.microprofile.metrics.Timer;
 import org.eclipse.microprofile.metrics.annotation.Timed;
 
 import io.smallrye.metrics.MetricRegistries;
 import io.smallrye.metrics.MetricsRegistryImpl;
-import io.smallrye.metrics.SmallRyeMetricsMessages;
-import io.smallrye.metrics.elementdesc.adapter.cdi.CDIMemberInfoAdapter;
+import io.smallrye.metrics.app.PrimitiveTimer;
 
 @SuppressWarnings("unused")
 @Timed
@@ -72,22 +66,21 @@ public class TimedInterceptor {
 
     private <E extends Member & AnnotatedElement> Object timedCallable(InvocationContext invocationContext, E element)
             throws Exception {
-        Set<MetricID> ids = ((MetricsRegistryImpl) registry).getMemberToMetricMappings()
-                .getTimers(new CDIMemberInfoAdapter<>().convert(element));
-
-        if (ids == null || ids.isEmpty()) {
-            throw SmallRyeMetricsMessages.msg.noMetricMappedForMember(element);
+        Timer[] timers = ((MetricsRegistryImpl) registry).getMemberToMetricMappings().getResolvedTimers(element);
+        if (timers.length == 1 && timers[0] instanceof PrimitiveTimer) {
+            // the common case, timed without allocating
+            PrimitiveTimer timer = (PrimitiveTimer) timers[0];
+            long start = timer.start();
+            try {
+                return invocationContext.proceed();
+            } finally {
+                timer.recordNanos(start);
+            }
+        }
+        Timer.Context[] contexts = new Timer.Context[timers.length];
+        for (int i = 0; i < timers.length; i++) {
+            contexts[i] = timers[i].time();
         }
-        List<Timer.Context> contexts = ids.stream()
-                .map(metricID -> {
-                    Timer metric = registry.getTimers().get(metricID);
-                    if (metric == null) {
-                        throw SmallRyeMetricsMessages.msg.noMetricFoundInRegistry(MetricType.TIMER, metricID);
-                    }
-                    return metric;
-                })
-                .map(Timer::time)
-                .collect(Collectors.toList());
         try {
             return invocationContext.proceed();
         } finally {
@@ -33,8 +33,10 @@ import org.eclipse.microprofile.metrics.Metadata;
 import org.eclipse.microprofile.metrics.MetricID;
 import org.eclipse.microprofile.metrics.MetricRegistry;
 import org.eclipse.microprofile.metrics.MetricUnits;
+import org.eclipse.microprofile.metrics.SimpleTimer;
 
 import io.smallrye.metrics.MetricRegistries;
+import io.smallrye.metrics.app.PrimitiveTimer;
 
 /**
  * For explanation, see javadoc of {@link JaxRsMetricsFilter}
@@ -98,7 +100,12 @@ public class JaxRsMetricsServletFilter implements Filter {
     private void updateAfterSuccess(long startTimestamp, MetricID metricID) {
         long duration = System.nanoTime() - startTimestamp;
         MetricRegistry registry = MetricRegistries.get(MetricRegistry.Type.BASE);
-        registry.getSimpleTimer(metricID).update(Duration.ofNanos(duration));
+        SimpleTimer timer = registry.getSimpleTimer(metricID);
+        if (timer instanceof PrimitiveTimer) {
+            ((PrimitiveTimer) timer).update(duration);
+        } else {
+            timer.update(Duration.ofNanos(duration));
+        }
     }
 
     private void updateAfterFailure(MetricID metricID) {
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.smallrye.metrics;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNull;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.microprofile.metrics.Metadata;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.MetricType;
+import org.junit.Test;
+
+import io.smallrye.metrics.app.Bucketed;
+import io.smallrye.metrics.app.HistogramBuckets;
+
+public class HistogramBucketsConfigTest {
+
+    private static Metadata metadata(String name, MetricType type) {
+        return Metadata.builder().withName(name).withType(type).build();
+    }
+
+    @Test
+    public void bucketsAreChosenByNamePattern() {
+        Map<String, String> properties = new HashMap<>();
+        properties.put("smallrye.metrics.histogram.buckets.\"com.acme.*\"", "0.1, 1");
+        properties.put("smallrye.metrics.histogram.buckets.\"com.acme.orders.*\"", "0.5");
+        properties.put("smallrye.metrics.histogram.buckets.sizes", "10,100.7,1000");
+        properties.put("smallrye.metrics.unrelated", "true");
+        ConfiguredHistogramBuckets configured = new ConfiguredHistogramBuckets(properties);
+
+        // the upper bounds of timers are configured in seconds
+        assertArrayEquals(new long[] { 100_000_000, 1_000_000_000 },
+                configured.create(metadata("com.acme.requests", MetricType.TIMER)).getUpperBounds());
+        assertArrayEquals(new long[] { 500_000_000 },
+                configured.create(metadata("com.acme.orders.placed", MetricType.SIMPLE_TIMER)).getUpperBounds());
+        // the upper bounds of histograms are in the unit of the histogram
+        assertArrayEquals(new long[] { 10, 100, 1000 },
+                configured.create(metadata("sizes", MetricType.HISTOGRAM)).getUpperBounds());
+        assertNull(configured.create(metadata("org.acme.requests", MetricType.TIMER)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidBuckets() {
+        new ConfiguredHistogramBuckets(
+                Collections.singletonMap("smallrye.metrics.histogram.buckets.sizes", "10,many"));
+    }
+
+    @Test
+    public void registryCreatesMetricsWithBuckets() {
+        ConfiguredHistogramBuckets configured = new ConfiguredHistogramBuckets(
+                Collections.singletonMap("smallrye.metrics.histogram.buckets.\"bucketed.*\"", "0.001,0.01"));
+        MetricsRegistryImpl registry = new MetricsRegistryImpl(MetricRegistry.Type.APPLICATION, SeriesLimits.UNLIMITED,
+                true, Collections.emptyList(), configured);
+
+        registry.timer("bucketed.timer").update(Duration.ofMillis(5));
+        registry.simpleTimer("bucketed.simpleTimer").update(Duration.ofMillis(50));
+        registry.histogram("bucketed.histogram").update(0);
+
+        assertArrayEquals(new long[] { 0, 1, 1 }, buckets(registry.timer("bucketed.timer")).getCumulativeCounts());
+        assertArrayEquals(new long[] { 0, 0, 1 },
+                buckets(registry.simpleTimer("bucketed.simpleTimer")).getCumulativeCounts());
+        // both upper bounds are rounded down to 0 for the histogram
+        assertArrayEquals(new long[] { 1, 1 }, buckets(registry.histogram("bucketed.histogram")).getCumulativeCounts());
+        assertNull(buckets(registry.timer("other")));
+    }
+
+    private static HistogramBuckets buckets(Object metric) {
+        return ((Bucketed) metric).getBuckets();
+    }
+
+}
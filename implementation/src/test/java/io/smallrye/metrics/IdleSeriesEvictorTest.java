@@ -0,0 +1,124 @@
+/*
+ * Copyright 2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.smallrye.metrics;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.microprofile.config.ConfigProvider;
+import org.eclipse.microprofile.config.spi.ConfigProviderResolver;
+import org.eclipse.microprofile.metrics.Counter;
+import org.eclipse.microprofile.metrics.Metadata;
+import org.eclipse.microprofile.metrics.MetricID;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.MetricType;
+import org.eclipse.microprofile.metrics.Tag;
+import org.junit.Test;
+
+import io.smallrye.metrics.histogram.TestingClock;
+
+public class IdleSeriesEvictorTest {
+
+    private final MetricsRegistryImpl registry = new MetricsRegistryImpl();
+    private final TestingClock clock = new TestingClock();
+    private final IdleSeriesEvictor evictor = new IdleSeriesEvictor(registry, TimeUnit.SECONDS.toNanos(60), clock);
+
+    @Test
+    public void idleTaggedSeriesAreRemoved() {
+        Counter idle = registry.counter("requests", new Tag("pod", "a"));
+        Counter busy = registry.counter("requests", new Tag("pod", "b"));
+        registry.counter("untagged");
+        idle.inc();
+
+        evictor.sweep(registry);
+        clock.addSeconds(40);
+        busy.inc();
+        evictor.sweep(registry);
+        clock.addSeconds(40);
+        evictor.sweep(registry);
+
+        assertNull(registry.getCounter(new MetricID("requests", new Tag("pod", "a"))));
+        assertNotNull(registry.getCounter(new MetricID("requests", new Tag("pod", "b"))));
+        assertNotNull(registry.getCounter(new MetricID("untagged")));
+
+        clock.addSeconds(40);
+        evictor.sweep(registry);
+        // the last series of the name is gone, so the metadata is removed as well
+        assertFalse(registry.getNames().contains("requests"));
+        assertNull(registry.getMetadata("requests"));
+        assertTrue(registry.getNames().contains("untagged"));
+    }
+
+    @Test
+    public void sweepingStopsWhenTheRegistryIsDropped() {
+        System.setProperty(SeriesLimits.SMALLRYE_METRICS_SERIES_IDLE_TIMEOUT, "60");
+        ConfigProviderResolver.instance().releaseConfig(ConfigProvider.getConfig());
+        try {
+            MetricRegistries.drop(MetricRegistry.Type.VENDOR);
+            MetricRegistries.get(MetricRegistry.Type.VENDOR);
+            assertTrue(IdleSeriesEvictor.isRunning());
+
+            MetricRegistries.drop(MetricRegistry.Type.VENDOR);
+            // it was the only registry with a sweeping, so the background thread is stopped as well
+            assertFalse(IdleSeriesEvictor.isRunning());
+        } finally {
+            System.clearProperty(SeriesLimits.SMALLRYE_METRICS_SERIES_IDLE_TIMEOUT);
+            ConfigProviderResolver.instance().releaseConfig(ConfigProvider.getConfig());
+        }
+    }
+
+    @Test
+    public void evictedSeriesAreDroppedFromFamilies() {
+        MetricFamily<Counter> requests = registry.counterFamily("requests", "pod");
+        Counter idle = requests.labels("a");
+        Counter busy = requests.labels("b");
+
+        evictor.sweep(registry);
+        clock.addSeconds(40);
+        busy.inc();
+        evictor.sweep(registry);
+        clock.addSeconds(40);
+        evictor.sweep(registry);
+
+        // the family must not keep the evicted instance reachable
+        assertNull(requests.getCachedChild("a"));
+        assertSame(busy, requests.getCachedChild("b"));
+        assertNotSame(idle, requests.labels("a"));
+    }
+
+    @Test
+    public void metricsWithOriginAndGaugesAreKept() {
+        Metadata metadata = Metadata.builder().withName("annotated").withType(MetricType.COUNTER).build();
+        registry.counter(new OriginAndMetadata(this, metadata), new Tag("a", "b"));
+        registry.gauge("gauge", () -> 42, new Tag("a", "b"));
+
+        evictor.sweep(registry);
+        clock.addHours(1);
+        evictor.sweep(registry);
+
+        assertNotNull(registry.getCounter(new MetricID("annotated", new Tag("a", "b"))));
+        assertNotNull(registry.getGauge(new MetricID("gauge", new Tag("a", "b"))));
+    }
+
+}
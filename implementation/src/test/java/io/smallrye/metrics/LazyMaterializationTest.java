@@ -0,0 +1,104 @@
+/*
+ * Copyright 2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.smallrye.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.eclipse.microprofile.metrics.Meter;
+import org.eclipse.microprofile.metrics.MetricID;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.MetricType;
+import org.eclipse.microprofile.metrics.Timer;
+import org.junit.Test;
+
+import io.smallrye.metrics.app.LazyMeter;
+import io.smallrye.metrics.app.LazyTimer;
+import io.smallrye.metrics.app.TimerImpl;
+import io.smallrye.metrics.setup.MetricsMetadata;
+
+public class LazyMaterializationTest {
+
+    private final MetricsRegistryImpl registry = new MetricsRegistryImpl(MetricRegistry.Type.APPLICATION,
+            SeriesLimits.UNLIMITED, true);
+
+    @Test
+    public void declaredMetricsAreMaterializedOnFirstUpdate() {
+        Timer timer = registry.timer(MetricsMetadata.getMetadata(this, "timer1", null, null, null, MetricType.TIMER));
+        Meter meter = registry.meter(MetricsMetadata.getMetadata(this, "meter1", null, null, null, MetricType.METERED));
+
+        LazyTimer lazyTimer = (LazyTimer) timer;
+        assertFalse(lazyTimer.isMaterialized());
+        assertEquals(0, timer.getCount());
+        assertEquals(Duration.ZERO, timer.getElapsedTime());
+        assertEquals(0, timer.getSnapshot().size());
+        assertEquals(0.0, timer.getMeanRate(), 0.0);
+
+        timer.update(Duration.ofMillis(5));
+        assertTrue(lazyTimer.isMaterialized());
+        assertEquals(1, timer.getCount());
+        assertEquals(Duration.ofMillis(5), timer.getElapsedTime());
+        assertEquals(1, timer.getSnapshot().size());
+
+        LazyMeter lazyMeter = (LazyMeter) meter;
+        assertFalse(lazyMeter.isMaterialized());
+        meter.mark(3);
+        assertTrue(lazyMeter.isMaterialized());
+        assertEquals(3, meter.getCount());
+    }
+
+    @Test
+    public void programmaticMetricsAreCreatedEagerly() {
+        assertTrue(registry.timer("timer1") instanceof TimerImpl);
+    }
+
+    @Test
+    public void concurrentFirstUpdates() throws InterruptedException {
+        Timer timer = registry.timer(MetricsMetadata.getMetadata(this, "timer1", null, null, null, MetricType.TIMER));
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                for (int j = 0; j < 1000; j++) {
+                    timer.update(Duration.ofNanos(1));
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(8000, timer.getCount());
+        assertSame(timer, registry.getTimer(new MetricID("timer1")));
+    }
+
+}
@@ -146,6 +146,14 @@ public class MediaHandlerTest {
         assertThat(res.get()).isEqualTo("application/json");
     }
 
+    @Test
+    public void testOpenMetrics() {
+        Optional<String> res = requestHandler.getBestMatchingMediaType(Stream.of(
+                "application/openmetrics-text;version=1.0.0,text/plain;version=0.0.4;q=0.5,*/*;q=0.1"));
+        assertThat(res.isPresent()).isTrue();
+        assertThat(res.get()).isEqualTo("application/openmetrics-text");
+    }
+
     @Test
     public void testDefaultMediaTypeWhenAcceptHeaderNotSet() {
         Optional<String> res = requestHandler.getBestMatchingMediaType(Stream.empty());
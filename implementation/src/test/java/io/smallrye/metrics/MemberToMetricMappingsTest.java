@@ -0,0 +1,117 @@
+/*
+ * Copyright 2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.smallrye.metrics;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.lang.reflect.Method;
+
+import org.eclipse.microprofile.metrics.Counter;
+import org.eclipse.microprofile.metrics.MetricID;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.MetricType;
+import org.eclipse.microprofile.metrics.Timer;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.smallrye.metrics.app.CounterImpl;
+import io.smallrye.metrics.elementdesc.MemberInfo;
+import io.smallrye.metrics.elementdesc.adapter.cdi.CDIMemberInfoAdapter;
+
+public class MemberToMetricMappingsTest {
+
+    private MetricsRegistryImpl registry;
+    private MemberToMetricMappings mappings;
+    private Method method;
+    private MemberInfo memberInfo;
+
+    @Before
+    public void setUp() throws NoSuchMethodException {
+        registry = new MetricsRegistryImpl(MetricRegistry.Type.APPLICATION);
+        mappings = registry.getMemberToMetricMappings();
+        method = MemberToMetricMappingsTest.class.getDeclaredMethod("annotatedMethod");
+        memberInfo = new CDIMemberInfoAdapter<>().convert(method);
+    }
+
+    @Test
+    public void resolvedMetricsAreCached() {
+        Counter counter = registry.counter("c1");
+        MetricID metricID = new MetricID("c1");
+        mappings.addMetric(memberInfo, metricID, MetricType.COUNTER);
+
+        Counter[] resolved = mappings.getResolvedCounters(method);
+        assertArrayEquals(new Counter[] { counter }, resolved);
+        assertSame(resolved, mappings.getResolvedCounters(method));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void unmappedMember() {
+        mappings.getResolvedTimers(method);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void removingMetricInvalidatesCache() {
+        registry.counter("c1");
+        MetricID metricID = new MetricID("c1");
+        mappings.addMetric(memberInfo, metricID, MetricType.COUNTER);
+        mappings.getResolvedCounters(method);
+
+        registry.remove(metricID);
+        // the mapping still exists, but the metric is gone from the registry
+        mappings.getResolvedCounters(method);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void metricOfDifferentType() {
+        registry.timer("c1");
+        mappings.addMetric(memberInfo, new MetricID("c1"), MetricType.COUNTER);
+        mappings.getResolvedCounters(method);
+    }
+
+    @Test
+    public void reRegisteredMetricIsPickedUp() {
+        Counter original = registry.counter("c1");
+        MetricID metricID = new MetricID("c1");
+        mappings.addMetric(memberInfo, metricID, MetricType.COUNTER);
+        assertSame(original, mappings.getResolvedCounters(method)[0]);
+
+        registry.remove(metricID);
+        Counter replacement = registry.register("c1", new CounterImpl());
+        assertNotSame(original, replacement);
+        assertSame(replacement, mappings.getResolvedCounters(method)[0]);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void removingMappingInvalidatesCache() {
+        registry.timer("t1");
+        MetricID metricID = new MetricID("t1");
+        mappings.addMetric(memberInfo, metricID, MetricType.TIMER);
+        Timer[] resolved = mappings.getResolvedTimers(method);
+        assertArrayEquals(new Timer[] { registry.getTimer(metricID) }, resolved);
+
+        mappings.removeMappingsFor(memberInfo, metricID);
+        mappings.getResolvedTimers(method);
+    }
+
+    @SuppressWarnings("unused")
+    void annotatedMethod() {
+    }
+
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.smallrye.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.eclipse.microprofile.config.ConfigProvider;
+import org.eclipse.microprofile.config.spi.ConfigProviderResolver;
+import org.eclipse.microprofile.metrics.Counter;
+import org.eclipse.microprofile.metrics.Metadata;
+import org.eclipse.microprofile.metrics.MetricID;
+import org.eclipse.microprofile.metrics.MetricUnits;
+import org.eclipse.microprofile.metrics.Tag;
+import org.eclipse.microprofile.metrics.Timer;
+import org.junit.Test;
+
+public class MetricFamilyTest {
+
+    private final MetricsRegistryImpl registry = new MetricsRegistryImpl();
+
+    @Test
+    public void childrenAreRegisteredWithTags() {
+        MetricFamily<Counter> requests = registry.counterFamily("requests", "method", "status");
+        assertEquals("requests", requests.getName());
+        assertEquals(Arrays.asList("method", "status"), requests.getTagNames());
+
+        Counter getOk = requests.labels("GET", "200");
+        getOk.inc();
+        requests.labels("POST", "500").inc(2);
+
+        assertSame(getOk, requests.labels("GET", "200"));
+        assertSame(getOk, registry.getCounter(new MetricID("requests", new Tag("method", "GET"), new Tag("status", "200"))));
+        assertEquals(2, registry.getCounters().size());
+        assertEquals(2, registry.counter("requests", new Tag("status", "500"), new Tag("method", "POST")).getCount());
+    }
+
+    @Test
+    public void familyWithMetadata() {
+        Metadata metadata = Metadata.builder().withName("latency").withUnit(MetricUnits.MILLISECONDS).build();
+        MetricFamily<Timer> latency = registry.timerFamily(metadata, "route");
+        Timer timer = latency.labels("/hello");
+        assertSame(timer, registry.getTimer(new MetricID("latency", new Tag("route", "/hello"))));
+        assertEquals(MetricUnits.MILLISECONDS, registry.getMetadata("latency").unit().get());
+    }
+
+    @Test
+    public void removedChildIsRecreated() {
+        MetricFamily<Counter> requests = registry.counterFamily("requests", "status");
+        Counter original = requests.labels("200");
+
+        assertTrue(requests.remove("200"));
+        assertFalse(requests.remove("200"));
+
+        Counter recreated = requests.labels("200");
+        assertNotSame(original, recreated);
+
+        // removing the metric through the registry invalidates the family's cache as well
+        registry.remove("requests");
+        assertNotSame(recreated, requests.labels("200"));
+        assertEquals(1, registry.getCounters().size());
+    }
+
+    @Test
+    public void removedChildIsNotKeptByTheFamily() {
+        MetricFamily<Counter> requests = registry.counterFamily("requests", "method", "status");
+        requests.labels("GET", "200");
+        Counter post = requests.labels("POST", "200");
+
+        registry.remove(new MetricID("requests", new Tag("status", "200"), new Tag("method", "GET")));
+        assertNull(requests.getCachedChild("GET", "200"));
+        assertSame(post, requests.getCachedChild("POST", "200"));
+
+        registry.remove("requests");
+        assertNull(requests.getCachedChild("POST", "200"));
+    }
+
+    @Test
+    public void removedChildWithGlobalTagsIsNotKeptByTheFamily() {
+        String previousGlobalTags = System.getProperty("mp.metrics.tags");
+        System.setProperty("mp.metrics.tags", "app=shop");
+        ConfigProviderResolver.instance().releaseConfig(ConfigProvider.getConfig());
+        try {
+            MetricFamily<Counter> requests = registry.counterFamily("requests", "status");
+            Counter ok = requests.labels("200");
+            assertSame(ok, requests.getCachedChild("200"));
+
+            // the global tags are not part of the tags of the family
+            registry.remove(new MetricID("requests", new Tag("status", "200")));
+            assertNull(requests.getCachedChild("200"));
+            assertNotSame(ok, requests.labels("200"));
+        } finally {
+            if (previousGlobalTags != null) {
+                System.setProperty("mp.metrics.tags", previousGlobalTags);
+            } else {
+                System.clearProperty("mp.metrics.tags");
+            }
+            ConfigProviderResolver.instance().releaseConfig(ConfigProvider.getConfig());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void wrongNumberOfTagValues() {
+        registry.histogramFamily("sizes", "a", "b").labels("x");
+    }
+
+}
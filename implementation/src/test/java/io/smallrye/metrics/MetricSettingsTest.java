@@ -0,0 +1,70 @@
+/*
+ * Copyright 2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.smallrye.metrics;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.time.Duration;
+import java.util.Collections;
+
+import org.eclipse.microprofile.metrics.Histogram;
+import org.eclipse.microprofile.metrics.Timer;
+import org.junit.Test;
+
+import io.smallrye.metrics.app.HistogramImpl;
+import io.smallrye.metrics.app.MetricSettings;
+import io.smallrye.metrics.app.RollingMax;
+import io.smallrye.metrics.app.WithRollingMax;
+
+public class MetricSettingsTest {
+
+    private static MetricsRegistryImpl registry(MetricSettings settings) {
+        return new MetricsRegistryImpl(null, SeriesLimits.UNLIMITED, false, Collections.emptyList(),
+                ConfiguredHistogramBuckets.NONE, settings);
+    }
+
+    @Test
+    public void snapshotCachingFollowsTheRegistrySettings() {
+        Histogram cached = registry(MetricSettings.DEFAULTS).histogram("h");
+        cached.update(10);
+        assertSame(cached.getSnapshot(), cached.getSnapshot());
+
+        MetricsRegistryImpl uncachedRegistry = registry(new MetricSettings(0, false, 0, RollingMax.DEFAULT_SLOTS));
+        Histogram uncached = uncachedRegistry.histogram("h");
+        uncached.update(10);
+        assertNotSame(uncached.getSnapshot(), uncached.getSnapshot());
+        Timer timer = uncachedRegistry.timer("t");
+        timer.update(Duration.ofMillis(1));
+        assertNotSame(timer.getSnapshot(), timer.getSnapshot());
+    }
+
+    @Test
+    public void rollingMaxFollowsTheRegistrySettings() {
+        assertNull(((HistogramImpl) registry(MetricSettings.DEFAULTS).histogram("h")).getRollingMax());
+
+        MetricsRegistryImpl registry = registry(new MetricSettings(0, false, 60, RollingMax.DEFAULT_SLOTS));
+        RollingMax histogramMax = ((HistogramImpl) registry.histogram("h")).getRollingMax();
+        RollingMax timerMax = ((WithRollingMax) registry.timer("t")).getRollingMax();
+        assertNotNull(histogramMax);
+        assertNotNull(timerMax);
+        assertNotSame(histogramMax, timerMax);
+    }
+
+}
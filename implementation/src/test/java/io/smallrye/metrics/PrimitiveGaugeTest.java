@@ -0,0 +1,73 @@
+/*
+ * Copyright 2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.smallrye.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.microprofile.metrics.Gauge;
+import org.eclipse.microprofile.metrics.MetricID;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.Tag;
+import org.junit.Test;
+
+import io.smallrye.metrics.app.DoubleGauge;
+import io.smallrye.metrics.app.LongGauge;
+import io.smallrye.metrics.app.SettableDoubleGauge;
+import io.smallrye.metrics.app.SettableLongGauge;
+
+public class PrimitiveGaugeTest {
+
+    private final MetricsRegistryImpl registry = new MetricsRegistryImpl(MetricRegistry.Type.APPLICATION);
+
+    @Test
+    public void callbackGauges() {
+        AtomicLong state = new AtomicLong(3);
+        LongGauge longGauge = registry.longGauge("long", state, AtomicLong::get);
+        DoubleGauge doubleGauge = registry.doubleGauge("double", state, s -> s.get() / 2.0, new Tag("a", "b"));
+
+        state.set(5);
+        assertEquals(5, longGauge.getLongValue());
+        assertEquals(Long.valueOf(5), longGauge.getValue());
+        assertEquals(2.5, doubleGauge.getDoubleValue(), 0.0);
+        assertSame(doubleGauge, registry.getGauge(new MetricID("double", new Tag("a", "b"))));
+    }
+
+    @Test
+    public void settableGauges() {
+        SettableLongGauge longGauge = registry.settableLongGauge("long");
+        longGauge.set(10);
+        assertEquals(7, longGauge.add(-3));
+        assertEquals(7, longGauge.getLongValue());
+        assertSame(longGauge, registry.settableLongGauge("long"));
+
+        SettableDoubleGauge doubleGauge = registry.settableDoubleGauge("double");
+        doubleGauge.set(1.25);
+        assertEquals(1.75, doubleGauge.add(0.5), 0.0);
+        assertEquals(Double.valueOf(1.75), doubleGauge.getValue());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void gaugeOfDifferentKind() {
+        registry.register("gauge", (Gauge<Long>) () -> 1L);
+        registry.settableLongGauge("gauge");
+    }
+
+}
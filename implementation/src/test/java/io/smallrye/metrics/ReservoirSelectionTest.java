@@ -0,0 +1,149 @@
+/*
+ * Copyright 2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.smallrye.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.microprofile.metrics.Metadata;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.MetricType;
+import org.eclipse.microprofile.metrics.Timer;
+import org.junit.Test;
+
+import io.smallrye.metrics.app.DDSketchReservoir;
+import io.smallrye.metrics.app.ExponentiallyDecayingReservoir;
+import io.smallrye.metrics.app.LogLinearReservoir;
+import io.smallrye.metrics.app.ReservoirFactory;
+import io.smallrye.metrics.app.SlidingTimeWindowReservoir;
+import io.smallrye.metrics.app.UniformReservoir;
+import io.smallrye.metrics.setup.MetricsMetadata;
+
+public class ReservoirSelectionTest {
+
+    private static Metadata histogram(String name) {
+        return Metadata.builder().withName(name).withType(MetricType.HISTOGRAM).build();
+    }
+
+    @Test
+    public void reservoirsAreChosenByNamePattern() {
+        Map<String, String> properties = new HashMap<>();
+        properties.put("smallrye.metrics.reservoir.\"com.acme.*\".type", "sliding-window");
+        properties.put("smallrye.metrics.reservoir.\"com.acme.*\".window", "30");
+        properties.put("smallrye.metrics.reservoir.\"com.acme.orders.*\".type", "uniform");
+        properties.put("smallrye.metrics.reservoir.\"com.acme.orders.*\".size", "10");
+        properties.put("smallrye.metrics.reservoir.latency.type", "log-linear");
+        properties.put("smallrye.metrics.reservoir.\"*.sketch\".type", "ddsketch");
+        properties.put("smallrye.metrics.reservoir.\"*.sketch\".accuracy", "0.02");
+        properties.put("smallrye.metrics.reservoir.\"*.edr\".alpha", "0.1");
+        properties.put("smallrye.metrics.unrelated", "true");
+        ConfiguredReservoirFactory factory = new ConfiguredReservoirFactory(properties);
+
+        assertTrue(factory.create(histogram("com.acme.requests")) instanceof SlidingTimeWindowReservoir);
+        // the longest matching pattern wins
+        assertTrue(factory.create(histogram("com.acme.orders.placed")) instanceof UniformReservoir);
+        assertTrue(factory.create(histogram("latency")) instanceof LogLinearReservoir);
+        assertEquals(0.02, ((DDSketchReservoir) factory.create(histogram("foo.sketch"))).getRelativeAccuracy(), 0.0);
+        assertTrue(factory.create(histogram("foo.edr")) instanceof ExponentiallyDecayingReservoir);
+        assertNull(factory.create(histogram("latency.other")));
+        assertNull(factory.create(histogram("org.acme.requests")));
+    }
+
+    @Test
+    public void configuredParametersAreApplied() {
+        Map<String, String> properties = new HashMap<>();
+        properties.put("smallrye.metrics.reservoir.\"small\".type", "uniform");
+        properties.put("smallrye.metrics.reservoir.\"small\".size", "10");
+        ConfiguredReservoirFactory factory = new ConfiguredReservoirFactory(properties);
+
+        UniformReservoir reservoir = (UniformReservoir) factory.create(histogram("small"));
+        for (int i = 0; i < 100; i++) {
+            reservoir.update(i);
+        }
+        assertEquals(10, reservoir.size());
+        assertEquals(10, reservoir.getSnapshot().size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownTypeIsRejected() {
+        Map<String, String> properties = new HashMap<>();
+        properties.put("smallrye.metrics.reservoir.\"com.acme.*\".type", "reservoir-of-dogs");
+        new ConfiguredReservoirFactory(properties);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidParameterIsRejected() {
+        Map<String, String> properties = new HashMap<>();
+        properties.put("smallrye.metrics.reservoir.\"com.acme.*\".type", "log-linear");
+        properties.put("smallrye.metrics.reservoir.\"com.acme.*\".precision", "5");
+        new ConfiguredReservoirFactory(properties);
+    }
+
+    @Test
+    public void factoriesAreConsultedInOrder() {
+        List<String> consulted = new ArrayList<>();
+        ReservoirFactory first = metadata -> {
+            consulted.add("first:" + metadata.getName());
+            return metadata.getName().startsWith("uniform") ? new UniformReservoir(5) : null;
+        };
+        ReservoirFactory second = metadata -> {
+            consulted.add("second:" + metadata.getName());
+            return null;
+        };
+        MetricsRegistryImpl registry = new MetricsRegistryImpl(MetricRegistry.Type.APPLICATION, SeriesLimits.UNLIMITED,
+                false, Arrays.asList(first, second));
+
+        for (int i = 0; i < 100; i++) {
+            registry.histogram("uniform").update(i);
+        }
+        assertEquals(5, registry.histogram("uniform").getSnapshot().size());
+        registry.timer("other").update(Duration.ofMillis(1));
+        // existing metrics don't go through the factories again
+        registry.histogram("uniform");
+
+        assertEquals(Arrays.asList("first:uniform", "first:other", "second:other"), consulted);
+    }
+
+    @Test
+    public void factoriesApplyToLazilyMaterializedTimers() {
+        List<String> consulted = new ArrayList<>();
+        ReservoirFactory factory = metadata -> {
+            consulted.add(metadata.getName());
+            return new UniformReservoir(5);
+        };
+        MetricsRegistryImpl registry = new MetricsRegistryImpl(MetricRegistry.Type.APPLICATION, SeriesLimits.UNLIMITED,
+                true, Arrays.asList(factory));
+
+        Timer timer = registry.timer(MetricsMetadata.getMetadata(this, "declared", null, null, null, MetricType.TIMER));
+        assertTrue(consulted.isEmpty());
+        for (int i = 0; i < 10; i++) {
+            timer.update(Duration.ofMillis(i));
+        }
+        assertEquals(Arrays.asList("declared"), consulted);
+        assertEquals(5, timer.getSnapshot().size());
+    }
+
+}
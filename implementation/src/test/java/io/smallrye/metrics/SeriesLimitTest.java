@@ -0,0 +1,117 @@
+/*
+ * Copyright 2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.smallrye.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.eclipse.microprofile.metrics.Counter;
+import org.eclipse.microprofile.metrics.Metadata;
+import org.eclipse.microprofile.metrics.MetricID;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.MetricType;
+import org.eclipse.microprofile.metrics.Tag;
+import org.junit.After;
+import org.junit.Test;
+
+import io.smallrye.metrics.app.CounterImpl;
+
+public class SeriesLimitTest {
+
+    @After
+    public void cleanup() {
+        MetricRegistries.dropAll();
+    }
+
+    @Test
+    public void newSeriesAreFoldedIntoOverflowSeries() {
+        MetricsRegistryImpl registry = new MetricsRegistryImpl(MetricRegistry.Type.APPLICATION, new SeriesLimits(2, 0));
+        Counter first = registry.counter("requests", new Tag("user", "a"), new Tag("method", "GET"));
+        registry.counter("requests", new Tag("user", "b"), new Tag("method", "GET"));
+
+        Counter overflow = registry.counter("requests", new Tag("user", "c"), new Tag("method", "GET"));
+        assertSame(overflow, registry.counter("requests", new Tag("user", "d"), new Tag("method", "POST")));
+        assertSame(overflow, registry.getCounter(new MetricID("requests",
+                new Tag("user", MetricsRegistryImpl.OVERFLOW_TAG_VALUE),
+                new Tag("method", MetricsRegistryImpl.OVERFLOW_TAG_VALUE))));
+        assertEquals(3, registry.getCounters().size());
+
+        // existing series are still available
+        assertSame(first, registry.counter("requests", new Tag("user", "a"), new Tag("method", "GET")));
+
+        Counter dropped = MetricRegistries.get(MetricRegistry.Type.VENDOR).getCounter(
+                new MetricID(MetricsRegistryImpl.DROPPED_SERIES_METRIC_NAME, new Tag("registry", "application")));
+        assertNotNull(dropped);
+        assertEquals(2, dropped.getCount());
+    }
+
+    @Test
+    public void repeatedLookupsOfFoldedSeriesAreCountedOnce() {
+        MetricsRegistryImpl registry = new MetricsRegistryImpl(MetricRegistry.Type.APPLICATION, new SeriesLimits(1, 0));
+        registry.counter("requests", new Tag("user", "a"));
+        Counter overflow = registry.counter("requests", new Tag("user", "b"));
+        assertSame(overflow, registry.counter("requests", new Tag("user", "b")));
+        assertSame(overflow, registry.counter("requests", new Tag("user", "b")));
+
+        Counter dropped = MetricRegistries.get(MetricRegistry.Type.VENDOR).getCounter(
+                new MetricID(MetricsRegistryImpl.DROPPED_SERIES_METRIC_NAME, new Tag("registry", "application")));
+        assertEquals(1, dropped.getCount());
+    }
+
+    @Test
+    public void declaredMetricsAreExemptFromLimits() {
+        MetricsRegistryImpl registry = new MetricsRegistryImpl(null, new SeriesLimits(1, 0));
+        Metadata metadata = Metadata.builder().withName("c1").withType(MetricType.COUNTER).build();
+        registry.counter(metadata, new Tag("a", "1"));
+
+        // the interceptors look up the declared metric by its original ID, so it must not be folded
+        Counter declared = registry.counter(new OriginAndMetadata(this, metadata), new Tag("a", "2"));
+        assertSame(declared, registry.getCounter(new MetricID("c1", new Tag("a", "2"))));
+    }
+
+    @Test
+    public void registryLimit() {
+        MetricsRegistryImpl registry = new MetricsRegistryImpl(null, new SeriesLimits(0, 2));
+        registry.counter("c1");
+        registry.counter("c2", new Tag("a", "1"));
+
+        // an untagged metric can't be folded anywhere, so it's not registered at all
+        Counter unregistered = registry.counter("c3");
+        unregistered.inc();
+        assertFalse(registry.getNames().contains("c3"));
+        assertNotSame(unregistered, registry.counter("c3"));
+
+        Counter overflow = registry.counter("c2", new Tag("a", "2"));
+        assertEquals(new MetricID("c2", new Tag("a", MetricsRegistryImpl.OVERFLOW_TAG_VALUE)),
+                registry.getCounters().entrySet().stream()
+                        .filter(entry -> entry.getValue() == overflow)
+                        .findFirst().get().getKey());
+    }
+
+    @Test
+    public void explicitRegistrationOverLimitIsDropped() {
+        MetricsRegistryImpl registry = new MetricsRegistryImpl(null, new SeriesLimits(1, 0));
+        registry.register("c1", new CounterImpl());
+        registry.register(registry.getMetadata("c1"), new CounterImpl(), new Tag("a", "b"));
+        assertEquals(1, registry.getMetrics().size());
+    }
+
+}
@@ -0,0 +1,105 @@
+package io.smallrye.metrics.app;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import io.smallrye.metrics.histogram.TestingClock;
+
+public class ConcurrentGaugeImplTest {
+
+    private final TestingClock clock = new TestingClock();
+    private final ConcurrentGaugeImpl gauge = new ConcurrentGaugeImpl(clock);
+
+    @Test
+    public void extremesAreThoseOfThePreviousMinute() {
+        gauge.inc();
+        gauge.inc();
+        gauge.inc();
+        gauge.dec();
+        assertEquals(2, gauge.getCount());
+        // no complete minute yet
+        assertEquals(0, gauge.getMax());
+        assertEquals(0, gauge.getMin());
+
+        clock.addSeconds(60);
+        assertEquals(3, gauge.getMax());
+        assertEquals(0, gauge.getMin());
+
+        gauge.dec();
+        gauge.dec();
+        gauge.inc();
+        clock.addSeconds(60);
+        assertEquals(2, gauge.getMax());
+        assertEquals(0, gauge.getMin());
+        assertEquals(1, gauge.getCount());
+    }
+
+    @Test
+    public void idleMinuteHasTheCountAsExtremes() {
+        gauge.inc();
+        gauge.inc();
+        clock.addSeconds(60);
+        assertEquals(2, gauge.getMax());
+        assertEquals(0, gauge.getMin());
+
+        // nothing happens for a few minutes, then the gauge is updated
+        clock.addSeconds(300);
+        gauge.inc();
+        assertEquals(2, gauge.getMax());
+        assertEquals(2, gauge.getMin());
+
+        clock.addSeconds(60);
+        assertEquals(3, gauge.getMax());
+        assertEquals(2, gauge.getMin());
+    }
+
+    @Test
+    public void concurrentUpdates() throws Exception {
+        final int threads = 8;
+        final int updates = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch allIncremented = new CountDownLatch(threads);
+        CountDownLatch decrement = new CountDownLatch(1);
+        try {
+            for (int t = 0; t < threads; t++) {
+                executor.execute(() -> {
+                    try {
+                        start.await();
+                        for (int i = 0; i < updates; i++) {
+                            gauge.inc();
+                            gauge.dec();
+                        }
+                        gauge.inc();
+                        allIncremented.countDown();
+                        decrement.await();
+                        gauge.dec();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+            start.countDown();
+            assertTrue(allIncremented.await(30, TimeUnit.SECONDS));
+            assertEquals(threads, gauge.getCount());
+            decrement.countDown();
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(0, gauge.getCount());
+        clock.addSeconds(60);
+        // every thread held the gauge at once after its loop
+        assertEquals(threads, gauge.getMax());
+        assertEquals(0, gauge.getMin());
+    }
+
+}
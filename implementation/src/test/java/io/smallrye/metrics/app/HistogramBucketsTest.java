@@ -0,0 +1,172 @@
+package io.smallrye.metrics.app;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import io.smallrye.metrics.histogram.TestingClock;
+
+public class HistogramBucketsTest {
+
+    @Test
+    public void valuesAreCountedInTheFirstBucketWithAGreaterOrEqualUpperBound() {
+        HistogramBuckets buckets = new HistogramBuckets(10, 100, 1000);
+        buckets.record(-5);
+        buckets.record(10);
+        buckets.record(11);
+        buckets.record(100);
+        buckets.record(999);
+        buckets.record(1001);
+
+        assertArrayEquals(new long[] { 10, 100, 1000 }, buckets.getUpperBounds());
+        assertArrayEquals(new long[] { 2, 4, 5, 6 }, buckets.getCumulativeCounts());
+    }
+
+    @Test
+    public void upperBoundsAreSortedAndDistinct() {
+        HistogramBuckets buckets = new HistogramBuckets(100, 10, 100);
+        assertArrayEquals(new long[] { 10, 100 }, buckets.getUpperBounds());
+        assertArrayEquals(new long[] { 0, 0, 0 }, buckets.getCumulativeCounts());
+    }
+
+    @Test
+    public void noUpperBounds() {
+        HistogramBuckets buckets = new HistogramBuckets();
+        buckets.record(42);
+        assertArrayEquals(new long[] { 1 }, buckets.getCumulativeCounts());
+    }
+
+    @Test
+    public void concurrentRecording() throws Exception {
+        HistogramBuckets buckets = new HistogramBuckets(24, 49, 74);
+        final int threads = 8;
+        final int values = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            for (int t = 0; t < threads; t++) {
+                executor.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    for (int i = 0; i < values; i++) {
+                        buckets.record(i % 100);
+                    }
+                });
+            }
+            start.countDown();
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        long total = (long) threads * values;
+        assertArrayEquals(new long[] { total / 4, total / 2, total * 3 / 4, total }, buckets.getCumulativeCounts());
+    }
+
+    @Test
+    public void exemplarsAreSampledAtMostOncePerBucketAndInterval() {
+        TestingClock clock = new TestingClock();
+        AtomicInteger calls = new AtomicInteger();
+        ExemplarSampler sampler = new ExemplarSampler(() -> {
+            return Collections.singletonMap("trace_id", "trace" + calls.incrementAndGet());
+        }, 1000, 60_000, clock);
+        HistogramBuckets buckets = new HistogramBuckets(sampler, 10);
+
+        buckets.record(5);
+        buckets.record(6);
+        buckets.record(20);
+        assertEquals(2, calls.get());
+        Exemplar[] exemplars = buckets.getExemplars();
+        assertEquals(5, exemplars[0].getValue());
+        assertEquals(Collections.singletonMap("trace_id", "trace1"), exemplars[0].getLabels());
+        assertEquals(20, exemplars[1].getValue());
+
+        clock.addMillis(999);
+        buckets.record(7);
+        assertEquals(5, buckets.getExemplars()[0].getValue());
+
+        clock.addMillis(1);
+        buckets.record(8);
+        exemplars = buckets.getExemplars();
+        assertEquals(8, exemplars[0].getValue());
+        assertEquals(clock.getTime(), exemplars[0].getTimestamp());
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    public void exemplarsOlderThanTheMaxAgeAreNotReported() {
+        TestingClock clock = new TestingClock();
+        ExemplarSampler sampler = new ExemplarSampler(() -> Collections.singletonMap("trace_id", "abc"), 1000, 5000,
+                clock);
+        HistogramBuckets buckets = new HistogramBuckets(sampler, 10);
+
+        buckets.record(5);
+        clock.addMillis(4000);
+        buckets.record(20);
+        clock.addMillis(1000);
+        assertEquals(5, buckets.getExemplars()[0].getValue());
+
+        clock.addMillis(1);
+        Exemplar[] exemplars = buckets.getExemplars();
+        assertNull(exemplars[0]);
+        assertEquals(20, exemplars[1].getValue());
+
+        // a bucket that receives values again gets a new exemplar
+        buckets.record(6);
+        assertEquals(6, buckets.getExemplars()[0].getValue());
+    }
+
+    @Test
+    public void exemplarsWithoutOrWithTooLongLabelsAreDropped() {
+        TestingClock clock = new TestingClock();
+        AtomicInteger calls = new AtomicInteger();
+        ExemplarSampler sampler = new ExemplarSampler(() -> {
+            StringBuilder traceId = new StringBuilder();
+            for (int i = 0; i < calls.get() * 100; i++) {
+                traceId.append('a');
+            }
+            Map<String, String> labels = calls.getAndIncrement() == 0 ? null
+                    : Collections.singletonMap("trace_id", traceId.toString());
+            return labels;
+        }, 1000, 60_000, clock);
+        HistogramBuckets buckets = new HistogramBuckets(sampler, 10);
+
+        buckets.record(5);
+        // the supplier is not asked again before the interval has passed, even though it had no labels
+        buckets.record(5);
+        assertEquals(1, calls.get());
+        clock.addMillis(1000);
+        buckets.record(5);
+        assertEquals(100, buckets.getExemplars()[0].getLabels().get("trace_id").length());
+        clock.addMillis(1000);
+        buckets.record(6);
+        // 200 characters are too many, the previous exemplar is kept
+        assertEquals(5, buckets.getExemplars()[0].getValue());
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    public void noExemplarsWithoutASampler() {
+        HistogramBuckets buckets = new HistogramBuckets(10);
+        buckets.record(5);
+        Exemplar[] exemplars = buckets.getExemplars();
+        assertEquals(2, exemplars.length);
+        assertNull(exemplars[0]);
+    }
+
+}
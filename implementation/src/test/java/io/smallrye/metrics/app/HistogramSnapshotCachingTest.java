@@ -0,0 +1,64 @@
+package io.smallrye.metrics.app;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.microprofile.metrics.Snapshot;
+import org.junit.Test;
+
+import io.smallrye.metrics.histogram.TestingClock;
+
+public class HistogramSnapshotCachingTest {
+
+    private final TestingClock clock = new TestingClock();
+
+    private HistogramImpl histogram(long snapshotMaxAgeNanos) {
+        return new MetricSettings(snapshotMaxAgeNanos, false, 0, RollingMax.DEFAULT_SLOTS)
+                .newHistogram(new UniformReservoir(), clock, null);
+    }
+
+    @Test
+    public void snapshotIsReusedUntilTheNextUpdate() {
+        HistogramImpl histogram = histogram(TimeUnit.SECONDS.toNanos(1));
+        histogram.update(10);
+        Snapshot first = histogram.getSnapshot();
+        assertSame(first, histogram.getSnapshot());
+
+        histogram.update(20);
+        Snapshot second = histogram.getSnapshot();
+        assertNotSame(first, second);
+        assertEquals(2, second.size());
+        assertSame(second, histogram.getSnapshot());
+    }
+
+    @Test
+    public void snapshotExpires() {
+        HistogramImpl histogram = histogram(TimeUnit.SECONDS.toNanos(1));
+        histogram.update(10);
+        Snapshot first = histogram.getSnapshot();
+        clock.addMillis(999);
+        assertSame(first, histogram.getSnapshot());
+        clock.addMillis(1);
+        assertNotSame(first, histogram.getSnapshot());
+    }
+
+    @Test
+    public void cachingCanBeDisabled() {
+        HistogramImpl histogram = histogram(0);
+        histogram.update(10);
+        assertNotSame(histogram.getSnapshot(), histogram.getSnapshot());
+    }
+
+    @Test
+    public void timerSnapshotIsCached() {
+        TimerImpl timer = new TimerImpl(new UniformReservoir(), clock);
+        timer.time(() -> clock.addMillis(5));
+        Snapshot snapshot = timer.getSnapshot();
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(5), snapshot.getMax());
+        assertSame(snapshot, timer.getSnapshot());
+    }
+
+}
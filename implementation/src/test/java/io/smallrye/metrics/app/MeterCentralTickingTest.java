@@ -0,0 +1,78 @@
+package io.smallrye.metrics.app;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.junit.Test;
+
+import io.smallrye.metrics.MetricRegistries;
+import io.smallrye.metrics.histogram.TestingClock;
+
+public class MeterCentralTickingTest {
+
+    private static final MetricSettings CENTRAL_TICKING = new MetricSettings(0, true, 0, RollingMax.DEFAULT_SLOTS);
+
+    private final TestingClock clock = new TestingClock();
+    private final MeterImpl ticking = new MeterImpl(clock);
+    private final MeterImpl central = CENTRAL_TICKING.newMeter(clock);
+
+    private void mark(long n) {
+        ticking.mark(n);
+        central.mark(n);
+    }
+
+    private void assertSameRates() {
+        assertEquals(ticking.getCount(), central.getCount());
+        assertEquals(ticking.getOneMinuteRate(), central.getOneMinuteRate(), 1e-12);
+        assertEquals(ticking.getFiveMinuteRate(), central.getFiveMinuteRate(), 1e-12);
+        assertEquals(ticking.getFifteenMinuteRate(), central.getFifteenMinuteRate(), 1e-12);
+        assertEquals(ticking.getMeanRate(), central.getMeanRate(), 1e-12);
+    }
+
+    @Test
+    public void catchingUpOnReadGivesTheSameRates() {
+        mark(10);
+        clock.addSeconds(6);
+        assertSameRates();
+        assertTrue(central.getOneMinuteRate() > 0);
+
+        mark(5);
+        clock.addSeconds(30);
+        assertSameRates();
+
+        for (int i = 0; i < 20; i++) {
+            mark(i);
+            clock.addMillis(2500);
+            assertSameRates();
+        }
+    }
+
+    @Test
+    public void tickerAdvancesTheMovingAverages() {
+        mark(10);
+        clock.addSeconds(6);
+        MeterTicker.tickAll();
+        double rate = ticking.getOneMinuteRate();
+
+        // marks after the tick only show up in the next interval
+        central.mark(1000);
+        assertEquals(rate, central.getOneMinuteRate(), 1e-12);
+    }
+
+    @Test
+    public void tickerStopsWhenTheLastRegistryIsDropped() {
+        MetricRegistries.get(MetricRegistry.Type.VENDOR);
+        CENTRAL_TICKING.newMeter(clock);
+        assertTrue(MeterTicker.isRunning());
+
+        MetricRegistries.dropAll();
+        assertFalse(MeterTicker.isRunning());
+
+        CENTRAL_TICKING.newMeter(clock);
+        assertTrue(MeterTicker.isRunning());
+        MeterTicker.shutdown();
+    }
+
+}
@@ -0,0 +1,74 @@
+package io.smallrye.metrics.app;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import io.smallrye.metrics.histogram.TestingClock;
+
+public class PrimitiveTimerTest {
+
+    private final TestingClock clock = new TestingClock();
+
+    @Test
+    public void timer() {
+        TimerImpl timer = new TimerImpl(new UniformReservoir(), clock);
+        long start = timer.start();
+        clock.addMillis(7);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(7), timer.recordNanos(start));
+        timer.update(TimeUnit.MILLISECONDS.toNanos(3));
+        // negative durations are ignored, zero is recorded
+        timer.update(-1);
+        timer.update(0);
+
+        assertEquals(3, timer.getCount());
+        assertEquals(Duration.ofMillis(10), timer.getElapsedTime());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(7), timer.getSnapshot().getMax());
+        assertEquals(0, timer.getSnapshot().getMin());
+    }
+
+    @Test
+    public void simpleTimer() {
+        SimpleTimerImpl timer = new SimpleTimerImpl(clock);
+        long start = timer.start();
+        clock.addMillis(7);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(7), timer.recordNanos(start));
+        timer.update(TimeUnit.MILLISECONDS.toNanos(3));
+        // durations that are not positive are ignored
+        timer.update(0);
+
+        assertEquals(2, timer.getCount());
+        assertEquals(Duration.ofMillis(10), timer.getElapsedTime());
+        clock.addSeconds(60);
+        assertEquals(Duration.ofMillis(7), timer.getMaxTimeDuration());
+        assertEquals(Duration.ofMillis(3), timer.getMinTimeDuration());
+    }
+
+    @Test
+    public void contextsRecordTheSameAsDurations() {
+        TimerImpl timer = new TimerImpl(new UniformReservoir(), clock);
+        TimerImpl.Context context = timer.time();
+        clock.addMillis(5);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(5), context.stop());
+        timer.update(Duration.ofMillis(5));
+        assertEquals(2, timer.getCount());
+        assertEquals(Duration.ofMillis(10), timer.getElapsedTime());
+    }
+
+    @Test
+    public void lazyTimerIsMaterializedWhenRecording() {
+        LazyTimer timer = MetricSettings.DEFAULTS.newLazyTimer(ExponentiallyDecayingReservoir::new, null);
+        long start = timer.start();
+        assertFalse(timer.isMaterialized());
+        assertTrue(timer.recordNanos(start) >= 0);
+        assertTrue(timer.isMaterialized());
+        timer.update(100);
+        assertEquals(2, timer.getCount());
+    }
+
+}
@@ -0,0 +1,112 @@
+package io.smallrye.metrics.app;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import io.smallrye.metrics.histogram.TestingClock;
+
+public class RollingMaxTest {
+
+    @Test
+    public void emptyWindow() {
+        RollingMax rollingMax = new RollingMax(60, TimeUnit.SECONDS, 6, new TestingClock());
+        assertEquals(0, rollingMax.getMax());
+    }
+
+    @Test
+    public void maxWithinWindow() {
+        TestingClock clock = new TestingClock();
+        RollingMax rollingMax = new RollingMax(60, TimeUnit.SECONDS, 6, clock);
+        rollingMax.update(5);
+        clock.addSeconds(15);
+        rollingMax.update(20);
+        clock.addSeconds(15);
+        rollingMax.update(10);
+        assertEquals(20, rollingMax.getMax());
+    }
+
+    @Test
+    public void oldValuesExpire() {
+        TestingClock clock = new TestingClock();
+        RollingMax rollingMax = new RollingMax(60, TimeUnit.SECONDS, 6, clock);
+        rollingMax.update(100);
+        clock.addSeconds(30);
+        rollingMax.update(10);
+        assertEquals(100, rollingMax.getMax());
+
+        clock.addSeconds(40);
+        assertEquals(10, rollingMax.getMax());
+
+        clock.addSeconds(60);
+        assertEquals(0, rollingMax.getMax());
+    }
+
+    @Test
+    public void slotsAreReusedAfterFullRotation() {
+        TestingClock clock = new TestingClock();
+        RollingMax rollingMax = new RollingMax(60, TimeUnit.SECONDS, 6, clock);
+        rollingMax.update(100);
+        clock.addSeconds(60);
+        rollingMax.update(1);
+        assertEquals(1, rollingMax.getMax());
+    }
+
+    @Test
+    public void negativeValues() {
+        RollingMax rollingMax = new RollingMax(60, TimeUnit.SECONDS, 6, new TestingClock());
+        rollingMax.update(-10);
+        rollingMax.update(-5);
+        assertEquals(-5, rollingMax.getMax());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void windowShorterThanSlots() {
+        new RollingMax(5, TimeUnit.MILLISECONDS, 6);
+    }
+
+    @Test
+    public void concurrentUpdates() throws InterruptedException {
+        RollingMax rollingMax = new RollingMax(60, TimeUnit.SECONDS, 6, new TestingClock());
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int offset = t;
+            Thread thread = new Thread(() -> {
+                for (int i = 1; i <= 10_000; i++) {
+                    rollingMax.update(i * 4L + offset);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(40_003, rollingMax.getMax());
+    }
+
+    @Test
+    public void timerTracksRollingMax() {
+        TestingClock clock = new TestingClock();
+        TimerImpl timer = new TimerImpl(new ExponentiallyDecayingReservoir(), clock, null,
+                new RollingMax(60, TimeUnit.SECONDS, 6, clock), MetricSettings.DEFAULTS);
+        timer.update(TimeUnit.SECONDS.toNanos(3));
+        clock.addSeconds(61);
+        timer.update(TimeUnit.SECONDS.toNanos(1));
+        assertEquals(TimeUnit.SECONDS.toNanos(1), timer.getRollingMax().getMax());
+        assertEquals(TimeUnit.SECONDS.toNanos(3), timer.getSnapshot().getMax());
+    }
+
+    @Test
+    public void simpleTimerTracksRollingMax() {
+        TestingClock clock = new TestingClock();
+        SimpleTimerImpl timer = new SimpleTimerImpl(clock, null, new RollingMax(60, TimeUnit.SECONDS, 6, clock));
+        timer.update(TimeUnit.SECONDS.toNanos(2));
+        assertEquals(TimeUnit.SECONDS.toNanos(2), timer.getRollingMax().getMax());
+    }
+
+}
@@ -0,0 +1,120 @@
+package io.smallrye.metrics.app;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import io.smallrye.metrics.histogram.TestingClock;
+
+public class SimpleTimerImplTest {
+
+    private final TestingClock clock = new TestingClock();
+    private final SimpleTimerImpl timer = new SimpleTimerImpl(clock);
+
+    @Test
+    public void minAndMaxAreThoseOfThePreviousMinute() {
+        timer.update(Duration.ofMillis(20));
+        timer.update(Duration.ofMillis(10));
+        timer.update(Duration.ofMillis(30));
+        // the current minute is not complete yet
+        assertNull(timer.getMaxTimeDuration());
+        assertNull(timer.getMinTimeDuration());
+
+        clock.addSeconds(60);
+        timer.update(Duration.ofMillis(1000));
+        assertEquals(Duration.ofMillis(30), timer.getMaxTimeDuration());
+        assertEquals(Duration.ofMillis(10), timer.getMinTimeDuration());
+
+        clock.addSeconds(60);
+        assertEquals(Duration.ofMillis(1000), timer.getMaxTimeDuration());
+        assertEquals(Duration.ofMillis(1000), timer.getMinTimeDuration());
+
+        assertEquals(4, timer.getCount());
+        assertEquals(Duration.ofMillis(1060), timer.getElapsedTime());
+    }
+
+    @Test
+    public void minuteWithoutUpdatesHasNoMinAndMax() {
+        timer.update(Duration.ofMillis(20));
+        clock.addSeconds(60);
+        assertEquals(Duration.ofMillis(20), timer.getMaxTimeDuration());
+        // two minutes later, the previous complete minute had no updates
+        clock.addSeconds(120);
+        assertNull(timer.getMaxTimeDuration());
+        assertNull(timer.getMinTimeDuration());
+    }
+
+    @Test
+    public void nonPositiveDurationsAreIgnored() {
+        timer.update(Duration.ZERO);
+        timer.update(Duration.ofMillis(-5));
+        assertEquals(0, timer.getCount());
+    }
+
+    @Test
+    public void timingUsesTheClock() {
+        timer.time(() -> clock.addMillis(15));
+        SimpleTimerImpl.Context context = timer.time();
+        clock.addMillis(5);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(5), context.stop());
+
+        clock.addSeconds(60);
+        assertEquals(2, timer.getCount());
+        assertEquals(Duration.ofMillis(15), timer.getMaxTimeDuration());
+        assertEquals(Duration.ofMillis(5), timer.getMinTimeDuration());
+    }
+
+    @Test
+    public void concurrentUpdates() throws Exception {
+        final int threads = 8;
+        final int updates = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            for (int t = 0; t < threads; t++) {
+                final int thread = t;
+                executor.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    for (int i = 1; i <= updates; i++) {
+                        // each thread records distinct durations, the extremes come from different threads
+                        timer.update(Duration.ofNanos((long) i * threads + thread));
+                        if (i % 1000 == 0) {
+                            timer.getMaxTimeDuration();
+                        }
+                    }
+                });
+            }
+            start.countDown();
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long expectedElapsed = 0;
+        for (int t = 0; t < threads; t++) {
+            for (long i = 1; i <= updates; i++) {
+                expectedElapsed += i * threads + t;
+            }
+        }
+        assertEquals((long) threads * updates, timer.getCount());
+        assertEquals(Duration.ofNanos(expectedElapsed), timer.getElapsedTime());
+        clock.addSeconds(60);
+        assertEquals(Duration.ofNanos((long) updates * threads + threads - 1), timer.getMaxTimeDuration());
+        assertEquals(Duration.ofNanos(threads), timer.getMinTimeDuration());
+    }
+
+}
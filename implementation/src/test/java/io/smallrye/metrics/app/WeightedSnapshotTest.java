@@ -2,7 +2,11 @@ package io.smallrye.metrics.app;
 
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.Random;
 
 import org.junit.Test;
 
@@ -17,4 +21,55 @@ public class WeightedSnapshotTest {
         WeightedSnapshot snapshot = new WeightedSnapshot(Collections.singletonList(sample));
         assertFalse(Double.isNaN(snapshot.getMean()));
     }
+
+    @Test
+    public void valuesAreSortedWithTheirWeights() {
+        Random random = new Random(42);
+        for (int size : new int[] { 0, 1, 2, 15, 16, 17, 100, 1028 }) {
+            long[] values = new long[size];
+            double[] weights = new double[size];
+            double weightedSum = 0;
+            double sumWeight = 0;
+            for (int i = 0; i < size; i++) {
+                // few distinct values, so that there are many duplicates
+                values[i] = random.nextInt(size / 4 + 1) - size / 8;
+                // weights that depend on the value, so that the mean is off if they get mixed up
+                weights[i] = values[i] + 1000;
+                weightedSum += values[i] * weights[i];
+                sumWeight += weights[i];
+            }
+            long[] expected = values.clone();
+            Arrays.sort(expected);
+
+            WeightedSnapshot snapshot = new WeightedSnapshot(values, weights);
+            assertArrayEquals(expected, snapshot.getValues());
+            assertEquals(size == 0 ? 0 : weightedSum / sumWeight, snapshot.getMean(), 1e-9);
+        }
+    }
+
+    @Test
+    public void sameResultAsFromSamples() {
+        Random random = new Random(7);
+        List<WeightedSnapshot.WeightedSample> samples = new ArrayList<>();
+        long[] values = new long[500];
+        double[] weights = new double[500];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextLong() % 10_000;
+            weights[i] = random.nextDouble();
+            samples.add(new WeightedSnapshot.WeightedSample(values[i], weights[i]));
+        }
+        WeightedSnapshot fromSamples = new WeightedSnapshot(samples);
+        WeightedSnapshot fromArrays = new WeightedSnapshot(values, weights);
+
+        assertArrayEquals(fromSamples.getValues(), fromArrays.getValues());
+        assertEquals(fromSamples.getMean(), fromArrays.getMean(), 1e-9);
+        assertEquals(fromSamples.getStdDev(), fromArrays.getStdDev(), 1e-9);
+        assertEquals(fromSamples.getMedian(), fromArrays.getMedian(), 0.0);
+        assertEquals(fromSamples.get99thPercentile(), fromArrays.get99thPercentile(), 0.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void lengthsMustMatch() {
+        new WeightedSnapshot(new long[2], new double[3]);
+    }
 }
@@ -23,7 +23,9 @@ import static org.junit.Assert.assertNotNull;
 import java.io.StringReader;
 import java.time.Duration;
 import java.util.Arrays;
+import java.util.Base64;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 import jakarta.json.Json;
 import jakarta.json.JsonObject;
@@ -47,10 +49,14 @@ import org.junit.After;
 import org.junit.Test;
 
 import io.smallrye.metrics.MetricRegistries;
+import io.smallrye.metrics.MetricsRegistryImpl;
+import io.smallrye.metrics.app.DDSketchReservoir;
 import io.smallrye.metrics.app.ExponentiallyDecayingReservoir;
 import io.smallrye.metrics.app.HistogramImpl;
 import io.smallrye.metrics.app.MeterImpl;
+import io.smallrye.metrics.app.MetricSettings;
 import io.smallrye.metrics.app.TimerImpl;
+import io.smallrye.metrics.histogram.TestingClock;
 
 public class JsonExporterTest {
 
@@ -151,6 +157,42 @@ public class JsonExporterTest {
         assertEquals(3, json.getInt("mygauge;color=blue;foo=bar"));
     }
 
+    @Test
+    public void testPrimitiveGauges() {
+        JsonExporter exporter = new JsonExporter();
+        MetricsRegistryImpl registry = (MetricsRegistryImpl) MetricRegistries.get(MetricRegistry.Type.APPLICATION);
+
+        AtomicLong state = new AtomicLong(7);
+        registry.longGauge("mygauge", state, AtomicLong::get, new Tag("kind", "long"));
+        registry.settableDoubleGauge("mygauge", new Tag("kind", "double")).set(2.5);
+
+        String result = exporter.exportMetricsByName(MetricRegistry.Type.APPLICATION, "mygauge").toString();
+        JsonObject json = Json.createReader(new StringReader(result)).read().asJsonObject();
+
+        assertEquals(7, json.getInt("mygauge;kind=long"));
+        assertEquals(2.5, json.getJsonNumber("mygauge;kind=double").doubleValue(), 0.0);
+    }
+
+    @Test
+    public void testHistogramWithSketch() {
+        JsonExporter exporter = new JsonExporter();
+        MetricRegistry registry = MetricRegistries.get(MetricRegistry.Type.APPLICATION);
+
+        Metadata metadata = Metadata.builder().withName("myhistogram").withType(MetricType.HISTOGRAM).build();
+        Histogram histogram = new HistogramImpl(new DDSketchReservoir());
+        registry.register(metadata, histogram);
+        histogram.update(5);
+        histogram.update(500);
+
+        String result = exporter.exportMetricsByName(MetricRegistry.Type.APPLICATION, "myhistogram").toString();
+        JsonObject json = Json.createReader(new StringReader(result)).read().asJsonObject().getJsonObject("myhistogram");
+
+        DDSketchReservoir.SketchSnapshot sketch = DDSketchReservoir.SketchSnapshot
+                .fromByteArray(Base64.getDecoder().decode(json.getString("sketch")));
+        assertEquals(2, sketch.size());
+        assertEquals(505, sketch.getSum());
+    }
+
     @Test
     public void testCounters() {
         JsonExporter exporter = new JsonExporter();
@@ -482,4 +524,24 @@ public class JsonExporterTest {
         assertEquals(0, json.getInt("c1"));
     }
 
+    @Test
+    public void testHistogramWithRollingMax() {
+        JsonExporter exporter = new JsonExporter();
+        MetricRegistry registry = MetricRegistries.get(MetricRegistry.Type.APPLICATION);
+        TestingClock clock = new TestingClock();
+        HistogramImpl histogram = new MetricSettings(0, false, 60, 6).newHistogram(new ExponentiallyDecayingReservoir(),
+                clock, null);
+        registry.register("myhistogram", histogram);
+        histogram.update(30);
+        clock.addSeconds(61);
+        histogram.update(10);
+
+        String result = exporter.exportMetricsByName(MetricRegistry.Type.APPLICATION, "myhistogram").toString();
+        JsonObject json = Json.createReader(new StringReader(result)).read().asJsonObject()
+                .getJsonObject("myhistogram");
+
+        assertEquals(30, json.getInt("max"));
+        assertEquals(10, json.getInt("maxWindow"));
+    }
+
 }
@@ -24,15 +24,20 @@ import static java.util.regex.Pattern.quote;
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.not;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
 import java.lang.management.ManagementFactory;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import org.eclipse.microprofile.metrics.ConcurrentGauge;
@@ -45,6 +50,7 @@ import org.eclipse.microprofile.metrics.MetricFilter;
 import org.eclipse.microprofile.metrics.MetricID;
 import org.eclipse.microprofile.metrics.MetricRegistry;
 import org.eclipse.microprofile.metrics.MetricType;
+import org.eclipse.microprofile.metrics.MetricUnits;
 import org.eclipse.microprofile.metrics.SimpleTimer;
 import org.eclipse.microprofile.metrics.Tag;
 import org.eclipse.microprofile.metrics.Timer;
@@ -55,10 +61,17 @@ import org.junit.Test;
 import io.smallrye.metrics.ExtendedMetadata;
 import io.smallrye.metrics.JmxWorker;
 import io.smallrye.metrics.MetricRegistries;
+import io.smallrye.metrics.MetricsRegistryImpl;
+import io.smallrye.metrics.app.Clock;
+import io.smallrye.metrics.app.ExemplarSampler;
 import io.smallrye.metrics.app.ExponentiallyDecayingReservoir;
+import io.smallrye.metrics.app.HistogramBuckets;
 import io.smallrye.metrics.app.HistogramImpl;
 import io.smallrye.metrics.app.MeterImpl;
+import io.smallrye.metrics.app.MetricSettings;
+import io.smallrye.metrics.app.SimpleTimerImpl;
 import io.smallrye.metrics.app.TimerImpl;
+import io.smallrye.metrics.histogram.TestingClock;
 import io.smallrye.metrics.mbean.MGaugeImpl;
 
 public class OpenMetricsExporterTest {
@@ -381,6 +394,184 @@ public class OpenMetricsExporterTest {
         assertHasValueLineExactlyOnce(result, "application_mygauge", "26.0", greenTag);
     }
 
+    @Test
+    public void exportPrimitiveGauges() {
+        OpenMetricsExporter exporter = new OpenMetricsExporter();
+        MetricsRegistryImpl registry = (MetricsRegistryImpl) MetricRegistries.get(MetricRegistry.Type.APPLICATION);
+
+        Metadata metadata = Metadata
+                .builder()
+                .withName("mygauge")
+                .withUnit(MetricUnits.MILLISECONDS)
+                .build();
+        Tag blueTag = new Tag("color", "blue");
+        registry.settableLongGauge(metadata, blueTag).set(1500);
+        Tag greenTag = new Tag("color", "green");
+        registry.doubleGauge(metadata, new double[] { 250.0 }, state -> state[0], greenTag);
+
+        String result = exporter.exportMetricsByName(MetricRegistry.Type.APPLICATION, "mygauge").toString();
+
+        assertHasTypeLineExactlyOnce(result, "application_mygauge_seconds", "gauge");
+        assertHasValueLineExactlyOnce(result, "application_mygauge_seconds", "1.5", blueTag);
+        assertHasValueLineExactlyOnce(result, "application_mygauge_seconds", "0.25", greenTag);
+    }
+
+    @Test
+    public void exportTimerWithBuckets() {
+        OpenMetricsExporter exporter = new OpenMetricsExporter();
+        MetricRegistry registry = MetricRegistries.get(MetricRegistry.Type.APPLICATION);
+
+        Metadata metadata = Metadata.builder().withName("mytimer").withType(MetricType.TIMER).build();
+        TimerImpl timer = MetricSettings.DEFAULTS.newTimer(new ExponentiallyDecayingReservoir(), Clock.defaultClock(),
+                new HistogramBuckets(100_000_000, 1_000_000_000));
+        registry.register(metadata, timer);
+        timer.update(Duration.ofMillis(50));
+        timer.update(Duration.ofMillis(500));
+        timer.update(Duration.ofSeconds(2));
+
+        String result = exporter.exportMetricsByName(MetricRegistry.Type.APPLICATION, "mytimer").toString();
+
+        assertHasTypeLineExactlyOnce(result, "application_mytimer_seconds", "histogram");
+        assertHasValueLineExactlyOnce(result, "application_mytimer_seconds_bucket", "1.0", new Tag("le", "0.1"));
+        assertHasValueLineExactlyOnce(result, "application_mytimer_seconds_bucket", "2.0", new Tag("le", "1.0"));
+        assertHasValueLineExactlyOnce(result, "application_mytimer_seconds_bucket", "3.0", new Tag("le", "+Inf"));
+        assertTrue(result.contains("application_mytimer_seconds_count 3.0\n"));
+        assertTrue(result.contains("application_mytimer_seconds_sum 2.55\n"));
+        assertFalse(result.contains("quantile"));
+    }
+
+    @Test
+    public void exportTimerWithExemplars() {
+        OpenMetricsExporter exporter = new OpenMetricsExporter(true);
+        MetricRegistry registry = MetricRegistries.get(MetricRegistry.Type.APPLICATION);
+
+        Metadata metadata = Metadata.builder().withName("mytimer").withType(MetricType.TIMER).build();
+        ExemplarSampler sampler = new ExemplarSampler(() -> Collections.singletonMap("trace_id", "abc"), 1,
+                TimeUnit.SECONDS);
+        TimerImpl timer = MetricSettings.DEFAULTS.newTimer(new ExponentiallyDecayingReservoir(), Clock.defaultClock(),
+                new HistogramBuckets(sampler, 100_000_000));
+        registry.register(metadata, timer);
+        timer.update(Duration.ofMillis(50));
+
+        String result = exporter.exportMetricsByName(MetricRegistry.Type.APPLICATION, "mytimer").toString();
+
+        assertTrue(result, Pattern.compile(
+                "application_mytimer_seconds_bucket\\{le=\"0\\.1\"} 1\\.0 # \\{trace_id=\"abc\"} 0\\.05 \\d+\\.\\d{3}\n")
+                .matcher(result).find());
+        assertTrue(result.contains("application_mytimer_seconds_bucket{le=\"+Inf\"} 1.0\n"));
+        assertTrue(result, result.endsWith("# EOF\n"));
+        assertEquals("application/openmetrics-text; version=1.0.0; charset=utf-8", exporter.getContentType());
+    }
+
+    @Test
+    public void exportTimerWithoutExemplarsAsPlainText() {
+        OpenMetricsExporter exporter = new OpenMetricsExporter();
+        MetricRegistry registry = MetricRegistries.get(MetricRegistry.Type.APPLICATION);
+
+        Metadata metadata = Metadata.builder().withName("mytimer").withType(MetricType.TIMER).build();
+        ExemplarSampler sampler = new ExemplarSampler(() -> Collections.singletonMap("trace_id", "abc"), 1,
+                TimeUnit.SECONDS);
+        TimerImpl timer = MetricSettings.DEFAULTS.newTimer(new ExponentiallyDecayingReservoir(), Clock.defaultClock(),
+                new HistogramBuckets(sampler, 100_000_000));
+        registry.register(metadata, timer);
+        timer.update(Duration.ofMillis(50));
+
+        String result = exporter.exportMetricsByName(MetricRegistry.Type.APPLICATION, "mytimer").toString();
+
+        assertTrue(result, result.contains("application_mytimer_seconds_bucket{le=\"0.1\"} 1.0\n"));
+        assertFalse(result, result.contains("trace_id"));
+        assertFalse(result, result.contains("# EOF"));
+        assertEquals("text/plain", exporter.getContentType());
+    }
+
+    @Test
+    public void exportOpenMetricsFamilies() {
+        OpenMetricsExporter exporter = new OpenMetricsExporter(true);
+        MetricRegistry registry = MetricRegistries.get(MetricRegistry.Type.APPLICATION);
+
+        Metadata counterMetadata = Metadata.builder().withName("mycounter").withType(MetricType.COUNTER)
+                .withDescription("awesome \"counter\"").build();
+        Metadata bytesMetadata = Metadata.builder().withName("mybytes").withType(MetricType.COUNTER)
+                .withUnit(MetricUnits.BYTES).build();
+        Metadata meterMetadata = Metadata.builder().withName("mymeter").withType(MetricType.METERED)
+                .withDescription("awesome meter").build();
+        Metadata timerMetadata = Metadata.builder().withName("mytimer").withType(MetricType.TIMER)
+                .withDescription("awesome timer").build();
+        Metadata histogramMetadata = Metadata.builder().withName("myhistogram").withType(MetricType.HISTOGRAM)
+                .withUnit(MetricUnits.BYTES).build();
+        Metadata simpleTimerMetadata = Metadata.builder().withName("mysimpletimer").withType(MetricType.SIMPLE_TIMER)
+                .build();
+        for (String color : new String[] { "red", "blue" }) {
+            Tag tag = new Tag("color", color);
+            registry.counter(counterMetadata, tag).inc();
+            registry.counter(bytesMetadata, tag).inc(10);
+            registry.meter(meterMetadata, tag).mark();
+            registry.register(timerMetadata, MetricSettings.DEFAULTS.newTimer(new ExponentiallyDecayingReservoir(),
+                    Clock.defaultClock(), new HistogramBuckets(100_000_000)), tag);
+            registry.timer(timerMetadata, tag).update(Duration.ofMillis(50));
+            registry.histogram(histogramMetadata, tag).update(5);
+            registry.simpleTimer(simpleTimerMetadata, tag).update(Duration.ofSeconds(1));
+        }
+        registry.concurrentGauge("mycgauge", new Tag("color", "red")).inc();
+
+        String result = exporter.exportOneScope(MetricRegistry.Type.APPLICATION).toString();
+
+        assertValidOpenMetrics(result);
+        assertHasTypeLineExactlyOnce(result, "application_mycounter", "counter");
+        assertHasHelpLineExactlyOnce(result, "application_mycounter", "awesome \\\"counter\\\"");
+        assertHasValueLineExactlyOnce(result, "application_mycounter_total", "1.0", new Tag("color", "blue"));
+        assertHasTypeLineExactlyOnce(result, "application_mybytes_bytes", "counter");
+        assertTrue(result, result.contains("# UNIT application_mybytes_bytes bytes\n"));
+        assertHasValueLineExactlyOnce(result, "application_mybytes_bytes_total", "10.0", new Tag("color", "red"));
+        assertHasTypeLineExactlyOnce(result, "application_mymeter", "counter");
+        assertHasHelpLineExactlyOnce(result, "application_mymeter", "awesome meter");
+        assertHasTypeLineExactlyOnce(result, "application_mytimer_seconds", "histogram");
+        assertTrue(result, result.contains("# UNIT application_mytimer_seconds seconds\n"));
+        assertHasTypeLineExactlyOnce(result, "application_myhistogram_bytes", "summary");
+        assertHasTypeLineExactlyOnce(result, "application_mysimpletimer", "counter");
+    }
+
+    @Test
+    public void exportTimerWithRollingMax() {
+        OpenMetricsExporter exporter = new OpenMetricsExporter();
+        MetricRegistry registry = MetricRegistries.get(MetricRegistry.Type.APPLICATION);
+
+        Metadata metadata = Metadata.builder().withName("mytimer").withType(MetricType.TIMER).build();
+        TestingClock clock = new TestingClock();
+        TimerImpl timer = new MetricSettings(0, false, 60, 6).newTimer(new ExponentiallyDecayingReservoir(), clock, null);
+        registry.register(metadata, timer);
+        timer.update(Duration.ofSeconds(3));
+        clock.addSeconds(61);
+        timer.update(Duration.ofSeconds(1));
+
+        String result = exporter.exportMetricsByName(MetricRegistry.Type.APPLICATION, "mytimer").toString();
+
+        assertTrue(result, result.contains("application_mytimer_max_window_seconds 1.0\n"));
+        // the maximum of the snapshot is kept consistent with its other values
+        assertTrue(result, result.contains("application_mytimer_max_seconds 3.0\n"));
+    }
+
+    @Test
+    public void exportHistogramWithBuckets() {
+        OpenMetricsExporter exporter = new OpenMetricsExporter();
+        MetricRegistry registry = MetricRegistries.get(MetricRegistry.Type.APPLICATION);
+
+        Metadata metadata = Metadata.builder().withName("myhistogram").withType(MetricType.HISTOGRAM)
+                .withUnit(MetricUnits.KILOBYTES).build();
+        HistogramImpl histogram = MetricSettings.DEFAULTS.newHistogram(new ExponentiallyDecayingReservoir(),
+                Clock.defaultClock(), new HistogramBuckets(1, 10));
+        registry.register(metadata, histogram);
+        histogram.update(5);
+
+        String result = exporter.exportMetricsByName(MetricRegistry.Type.APPLICATION, "myhistogram").toString();
+
+        assertHasTypeLineExactlyOnce(result, "application_myhistogram_bytes", "histogram");
+        assertHasValueLineExactlyOnce(result, "application_myhistogram_bytes_bucket", "0.0", new Tag("le", "1000.0"));
+        assertHasValueLineExactlyOnce(result, "application_myhistogram_bytes_bucket", "1.0", new Tag("le", "10000.0"));
+        assertHasValueLineExactlyOnce(result, "application_myhistogram_bytes_bucket", "1.0", new Tag("le", "+Inf"));
+        assertTrue(result.contains("application_myhistogram_bytes_count 1.0\n"));
+    }
+
     @Test
     public void exportConcurrentGauges() {
         OpenMetricsExporter exporter = new OpenMetricsExporter();
@@ -573,6 +764,30 @@ public class OpenMetricsExporterTest {
         assertHasValueLineExactlyOnce(result, "application_mysimpletimer_elapsedTime_seconds", "11.0", greenTag);
     }
 
+    @Test
+    public void exportSimpleTimerWithBuckets() {
+        OpenMetricsExporter exporter = new OpenMetricsExporter();
+        MetricRegistry registry = MetricRegistries.get(MetricRegistry.Type.APPLICATION);
+
+        Metadata metadata = Metadata
+                .builder()
+                .withType(MetricType.SIMPLE_TIMER)
+                .withName("mysimpletimer")
+                .withDescription("awesome")
+                .build();
+        SimpleTimerImpl timer = MetricSettings.DEFAULTS.newSimpleTimer(Clock.defaultClock(),
+                new HistogramBuckets(1_000_000_000));
+        registry.register(metadata, timer);
+        timer.update(Duration.ofMillis(500));
+
+        String result = exporter.exportMetricsByName(MetricRegistry.Type.APPLICATION, "mysimpletimer").toString();
+
+        assertHasHelpLineExactlyOnce(result, "application_mysimpletimer_total", "awesome");
+        assertHasTypeLineExactlyOnce(result, "application_mysimpletimer_seconds", "histogram");
+        assertHasHelpLineExactlyOnce(result, "application_mysimpletimer_seconds", "awesome");
+        assertHasValueLineExactlyOnce(result, "application_mysimpletimer_seconds_bucket", "1.0", new Tag("le", "1.0"));
+    }
+
     /**
      * Test that setting the config property smallrye.metrics.usePrefixForScope to false put the scope in the tags instead
      * of prefixing the metric name with it.
@@ -750,6 +965,67 @@ public class OpenMetricsExporterTest {
         assertTrue(result.contains("application_mycounter_total{a=\"b\\nc\"} 0.0"));
     }
 
+    /**
+     * Checks the structure that OpenMetrics requires: the metadata and samples of each family are written together,
+     * with the metadata first and at most once, the samples are named as the type of their family allows, units are
+     * a suffix of the family name and the output ends with {@code # EOF}.
+     */
+    private void assertValidOpenMetrics(String output) {
+        assertTrue(output, output.endsWith("\n# EOF\n"));
+        List<String> lines = Arrays.asList(output.substring(0, output.length() - "# EOF\n".length()).split("\n"));
+        List<String> families = new ArrayList<>();
+        String family = null;
+        String type = "unknown";
+        List<String> keywords = new ArrayList<>();
+        boolean hasSamples = false;
+        for (String line : lines) {
+            String name;
+            if (line.startsWith("# ")) {
+                String[] parts = line.split(" ", 4);
+                assertTrue(line, Arrays.asList("HELP", "TYPE", "UNIT").contains(parts[1]));
+                name = parts[2];
+                if (!name.equals(family)) {
+                    assertFalse("family " + name + " is not contiguous", families.contains(name));
+                    families.add(name);
+                    family = name;
+                    type = "unknown";
+                    keywords.clear();
+                    hasSamples = false;
+                }
+                assertFalse("metadata after samples: " + line, hasSamples);
+                assertFalse("repeated metadata: " + line, keywords.contains(parts[1]));
+                keywords.add(parts[1]);
+                if (parts[1].equals("TYPE")) {
+                    type = parts[3];
+                    if (type.equals("counter")) {
+                        assertFalse(line, name.endsWith("_total"));
+                    }
+                } else if (parts[1].equals("UNIT")) {
+                    assertTrue(line, name.endsWith("_" + parts[3]));
+                }
+            } else {
+                name = line.split("[{ ]", 2)[0];
+                List<String> suffixes;
+                switch (type) {
+                    case "counter":
+                        suffixes = Arrays.asList("_total", "_created");
+                        break;
+                    case "summary":
+                        suffixes = Arrays.asList("", "_count", "_sum", "_created");
+                        break;
+                    case "histogram":
+                        suffixes = Arrays.asList("_bucket", "_count", "_sum", "_created");
+                        break;
+                    default:
+                        suffixes = Collections.singletonList("");
+                }
+                assertTrue("sample of the wrong family: " + line, family != null && name.startsWith(family)
+                        && suffixes.contains(name.substring(family.length())));
+                hasSamples = true;
+            }
+        }
+    }
+
     private void assertHasValueLineExactlyOnce(String output, String key, String value, Tag... tags) {
         List<String> foundLines = getLines(output, key, value, tags);
         if (foundLines.isEmpty())
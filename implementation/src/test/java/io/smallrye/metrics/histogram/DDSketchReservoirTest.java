@@ -0,0 +1,128 @@
+package io.smallrye.metrics.histogram;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import io.smallrye.metrics.app.DDSketchReservoir;
+import io.smallrye.metrics.app.DDSketchReservoir.SketchSnapshot;
+
+public class DDSketchReservoirTest {
+
+    @Test
+    public void quantilesAreWithinTheRelativeAccuracy() {
+        DDSketchReservoir reservoir = new DDSketchReservoir(0.01);
+        for (int i = 1; i <= 1_000_000; i++) {
+            reservoir.update(i * 1000L);
+        }
+        SketchSnapshot snapshot = reservoir.getSnapshot();
+        assertEquals(1_000_000, snapshot.size());
+        assertEquals(500_000_000, snapshot.getMedian(), 500_000_000 * 0.01);
+        assertEquals(990_000_000, snapshot.get99thPercentile(), 990_000_000 * 0.01);
+        assertEquals(999_000_000, snapshot.get999thPercentile(), 999_000_000 * 0.01);
+        assertEquals(1000, snapshot.getMin());
+        assertEquals(1_000_000_000, snapshot.getMax());
+        assertEquals(500_000_500, snapshot.getMean(), 0.0);
+    }
+
+    @Test
+    public void relativeErrorOfRandomValues() {
+        Random random = new Random(42);
+        for (int i = 0; i < 1000; i++) {
+            DDSketchReservoir reservoir = new DDSketchReservoir(0.02);
+            long value = (random.nextLong() >>> 1) >>> random.nextInt(63);
+            long negative = -value;
+            reservoir.update(value);
+            reservoir.update(negative);
+            reservoir.update(Long.MAX_VALUE);
+            reservoir.update(Long.MIN_VALUE);
+            SketchSnapshot snapshot = reservoir.getSnapshot();
+            assertEquals(value, snapshot.getValue(0.75), Math.max(0.5, value * 0.02));
+            assertEquals(negative, snapshot.getValue(0.5), Math.max(0.5, value * 0.02));
+        }
+    }
+
+    @Test
+    public void negativeValuesAndZeros() {
+        DDSketchReservoir reservoir = new DDSketchReservoir();
+        reservoir.update(-1000);
+        reservoir.update(-10);
+        reservoir.update(0);
+        reservoir.update(10);
+        reservoir.update(1000);
+        SketchSnapshot snapshot = reservoir.getSnapshot();
+        assertEquals(-1000, snapshot.getMin());
+        assertEquals(1000, snapshot.getMax());
+        assertEquals(0, snapshot.getMean(), 0.0);
+        assertEquals(0, snapshot.getMedian(), 0.0);
+        assertArrayEquals(new long[] { -1000, -10, 0, 10, 1000 }, snapshot.getValues());
+    }
+
+    @Test
+    public void mergedSnapshotsEqualOneSketchWithAllValues() {
+        DDSketchReservoir all = new DDSketchReservoir();
+        DDSketchReservoir first = new DDSketchReservoir();
+        DDSketchReservoir second = new DDSketchReservoir();
+        Random random = new Random(7);
+        for (int i = 0; i < 10_000; i++) {
+            long value = random.nextInt(1_000_000) - 1000;
+            all.update(value);
+            (i % 3 == 0 ? first : second).update(value);
+        }
+        SketchSnapshot merged = first.getSnapshot().merge(second.getSnapshot());
+        SketchSnapshot expected = all.getSnapshot();
+        assertArrayEquals(expected.toByteArray(), merged.toByteArray());
+        assertEquals(expected.get99thPercentile(), merged.get99thPercentile(), 0.0);
+
+        first.merge(second.getSnapshot());
+        assertArrayEquals(expected.toByteArray(), first.getSnapshot().toByteArray());
+    }
+
+    @Test
+    public void serializationRoundTrip() {
+        DDSketchReservoir reservoir = new DDSketchReservoir();
+        for (int i = 0; i < 100_000; i++) {
+            reservoir.update(1_000_000 + i * 10L);
+        }
+        reservoir.update(-5);
+        reservoir.update(0);
+        SketchSnapshot snapshot = reservoir.getSnapshot();
+        byte[] bytes = snapshot.toByteArray();
+        // a few hundred bytes, regardless of the number of values
+        assertTrue(bytes.length < 1000);
+
+        SketchSnapshot read = SketchSnapshot.fromByteArray(bytes);
+        assertEquals(snapshot.size(), read.size());
+        assertEquals(snapshot.getSum(), read.getSum());
+        assertEquals(snapshot.getMin(), read.getMin());
+        assertEquals(snapshot.getMax(), read.getMax());
+        assertEquals(snapshot.getRelativeAccuracy(), read.getRelativeAccuracy(), 0.0);
+        assertArrayEquals(snapshot.getValues(), read.getValues());
+        assertArrayEquals(bytes, read.toByteArray());
+    }
+
+    @Test
+    public void emptySnapshot() {
+        SketchSnapshot snapshot = SketchSnapshot.fromByteArray(new DDSketchReservoir().getSnapshot().toByteArray());
+        assertEquals(0, snapshot.size());
+        assertEquals(0, snapshot.getMedian(), 0.0);
+        assertEquals(0, snapshot.getValues().length);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidSerializedSketch() {
+        byte[] bytes = new DDSketchReservoir().getSnapshot().toByteArray();
+        SketchSnapshot.fromByteArray(Arrays.copyOf(bytes, bytes.length - 1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void sketchesWithDifferentAccuraciesCannotBeMerged() {
+        new DDSketchReservoir(0.01).getSnapshot().merge(new DDSketchReservoir(0.02).getSnapshot());
+    }
+
+}
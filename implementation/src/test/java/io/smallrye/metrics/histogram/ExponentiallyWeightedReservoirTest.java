@@ -2,8 +2,16 @@ package io.smallrye.metrics.histogram;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.microprofile.metrics.Histogram;
+import org.eclipse.microprofile.metrics.Snapshot;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -26,4 +34,105 @@ public class ExponentiallyWeightedReservoirTest {
         }
     }
 
+    @Test
+    public void sizeIsCappedAtTheReservoirSize() {
+        final ExponentiallyDecayingReservoir reservoir = new ExponentiallyDecayingReservoir(100, 0.015, new TestingClock());
+        for (int i = 0; i < 1000; i++) {
+            reservoir.update(i);
+        }
+        assertEquals(100, reservoir.size());
+        Snapshot snapshot = reservoir.getSnapshot();
+        assertEquals(100, snapshot.size());
+        for (long value : snapshot.getValues()) {
+            assertTrue(value >= 0 && value < 1000);
+        }
+    }
+
+    @Test
+    public void smallSamplesAreKeptUntilTheReservoirIsFull() {
+        final ExponentiallyDecayingReservoir reservoir = new ExponentiallyDecayingReservoir(100, 0.015, new TestingClock());
+        for (int i = 1; i <= 10; i++) {
+            reservoir.update(i);
+        }
+        Snapshot snapshot = reservoir.getSnapshot();
+        assertEquals(10, snapshot.size());
+        assertEquals(1, snapshot.getMin());
+        assertEquals(10, snapshot.getMax());
+    }
+
+    @Test
+    public void newerValuesReplaceOlderOnes() {
+        final TestingClock clock = new TestingClock();
+        final ExponentiallyDecayingReservoir reservoir = new ExponentiallyDecayingReservoir(100, 0.015, clock);
+        for (int i = 0; i < 1000; i++) {
+            reservoir.update(1000);
+        }
+        // after 30 minutes old samples weigh exp(-27) of the new ones and are very unlikely to survive
+        clock.addSeconds(1800);
+        for (int i = 0; i < 1000; i++) {
+            reservoir.update(10);
+        }
+        Snapshot snapshot = reservoir.getSnapshot();
+        assertEquals(100, snapshot.size());
+        assertEquals(10, snapshot.getMax());
+        assertEquals(10.0, snapshot.getMean(), 1e-9);
+    }
+
+    @Test
+    public void samplesSurviveRescaling() {
+        final TestingClock clock = new TestingClock();
+        final ExponentiallyDecayingReservoir reservoir = new ExponentiallyDecayingReservoir(100, 0.015, clock);
+        for (int i = 0; i < 50; i++) {
+            reservoir.update(42);
+        }
+        clock.addSeconds(60);
+        clock.addHours(1);
+        Snapshot snapshot = reservoir.getSnapshot();
+        assertEquals(50, snapshot.size());
+        assertEquals(42.0, snapshot.getMean(), 1e-9);
+        assertEquals(50, reservoir.size());
+
+        reservoir.update(7);
+        snapshot = reservoir.getSnapshot();
+        assertEquals(51, snapshot.size());
+        assertEquals(7, snapshot.getMin());
+    }
+
+    @Test
+    public void concurrentUpdates() throws Exception {
+        final ExponentiallyDecayingReservoir reservoir = new ExponentiallyDecayingReservoir(1028, 0.015, new TestingClock());
+        final int threads = 8;
+        final int updates = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            for (int t = 0; t < threads; t++) {
+                executor.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    for (int i = 0; i < updates; i++) {
+                        reservoir.update(i % 100);
+                        if (i % 1000 == 0) {
+                            reservoir.getSnapshot();
+                        }
+                    }
+                });
+            }
+            start.countDown();
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1028, reservoir.size());
+        Snapshot snapshot = reservoir.getSnapshot();
+        assertEquals(1028, snapshot.size());
+        assertEquals(0, snapshot.getMin());
+        assertEquals(99, snapshot.getMax());
+    }
+
 }
@@ -0,0 +1,121 @@
+package io.smallrye.metrics.histogram;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.microprofile.metrics.Snapshot;
+import org.junit.Test;
+
+import io.smallrye.metrics.app.LogLinearReservoir;
+
+public class LogLinearReservoirTest {
+
+    @Test
+    public void smallValuesAreExact() {
+        LogLinearReservoir reservoir = new LogLinearReservoir();
+        for (int i = 1; i <= 100; i++) {
+            reservoir.update(i);
+        }
+        Snapshot snapshot = reservoir.getSnapshot();
+        assertEquals(100, snapshot.size());
+        assertEquals(1, snapshot.getMin());
+        assertEquals(100, snapshot.getMax());
+        assertEquals(50.5, snapshot.getMean(), 0.0);
+        assertEquals(50, snapshot.getMedian(), 0.0);
+        assertEquals(99, snapshot.get99thPercentile(), 0.0);
+        assertEquals(100, snapshot.getValue(1.0), 0.0);
+        assertEquals(100, snapshot.getValues().length);
+    }
+
+    @Test
+    public void quantilesAreWithinPrecision() {
+        LogLinearReservoir reservoir = new LogLinearReservoir();
+        for (int i = 1; i <= 1_000_000; i++) {
+            reservoir.update(i * 1000L);
+        }
+        Snapshot snapshot = reservoir.getSnapshot();
+        assertEquals(500_000_000, snapshot.getMedian(), 500_000_000 * 0.01);
+        assertEquals(990_000_000, snapshot.get99thPercentile(), 990_000_000 * 0.01);
+        assertEquals(999_000_000, snapshot.get999thPercentile(), 999_000_000 * 0.01);
+        assertEquals(1000, snapshot.getMin());
+        assertEquals(1_000_000_000, snapshot.getMax());
+    }
+
+    @Test
+    public void rareSlowValuesShowUpInHighQuantiles() {
+        LogLinearReservoir reservoir = new LogLinearReservoir();
+        for (int i = 0; i < 100_000; i++) {
+            reservoir.update(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        for (int i = 0; i < 200; i++) {
+            reservoir.update(TimeUnit.SECONDS.toNanos(1));
+        }
+        Snapshot snapshot = reservoir.getSnapshot();
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1), snapshot.get99thPercentile(),
+                TimeUnit.MILLISECONDS.toNanos(1) * 0.01);
+        assertEquals(TimeUnit.SECONDS.toNanos(1), snapshot.get999thPercentile(), TimeUnit.SECONDS.toNanos(1) * 0.01);
+    }
+
+    @Test
+    public void outOfRangeValues() {
+        LogLinearReservoir reservoir = new LogLinearReservoir(2, 1000);
+        reservoir.update(-5);
+        reservoir.update(5000);
+        Snapshot snapshot = reservoir.getSnapshot();
+        assertEquals(0, snapshot.getMin());
+        assertEquals(5000, snapshot.getMax());
+        assertEquals(5000, snapshot.getValue(1.0), 0.0);
+    }
+
+    @Test
+    public void relativeErrorOfRandomValues() {
+        Random random = new Random(42);
+        for (int i = 0; i < 1000; i++) {
+            LogLinearReservoir reservoir = new LogLinearReservoir(3, Long.MAX_VALUE);
+            long value = (random.nextLong() >>> 1) >>> random.nextInt(63);
+            reservoir.update(value);
+            reservoir.update(0);
+            reservoir.update(Long.MAX_VALUE);
+            double reported = reservoir.getSnapshot().getMedian();
+            assertTrue(value + " reported as " + reported, Math.abs(reported - value) <= value * 0.001);
+        }
+    }
+
+    @Test
+    public void emptySnapshot() {
+        Snapshot snapshot = new LogLinearReservoir().getSnapshot();
+        assertEquals(0, snapshot.size());
+        assertEquals(0, snapshot.getMax());
+        assertEquals(0, snapshot.getMin());
+        assertEquals(0.0, snapshot.getMean(), 0.0);
+        assertEquals(0.0, snapshot.get999thPercentile(), 0.0);
+    }
+
+    @Test
+    public void concurrentUpdates() throws InterruptedException {
+        LogLinearReservoir reservoir = new LogLinearReservoir();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 1; i <= 10_000; i++) {
+                    reservoir.update(i);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Snapshot snapshot = reservoir.getSnapshot();
+        assertEquals(40_000, snapshot.size());
+        assertEquals(1, snapshot.getMin());
+        assertEquals(10_000, snapshot.getMax());
+    }
+
+}
@@ -0,0 +1,69 @@
+package io.smallrye.metrics.histogram;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.microprofile.metrics.Snapshot;
+import org.junit.Test;
+
+import io.smallrye.metrics.app.SlidingTimeWindowReservoir;
+
+public class SlidingTimeWindowReservoirTest {
+
+    private final TestingClock clock = new TestingClock();
+    private final SlidingTimeWindowReservoir reservoir = new SlidingTimeWindowReservoir(60, TimeUnit.SECONDS, 6, clock);
+
+    @Test
+    public void oldValuesLeaveTheWindow() {
+        reservoir.update(1000);
+        clock.addSeconds(30);
+        reservoir.update(10);
+        reservoir.update(20);
+
+        Snapshot snapshot = reservoir.getSnapshot();
+        assertEquals(3, snapshot.size());
+        assertEquals(10, snapshot.getMin());
+        assertEquals(1000, snapshot.getMax());
+
+        // the first value was recorded in the first sub-window, which has left the window now
+        clock.addSeconds(30);
+        snapshot = reservoir.getSnapshot();
+        assertEquals(2, snapshot.size());
+        assertEquals(20, snapshot.getMax());
+        assertEquals(15.0, snapshot.getMean(), 0.0);
+
+        clock.addSeconds(60);
+        assertEquals(0, reservoir.size());
+        assertEquals(0, reservoir.getSnapshot().getMax());
+    }
+
+    @Test
+    public void slotsAreReusedAfterAFullRotation() {
+        for (int i = 0; i < 24; i++) {
+            reservoir.update(i);
+            clock.addSeconds(10);
+        }
+        // only the values of the last 6 sub-windows remain
+        Snapshot snapshot = reservoir.getSnapshot();
+        assertEquals(5, snapshot.size());
+        assertEquals(19, snapshot.getMin());
+        assertEquals(23, snapshot.getMax());
+        assertEquals(21, snapshot.getMedian(), 0.0);
+    }
+
+    @Test
+    public void highQuantileOfRecentBurst() {
+        for (int i = 0; i < 10_000; i++) {
+            reservoir.update(TimeUnit.SECONDS.toNanos(5));
+        }
+        clock.addSeconds(70);
+        for (int i = 0; i < 10_000; i++) {
+            reservoir.update(TimeUnit.MILLISECONDS.toNanos(2));
+        }
+        // the slow values from before the window don't affect the quantiles anymore
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(2), reservoir.getSnapshot().get999thPercentile(),
+                TimeUnit.MILLISECONDS.toNanos(2) * 0.01);
+    }
+
+}
@@ -81,4 +81,27 @@ public class MetadataMismatchTest {
         assertEquals(1, registry.getMetrics().size());
     }
 
+    @Test
+    public void mismatchDetectedAfterRepeatedLookups() {
+        Metadata metadata1 = Metadata.builder().withName("myhistogram").withDescription("description1").build();
+        Metadata metadata2 = Metadata.builder().withName("myhistogram").withDescription("description2").build();
+
+        Histogram histogram = registry.histogram(metadata1);
+        // the second and third lookups go through the verified-metadata fast path
+        assertEquals(histogram, registry.histogram(metadata1));
+        assertEquals(histogram, registry.histogram(metadata1));
+        try {
+            registry.histogram(metadata2);
+            fail("Shouldn't be able to re-register a metric with different metadata");
+        } catch (Exception e) {
+            assertThat(e, instanceOf(IllegalStateException.class));
+        }
+        try {
+            registry.counter("myhistogram");
+            fail("Shouldn't be able to obtain a metric under a different type");
+        } catch (Exception e) {
+            assertThat(e, instanceOf(IllegalStateException.class));
+        }
+    }
+
 }
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.smallrye.metrics.registration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import org.eclipse.microprofile.metrics.Counter;
+import org.eclipse.microprofile.metrics.MetricID;
+import org.eclipse.microprofile.metrics.Tag;
+import org.eclipse.microprofile.metrics.Timer;
+import org.junit.Test;
+
+import io.smallrye.metrics.MetricsRegistryImpl;
+
+/**
+ * Repeated lookups of a metric by name and tags.
+ */
+public class MetricLookupTest {
+
+    private final MetricsRegistryImpl registry = new MetricsRegistryImpl();
+
+    @Test
+    public void repeatedLookupsReturnSameInstance() {
+        Tag red = new Tag("color", "red");
+        Tag big = new Tag("size", "big");
+        Counter counter = registry.counter("c1", red, big);
+
+        assertSame(counter, registry.counter("c1", red, big));
+        assertSame(counter, registry.counter("c1", new Tag("color", "red"), new Tag("size", "big")));
+        // the tag order doesn't matter
+        assertSame(counter, registry.counter("c1", big, red));
+        assertSame(counter, registry.counter("c1", big, red));
+        assertSame(counter, registry.getCounter(new MetricID("c1", red, big)));
+
+        Timer timer = registry.timer("t1");
+        assertSame(timer, registry.timer("t1"));
+        assertSame(timer, registry.timer("t1", new Tag[0]));
+    }
+
+    @Test
+    public void lookupWithDifferentTypeFails() {
+        registry.counter("c1", new Tag("a", "b"));
+        registry.counter("c1", new Tag("a", "b"));
+        try {
+            registry.timer("c1", new Tag("a", "b"));
+            fail("Looking up a counter as a timer should fail");
+        } catch (IllegalStateException expected) {
+        }
+    }
+
+    @Test
+    public void removedMetricIsNotReturned() {
+        Counter original = registry.counter("c1", new Tag("a", "b"));
+        original.inc();
+        registry.remove(new MetricID("c1", new Tag("a", "b")));
+
+        Counter replacement = registry.counter("c1", new Tag("a", "b"));
+        assertNotSame(original, replacement);
+        assertEquals(0, replacement.getCount());
+        assertSame(replacement, registry.counter("c1", new Tag("a", "b")));
+
+        registry.remove("c1");
+        // now the name is free to be used for a different type
+        registry.timer("c1", new Tag("a", "b"));
+    }
+
+}
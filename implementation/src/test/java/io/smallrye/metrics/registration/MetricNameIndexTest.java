@@ -0,0 +1,79 @@
+/*
+ * Copyright 2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.smallrye.metrics.registration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.eclipse.microprofile.metrics.MetricFilter;
+import org.eclipse.microprofile.metrics.MetricID;
+import org.eclipse.microprofile.metrics.Tag;
+import org.junit.Test;
+
+import io.smallrye.metrics.MetricsRegistryImpl;
+
+/**
+ * Verifies that the name index of the registry stays consistent with the registered metrics.
+ */
+public class MetricNameIndexTest {
+
+    private final MetricsRegistryImpl registry = new MetricsRegistryImpl();
+
+    @Test
+    public void indexFollowsRegistrationsAndRemovals() {
+        MetricID red = new MetricID("counter1", new Tag("color", "red"));
+        MetricID blue = new MetricID("counter1", new Tag("color", "blue"));
+        MetricID other = new MetricID("counter2");
+        registry.counter(red);
+        registry.counter(blue);
+        registry.counter(other);
+
+        assertEquals(new HashSet<>(Arrays.asList(red, blue)), registry.getMetricIDsByName("counter1"));
+        assertEquals(new HashSet<>(Arrays.asList("counter1", "counter2")), registry.getNames());
+
+        registry.remove(red);
+        assertEquals(new HashSet<>(Arrays.asList(blue)), registry.getMetricIDsByName("counter1"));
+        assertNotNull(registry.getMetadata("counter1"));
+
+        registry.remove(blue);
+        assertTrue(registry.getMetricIDsByName("counter1").isEmpty());
+        assertNull(registry.getMetadata("counter1"));
+        assertEquals(new HashSet<>(Arrays.asList("counter2")), registry.getNames());
+    }
+
+    @Test
+    public void removeByNameAndMatching() {
+        registry.counter("counter1", new Tag("a", "1"));
+        registry.counter("counter1", new Tag("a", "2"));
+        registry.timer("timer1");
+
+        assertTrue(registry.remove("counter1"));
+        assertTrue(registry.getMetricIDsByName("counter1").isEmpty());
+        assertEquals(1, registry.getMetrics().size());
+
+        registry.removeMatching(MetricFilter.ALL);
+        assertTrue(registry.getNames().isEmpty());
+        assertTrue(registry.getMetadata().isEmpty());
+    }
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.smallrye.metrics.registration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.microprofile.metrics.Counter;
+import org.eclipse.microprofile.metrics.Metric;
+import org.eclipse.microprofile.metrics.MetricID;
+import org.eclipse.microprofile.metrics.Tag;
+import org.junit.Test;
+
+import io.smallrye.metrics.MetricsRegistryImpl;
+
+/**
+ * Verifies that the typed getters of the registry only return metrics of the requested type,
+ * also after metrics are removed.
+ */
+public class MetricTypePartitionTest {
+
+    private final MetricsRegistryImpl registry = new MetricsRegistryImpl();
+
+    @Test
+    public void typedGettersOnlyReturnMatchingMetrics() {
+        Counter counter = registry.counter("counter1");
+        registry.timer("timer1");
+        registry.simpleTimer("simpletimer1");
+        registry.histogram("histogram1");
+
+        assertEquals(1, registry.getCounters().size());
+        assertSame(counter, registry.getCounters().get(new MetricID("counter1")));
+        assertEquals(1, registry.getTimers().size());
+        assertEquals(1, registry.getSimpleTimers().size());
+        assertEquals(1, registry.getHistograms().size());
+        assertTrue(registry.getMeters().isEmpty());
+        assertTrue(registry.getGauges().isEmpty());
+        assertTrue(registry.getConcurrentGauges().isEmpty());
+        assertEquals(1, registry.getMetrics(Counter.class, (id, metric) -> true).size());
+        assertEquals(4, registry.getMetrics(Metric.class, (id, metric) -> true).size());
+    }
+
+    @Test
+    public void removedMetricsDisappearFromTypedGetters() {
+        registry.counter("counter1", new Tag("a", "1"));
+        registry.counter("counter1", new Tag("a", "2"));
+        registry.meter("meter1");
+
+        registry.remove(new MetricID("counter1", new Tag("a", "1")));
+        assertEquals(1, registry.getCounters().size());
+
+        registry.remove("counter1");
+        assertTrue(registry.getCounters().isEmpty());
+        assertNull(registry.getCounter(new MetricID("counter1", new Tag("a", "2"))));
+
+        registry.removeMatching((id, metric) -> true);
+        assertTrue(registry.getMeters().isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void typedLookupOfDifferentType() {
+        registry.counter("counter1");
+        registry.getTimer(new MetricID("counter1"));
+    }
+
+    @Test
+    public void typedLookupOfMissingMetric() {
+        assertNull(registry.getTimer(new MetricID("timer1")));
+        assertNull(registry.getMetric(new MetricID("timer1"), Counter.class));
+    }
+
+}
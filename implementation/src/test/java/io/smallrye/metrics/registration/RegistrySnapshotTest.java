@@ -0,0 +1,76 @@
+/*
+ * Copyright 2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.smallrye.metrics.registration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.microprofile.metrics.Counter;
+import org.eclipse.microprofile.metrics.MetricID;
+import org.eclipse.microprofile.metrics.MetricType;
+import org.eclipse.microprofile.metrics.Tag;
+import org.junit.Test;
+
+import io.smallrye.metrics.MetricsRegistryImpl;
+import io.smallrye.metrics.RegistrySnapshot;
+
+public class RegistrySnapshotTest {
+
+    private final MetricsRegistryImpl registry = new MetricsRegistryImpl();
+
+    @Test
+    public void snapshotIsSortedAndCarriesMetadata() {
+        registry.timer("b");
+        Counter counter = registry.counter("a", new Tag("x", "2"));
+        registry.counter("a", new Tag("x", "1"));
+
+        RegistrySnapshot snapshot = registry.getSnapshot();
+        assertEquals(3, snapshot.size());
+        assertEquals(new MetricID("a", new Tag("x", "1")), snapshot.getMetricID(0));
+        assertEquals(new MetricID("a", new Tag("x", "2")), snapshot.getMetricID(1));
+        assertEquals(new MetricID("b"), snapshot.getMetricID(2));
+        assertSame(counter, snapshot.getMetric(1));
+        assertEquals(MetricType.COUNTER, snapshot.getMetadata(0).getTypeRaw());
+        assertEquals(MetricType.TIMER, snapshot.getMetadata(2).getTypeRaw());
+    }
+
+    @Test
+    public void snapshotIsReusedUntilRegistryChanges() {
+        registry.counter("a");
+        RegistrySnapshot snapshot = registry.getSnapshot();
+        // looking up an existing metric doesn't change the registry
+        registry.counter("a");
+        assertSame(snapshot, registry.getSnapshot());
+
+        registry.counter("b");
+        RegistrySnapshot afterRegistration = registry.getSnapshot();
+        assertNotSame(snapshot, afterRegistration);
+        assertEquals(2, afterRegistration.size());
+
+        registry.remove("a");
+        RegistrySnapshot afterRemoval = registry.getSnapshot();
+        assertEquals(1, afterRemoval.size());
+        assertEquals(new MetricID("b"), afterRemoval.getMetricID(0));
+
+        registry.remove(new MetricID("b"));
+        assertTrue(registry.getSnapshot().isEmpty());
+    }
+
+}